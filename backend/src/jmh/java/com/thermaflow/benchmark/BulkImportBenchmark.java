@@ -0,0 +1,152 @@
+package com.thermaflow.benchmark;
+
+import com.thermaflow.ThermaFlowApplication;
+import com.thermaflow.controller.RecipeController;
+import com.thermaflow.dto.InfusionRecipeDTO;
+import com.thermaflow.dto.InfusionStepDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.EmployeeRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import com.thermaflow.repository.SaunaRoomRepository;
+import com.thermaflow.service.InfusionSlotService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Insert throughput of the bulk imports: a recipe with many steps through {@code RecipeController.createRecipe}
+ * and a day of slots through {@code InfusionSlotService.createAndConfirmSlots}.
+ * 
+ * Runs the application against a fresh in-memory database per {@code batchSize}; a batch size of 1
+ * sends every row on its own, as the former identity keys did. Reports imports per second plus the
+ * {@code rows} counter (rows per second). Against H2 in memory the difference is the JDBC overhead only;
+ * over a network every saved round-trip also saves its latency.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="BulkImportBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+    
+    private static final int STEPS_PER_RECIPE = 50;
+    private static final int SLOTS_PER_DAY = 48;
+    
+    @Param({"1", "50"})
+    public int batchSize;
+    
+    private ConfigurableApplicationContext context;
+    private RecipeController recipeController;
+    private InfusionSlotService slotService;
+    private DailyScheduleRepository scheduleRepository;
+    private InfusionRecipeDTO recipeImport;
+    private SaunaRoom room;
+    private Employee employee;
+    private InfusionRecipe recipe;
+    private LocalDate nextDate;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+    
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ThermaFlowApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bulk-import-" + batchSize + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "logging.level.com.thermaflow=WARN")
+                .run();
+        recipeController = context.getBean(RecipeController.class);
+        slotService = context.getBean(InfusionSlotService.class);
+        scheduleRepository = context.getBean(DailyScheduleRepository.class);
+        
+        recipeImport = new InfusionRecipeDTO();
+        recipeImport.setName("Imported Ritual");
+        recipeImport.setSteps(IntStream.range(0, STEPS_PER_RECIPE)
+                .mapToObj(i -> {
+                    InfusionStepDTO step = new InfusionStepDTO();
+                    step.setName("Round " + (i + 1));
+                    step.setDurationSeconds(12);
+                    step.setHeatIntensity(1 + i % 10);
+                    step.setScentDosageMl(5);
+                    step.setIngredientId(1L + i % 5);
+                    step.setMusicTrackId("TRACK_" + i);
+                    step.setLightingScene("DMX_SCENE_" + i % 8);
+                    return step;
+                })
+                .toList());
+        
+        room = context.getBean(SaunaRoomRepository.class).save(SaunaRoom.builder()
+                .name("Import Sauna")
+                .capacity(20)
+                .type(SaunaType.FINNISH)
+                .hasSoundSystem(true)
+                .requiredCoolDownMin(5)
+                .build());
+        employee = context.getBean(EmployeeRepository.class).save(Employee.builder()
+                .firstName("Import")
+                .lastName("Master")
+                .certificationLevel(5)
+                .dailyMaxInfusions(SLOTS_PER_DAY)
+                .active(true)
+                .build());
+        InfusionRecipe shortRecipe = InfusionRecipe.builder().name("Import Ten Minutes").build();
+        shortRecipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(600)
+                .heatIntensity(5)
+                .scentDosageMl(0)
+                .build());
+        recipe = context.getBean(InfusionRecipeRepository.class).save(shortRecipe);
+        // Far away from today, so the imports do not touch the signage snapshots
+        nextDate = LocalDate.of(2100, 1, 1);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public InfusionRecipeDTO importRecipe(Rows counter) {
+        counter.rows += 1 + STEPS_PER_RECIPE;
+        return recipeController.createRecipe(recipeImport);
+    }
+    
+    @Benchmark
+    public List<InfusionSlot> importDay(Rows counter) {
+        DailySchedule schedule = scheduleRepository.save(DailySchedule.builder().date(nextDate).build());
+        nextDate = nextDate.plusDays(1);
+        List<InfusionSlot> slots = new ArrayList<>(SLOTS_PER_DAY);
+        for (int i = 0; i < SLOTS_PER_DAY; i++) {
+            slots.add(InfusionSlot.builder()
+                    .schedule(schedule)
+                    .room(room)
+                    .recipe(recipe)
+                    .employee(employee)
+                    .startTime(LocalTime.MIDNIGHT.plusMinutes(i * 20L))
+                    .confirmed(false)
+                    .cancelled(false)
+                    .build());
+        }
+        counter.rows += 1 + SLOTS_PER_DAY;
+        return slotService.createAndConfirmSlots(slots);
+    }
+}
@@ -0,0 +1,186 @@
+package com.thermaflow.benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Side-by-side HTTP load benchmark of running backends, e.g. one on platform threads and one
+ * on virtual threads, with many concurrent clients polling signage and downloading schedule PDFs.
+ * 
+ * Start the backends first, for example:
+ * <pre>
+ * java -jar target/thermaflow-backend-1.0.0-SNAPSHOT.jar --server.port=8080 --spring.threads.virtual.enabled=false
+ * java -jar target/thermaflow-backend-1.0.0-SNAPSHOT.jar --server.port=8081   # built with -Pjava21, run on Java 21
+ * </pre>
+ * then run:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.thermaflow.benchmark.ConcurrentClientsBenchmark \
+ *     -Dbenchmark.args="platform=http://localhost:8080 virtual=http://localhost:8081 --clients=1000 --seconds=30"
+ * </pre>
+ * Every client sends its requests one after another. Both scenarios run against each backend in turn,
+ * and the live thread count of the backend is read from the actuator after each run.
+ */
+public class ConcurrentClientsBenchmark {
+    
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+    
+    private record Result(String backend, String scenario, long requests, long errors, double seconds,
+                          long[] latenciesMicros, String serverThreads) {
+        
+        double throughput() {
+            return requests / seconds;
+        }
+        
+        double percentileMillis(double percentile) {
+            if (latenciesMicros.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latenciesMicros.length) - 1;
+            return latenciesMicros[Math.max(index, 0)] / 1000.0;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, URI> backends = new LinkedHashMap<>();
+        int clients = 1000;
+        int seconds = 30;
+        LocalDate date = LocalDate.now();
+        for (String arg : args) {
+            if (arg.startsWith("--clients=")) {
+                clients = Integer.parseInt(arg.substring("--clients=".length()));
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Integer.parseInt(arg.substring("--seconds=".length()));
+            } else if (arg.startsWith("--date=")) {
+                date = LocalDate.parse(arg.substring("--date=".length()));
+            } else if (arg.contains("=")) {
+                backends.put(arg.substring(0, arg.indexOf('=')), URI.create(arg.substring(arg.indexOf('=') + 1)));
+            } else {
+                backends.put(arg, URI.create(arg));
+            }
+        }
+        if (backends.isEmpty()) {
+            backends.put("local", URI.create("http://localhost:8080"));
+        }
+        
+        Map<String, String> scenarios = new LinkedHashMap<>();
+        scenarios.put("signage", "/api/signage/next");
+        scenarios.put("pdf", "/api/schedules/" + date + "/pdf");
+        
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, URI> backend : backends.entrySet()) {
+            for (Map.Entry<String, String> scenario : scenarios.entrySet()) {
+                URI uri = backend.getValue().resolve(scenario.getValue());
+                System.out.printf("%s / %s: %d clients for %d s against %s%n",
+                        backend.getKey(), scenario.getKey(), clients, seconds, uri);
+                results.add(run(client, backend.getKey(), backend.getValue(), scenario.getKey(), uri, clients, seconds));
+            }
+        }
+        
+        System.out.println();
+        System.out.printf("%-10s %-8s %10s %8s %9s %9s %9s %9s%n",
+                "backend", "scenario", "req/s", "errors", "p50 ms", "p99 ms", "max ms", "threads");
+        for (Result result : results) {
+            System.out.printf("%-10s %-8s %10.1f %8d %9.1f %9.1f %9.1f %9s%n",
+                    result.backend(), result.scenario(), result.throughput(), result.errors(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100),
+                    result.serverThreads());
+        }
+    }
+    
+    private static Result run(HttpClient client, String backend, URI base, String scenario, URI uri,
+                              int clients, int seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        long[][] latencies = new long[clients][];
+        long[] errors = new long[clients];
+        long[] counts = new long[clients];
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            int clientIndex = i;
+            pool.execute(() -> {
+                long[] own = new long[1024];
+                int count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                        try (InputStream body = response.body()) {
+                            body.transferTo(OutputStream.nullOutputStream());
+                        }
+                        if (response.statusCode() != 200) {
+                            errors[clientIndex]++;
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        errors[clientIndex]++;
+                        continue;
+                    }
+                    if (count == own.length) {
+                        own = Arrays.copyOf(own, count * 2);
+                    }
+                    own[count++] = (System.nanoTime() - sent) / 1000;
+                }
+                latencies[clientIndex] = Arrays.copyOf(own, count);
+                counts[clientIndex] = count;
+            });
+        }
+        
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(seconds + 120L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        
+        long[] all = Arrays.stream(latencies)
+                .filter(clientLatencies -> clientLatencies != null)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        return new Result(backend, scenario, Arrays.stream(counts).sum(), Arrays.stream(errors).sum(),
+                elapsed, all, serverThreads(client, base));
+    }
+    
+    /**
+     * Live threads of the backend JVM; virtual threads are not counted.
+     */
+    private static String serverThreads(HttpClient client, URI base) {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(base.resolve("/actuator/metrics/jvm.threads.live")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = METRIC_VALUE.matcher(response.body());
+            return matcher.find() ? String.valueOf((long) Double.parseDouble(matcher.group(1))) : "n/a";
+        } catch (Exception e) {
+            return "n/a";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.thermaflow.benchmark;
+
+import com.thermaflow.dto.RecipeMapper;
+import com.thermaflow.dto.SlotMapper;
+import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.repository.SlotListingView;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the MapStruct mappers on a day of 100 slots: slot entities and slot listing views
+ * with {@code SlotMapper}, and recipes with their steps with {@code RecipeMapper}.
+ * 
+ * Reports mapped objects per second; each operation maps the whole day or all recipes.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="MappingBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+    
+    private static final int SLOTS = 100;
+    
+    private final SlotMapper slotMapper = Mappers.getMapper(SlotMapper.class);
+    private final RecipeMapper recipeMapper = Mappers.getMapper(RecipeMapper.class);
+    
+    private List<InfusionSlot> slots;
+    private List<SlotListingView> listingViews;
+    private List<InfusionRecipe> recipes;
+    
+    @Setup
+    public void setUp() {
+        SyntheticSchedule day = new SyntheticSchedule(LocalDate.of(2024, 1, 15), SLOTS);
+        slots = day.slots();
+        listingViews = day.listingViews();
+        recipes = day.recipes();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(SLOTS)
+    public void slotsToDTO(Blackhole blackhole) {
+        for (InfusionSlot slot : slots) {
+            blackhole.consume(slotMapper.toDTO(slot));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(SLOTS)
+    public void listingViewsToDTO(Blackhole blackhole) {
+        for (SlotListingView view : listingViews) {
+            blackhole.consume(slotMapper.toDTO(view));
+        }
+    }
+    
+    @Benchmark
+    public void recipesToDTO(Blackhole blackhole) {
+        for (InfusionRecipe recipe : recipes) {
+            blackhole.consume(recipeMapper.toDTO(recipe));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.thermaflow.benchmark;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.thermaflow.service.PdfExportService;
+import com.thermaflow.service.PdfExportService.ScheduleRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Rendering cost of the daily schedule PDF.
+ * 
+ * Reports documents per second plus the {@code pages} counter (pages per second), so the cost
+ * per page is the inverse of the latter. Add {@code -prof gc} to see the allocation per page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfRenderingBenchmark {
+    
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+    private static final String[] ROOMS = {"Finnish Sauna", "Bio Sauna", "Steam Bath", "Garden Sauna"};
+    private static final String[] SCENTS = {"CITRUS, HERBAL", "WOODY", "FLORAL, MINTY", "N/A"};
+    
+    @Param({"30", "300"})
+    public int slots;
+    
+    private PdfExportService pdfExportService;
+    private List<ScheduleRow> rows;
+    private int pagesPerDocument;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Pages {
+        public long pages;
+    }
+    
+    @Setup
+    public void setUp() throws Exception {
+        // Rendering does not touch the repository, cache or executor
+        pdfExportService = new PdfExportService(null, null, null, null, Runnable::run, new SimpleMeterRegistry());
+        rows = IntStream.range(0, slots)
+                .mapToObj(i -> new ScheduleRow(
+                        String.format("%02d:%02d - %02d:%02d", 9 + i / 12 % 12, i % 4 * 15, 9 + i / 12 % 12, i % 4 * 15 + 12),
+                        ROOMS[i % ROOMS.length],
+                        "Nordic Aurora " + i,
+                        1 + i % 9,
+                        SCENTS[i % SCENTS.length]))
+                .toList();
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfExportService.writeDailySchedulePdf(DATE, rows, out);
+        PdfReader reader = new PdfReader(out.toByteArray());
+        pagesPerDocument = reader.getNumberOfPages();
+        reader.close();
+    }
+    
+    @Benchmark
+    public void renderSchedule(Pages counter) throws Exception {
+        pdfExportService.writeDailySchedulePdf(DATE, rows, OutputStream.nullOutputStream());
+        counter.pages += pagesPerDocument;
+    }
+}
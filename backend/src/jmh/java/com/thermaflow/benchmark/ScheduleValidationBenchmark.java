@@ -0,0 +1,79 @@
+package com.thermaflow.benchmark;
+
+import com.thermaflow.dto.Conflict;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.repository.*;
+import com.thermaflow.service.ScheduleValidatorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cost of validating one new slot with {@code ScheduleValidatorService.validate} against days of
+ * 10, 100 and 1000 slots, once for a slot that fits and once for a slot that clashes with its room
+ * and employee.
+ * 
+ * The day comes from {@link SyntheticSchedule}; the repositories are stubs that hand it out once, after which
+ * the day's conflict index and shifts are served from memory, as in the running application.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ScheduleValidationBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleValidationBenchmark {
+    
+    // Past days are evicted from the validator's caches, so the synthetic day lies in the future
+    private static final LocalDate DATE = LocalDate.of(2099, 6, 1);
+    
+    @Param({"10", "100", "1000"})
+    public int slotsPerDay;
+    
+    private ScheduleValidatorService validatorService;
+    private InfusionSlot freeSlot;
+    private InfusionSlot conflictingSlot;
+    
+    @Setup
+    public void setUp() {
+        SyntheticSchedule day = new SyntheticSchedule(DATE, slotsPerDay);
+        InfusionSlotRepository slotRepository = mock(InfusionSlotRepository.class, withSettings().stubOnly());
+        ShiftPlanRepository shiftPlanRepository = mock(ShiftPlanRepository.class, withSettings().stubOnly());
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(day.slots());
+        when(shiftPlanRepository.findByDate(any())).thenReturn(day.shifts());
+        validatorService = new ScheduleValidatorService(
+                slotRepository,
+                mock(IngredientRepository.class, withSettings().stubOnly()),
+                mock(InfusionRecipeRepository.class, withSettings().stubOnly()),
+                shiftPlanRepository,
+                mock(EmployeeRepository.class, withSettings().stubOnly()),
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()),
+                new SimpleMeterRegistry());
+        
+        freeSlot = day.freeCandidate(day.middleStep());
+        conflictingSlot = day.conflictingCandidate(day.middleStep());
+        if (!validatorService.validate(freeSlot).isEmpty() || validatorService.validate(conflictingSlot).isEmpty()) {
+            throw new IllegalStateException("Synthetic candidates do not validate as expected");
+        }
+    }
+    
+    @Benchmark
+    public List<Conflict> validateFreeSlot() {
+        return validatorService.validate(freeSlot);
+    }
+    
+    @Benchmark
+    public List<Conflict> validateConflictingSlot() {
+        return validatorService.validate(conflictingSlot);
+    }
+}
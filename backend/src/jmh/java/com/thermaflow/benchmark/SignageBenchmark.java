@@ -0,0 +1,54 @@
+package com.thermaflow.benchmark;
+
+import com.thermaflow.dto.SignageDisplayDTO;
+import com.thermaflow.repository.InfusionSlotRepository;
+import com.thermaflow.service.DigitalSignageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cost of {@code DigitalSignageService.getNextInfusions}, the call every signage screen polls,
+ * for days of 100 and 1000 slots.
+ * 
+ * The repository stub returns the same {@link SyntheticSchedule} for today and tomorrow, so the
+ * measured path is the lookup in the in-memory snapshots, not the snapshot build. Which slots are
+ * upcoming depends on the time of day the benchmark runs.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="SignageBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignageBenchmark {
+    
+    @Param({"100", "1000"})
+    public int slotsPerDay;
+    
+    private DigitalSignageService signageService;
+    
+    @Setup
+    public void setUp() {
+        SyntheticSchedule day = new SyntheticSchedule(LocalDate.now(), slotsPerDay);
+        InfusionSlotRepository slotRepository = mock(InfusionSlotRepository.class, withSettings().stubOnly());
+        when(slotRepository.findSignageViewsByDate(any())).thenReturn(day.signageViews());
+        when(slotRepository.findRecipeScentsByDate(any())).thenReturn(day.recipeScents());
+        signageService = new DigitalSignageService(slotRepository, new SimpleMeterRegistry());
+        signageService.getNextInfusions();
+    }
+    
+    @Benchmark
+    public List<SignageDisplayDTO> getNextInfusions() {
+        return signageService.getNextInfusions();
+    }
+}
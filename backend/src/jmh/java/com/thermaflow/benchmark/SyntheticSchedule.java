@@ -0,0 +1,239 @@
+package com.thermaflow.benchmark;
+
+import com.thermaflow.model.*;
+import com.thermaflow.repository.RecipeScentView;
+import com.thermaflow.repository.SignageSlotView;
+import com.thermaflow.repository.SlotListingView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * A conflict-free day of infusions built in memory, for benchmarks that run without a database.
+ * 
+ * Every room runs an infusion every 40 minutes from 09:00 (20 minutes plus 10 minutes cool-down, and
+ * 10 minutes to spare), up to {@value #SLOTS_PER_ROOM} per room. There are twice as many employees
+ * as rooms, so half of them are free at any start time, and one spare room stays empty. Every fourth
+ * recipe requires {@code HIGH_HEAT}, which every third employee has. All entities
+ * have ids and fully initialized associations, as if loaded with the day queries.
+ */
+public final class SyntheticSchedule {
+    
+    static final int SLOTS_PER_ROOM = 20;
+    static final LocalTime FIRST_START = LocalTime.of(9, 0);
+    static final int CADENCE_MINUTES = 40;
+    
+    private static final ScentProfile[] SCENTS = ScentProfile.values();
+    private static final int RECIPES = 8;
+    private static final int STEPS_PER_RECIPE = 4;
+    
+    private final LocalDate date;
+    private final DailySchedule schedule;
+    private final List<SaunaRoom> rooms = new ArrayList<>();
+    private final List<Employee> employees = new ArrayList<>();
+    private final List<InfusionRecipe> recipes = new ArrayList<>();
+    private final List<InfusionSlot> slots = new ArrayList<>();
+    private final List<ShiftPlan> shifts = new ArrayList<>();
+    
+    /**
+     * @param date The day of the schedule
+     * @param slotCount Number of slots of the day
+     */
+    public SyntheticSchedule(LocalDate date, int slotCount) {
+        this.date = date;
+        this.schedule = DailySchedule.builder().id(1L).date(date).published(true).build();
+        int roomCount = (slotCount + SLOTS_PER_ROOM - 1) / SLOTS_PER_ROOM;
+        
+        // One more room than needed, left empty for candidates that fit
+        for (int i = 0; i <= roomCount; i++) {
+            rooms.add(SaunaRoom.builder()
+                    .id((long) i + 1)
+                    .name("Sauna " + (i + 1))
+                    .capacity(20)
+                    .type(SaunaType.values()[i % SaunaType.values().length])
+                    .hasSoundSystem(i % 2 == 0)
+                    .requiredCoolDownMin(10)
+                    .build());
+        }
+        for (int i = 0; i < 2 * roomCount; i++) {
+            Employee employee = Employee.builder()
+                    .id((long) i + 1)
+                    .firstName("Aufguss")
+                    .lastName("Meister " + (i + 1))
+                    .certificationLevel(1 + i % 5)
+                    .dailyMaxInfusions(SLOTS_PER_ROOM)
+                    .skills(i % 3 == 0 ? EnumSet.allOf(EmployeeSkill.class) : EnumSet.of(EmployeeSkill.WENIK))
+                    .active(true)
+                    .build();
+            employees.add(employee);
+            shifts.add(ShiftPlan.builder()
+                    .id((long) i + 1)
+                    .employee(employee)
+                    .date(date)
+                    .startTime(LocalTime.of(8, 0))
+                    .endTime(LocalTime.of(23, 0))
+                    .build());
+        }
+        
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < SCENTS.length; i++) {
+            ingredients.add(Ingredient.builder()
+                    .id((long) i + 1)
+                    .name(SCENTS[i].name() + " Oil")
+                    .viscosity(20)
+                    .scentProfile(SCENTS[i])
+                    .stockLevel(1_000_000)
+                    .costPerMl(BigDecimal.valueOf(0.12))
+                    .build());
+        }
+        for (int i = 0; i < RECIPES; i++) {
+            InfusionRecipe recipe = InfusionRecipe.builder()
+                    .id((long) i + 1)
+                    .name("Recipe " + (i + 1))
+                    .description("Synthetic recipe " + (i + 1))
+                    .theme("Nordic Aurora " + (i + 1))
+                    .requiredSkills(i % 4 == 0 ? EnumSet.of(EmployeeSkill.HIGH_HEAT) : EnumSet.noneOf(EmployeeSkill.class))
+                    .build();
+            for (int step = 0; step < STEPS_PER_RECIPE; step++) {
+                recipe.addStep(InfusionStep.builder()
+                        .id((long) i * STEPS_PER_RECIPE + step + 1)
+                        .name("Round " + (step + 1))
+                        .durationSeconds(300)
+                        .heatIntensity(1 + (i + step) % 10)
+                        .scentDosageMl(5 + step)
+                        .ingredient(ingredients.get((i + step) % ingredients.size()))
+                        .build());
+            }
+            recipes.add(recipe);
+        }
+        
+        // Employee (room + step * rooms) mod 2 * rooms: the rooms of one start time get distinct employees
+        for (int i = 0; i < slotCount; i++) {
+            int room = i % roomCount;
+            int step = i / roomCount;
+            InfusionSlot slot = InfusionSlot.builder()
+                    .id((long) i + 1)
+                    .schedule(schedule)
+                    .room(rooms.get(room))
+                    .recipe(recipes.get(i % RECIPES))
+                    .employee(employees.get((room + step * roomCount) % employees.size()))
+                    .startTime(startOf(step))
+                    .confirmed(false)
+                    .cancelled(false)
+                    .build();
+            slots.add(slot);
+            schedule.getSlots().add(slot);
+        }
+    }
+    
+    static LocalTime startOf(int step) {
+        return FIRST_START.plusMinutes((long) step * CADENCE_MINUTES);
+    }
+    
+    public LocalDate date() {
+        return date;
+    }
+    
+    /**
+     * A start time in the middle of the day at which every room has a slot.
+     */
+    public int middleStep() {
+        int roomCount = rooms.size() - 1;
+        return (slots.size() / roomCount - 1) / 2;
+    }
+    
+    public List<InfusionSlot> slots() {
+        return slots;
+    }
+    
+    public List<ShiftPlan> shifts() {
+        return shifts;
+    }
+    
+    public List<InfusionRecipe> recipes() {
+        return recipes;
+    }
+    
+    /**
+     * A new slot in the empty room with an employee who is free at that time.
+     */
+    public InfusionSlot freeCandidate(int step) {
+        int roomCount = rooms.size() - 1;
+        return candidate(rooms.get(roomCount), employees.get((step * roomCount + roomCount) % employees.size()), step);
+    }
+    
+    /**
+     * A new slot on top of the existing slot of the first room at that time, by the same employee.
+     */
+    public InfusionSlot conflictingCandidate(int step) {
+        int roomCount = rooms.size() - 1;
+        return candidate(rooms.get(0), employees.get(step * roomCount % employees.size()), step);
+    }
+    
+    private InfusionSlot candidate(SaunaRoom room, Employee employee, int step) {
+        return InfusionSlot.builder()
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipes.get(1))
+                .employee(employee)
+                .startTime(startOf(step))
+                .confirmed(false)
+                .cancelled(false)
+                .build();
+    }
+    
+    /**
+     * The day as the signage read model, in start order like the signage query.
+     */
+    public List<SignageSlotView> signageViews() {
+        return slots.stream()
+                .sorted(Comparator.comparing(InfusionSlot::getStartTime))
+                .map(slot -> new SignageSlotView(
+                        slot.getId(),
+                        slot.getRoom().getName(),
+                        slot.getRecipe().getId(),
+                        slot.getRecipe().getName(),
+                        slot.getRecipe().getTheme(),
+                        slot.getStartTime(),
+                        (long) slot.getRecipe().calculateTotalDuration(),
+                        slot.getAverageHeatIntensity()))
+                .toList();
+    }
+    
+    public List<RecipeScentView> recipeScents() {
+        return recipes.stream()
+                .flatMap(recipe -> recipe.getSteps().stream()
+                        .map(step -> new RecipeScentView(recipe.getId(), step.getIngredient().getScentProfile())))
+                .distinct()
+                .toList();
+    }
+    
+    /**
+     * The day as the slot listing read model.
+     */
+    public List<SlotListingView> listingViews() {
+        return slots.stream()
+                .map(slot -> new SlotListingView(
+                        slot.getId(),
+                        schedule.getId(),
+                        slot.getRoom().getId(),
+                        slot.getRoom().getName(),
+                        slot.getRecipe().getId(),
+                        slot.getRecipe().getName(),
+                        slot.getRecipe().getTheme(),
+                        slot.getEmployee().getId(),
+                        slot.getEmployee().getFullName(),
+                        slot.getStartTime(),
+                        slot.getConfirmed(),
+                        slot.getCancelled(),
+                        slot.getNotes(),
+                        (long) slot.getRecipe().calculateTotalDuration(),
+                        slot.getAverageHeatIntensity()))
+                .toList();
+    }
+}
@@ -1,42 +1,167 @@
 package com.thermaflow.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Configuration for async task execution.
  * 
- * Note: Virtual Threads are available in Java 21+. On Java 17, this uses
- * a standard ThreadPoolTaskExecutor optimized for I/O operations.
+ * On Java 21+ with {@code spring.threads.virtual.enabled=true} (build with {@code -Pjava21}),
+ * async work runs on virtual threads and Spring Boot moves Tomcat request handling to virtual
+ * threads as well. Otherwise, e.g. on Java 17, a bounded platform thread pool is used.
  * 
- * To enable Virtual Threads on Java 21+:
- * - Uncomment executor.setVirtualThreads(true)
- * - Set spring.threads.virtual.enabled=true in application.yml
+ * Both executors report {@code thermaflow.async.tasks.queued} (tasks waiting for a thread or,
+ * on virtual threads, for the concurrency limit) and {@code thermaflow.async.tasks.active}.
+ * 
+ * Signage screens are written by a separate executor that neither blocks nor rejects, so thousands
+ * of screens or a few stalled ones never compete with PDF rendering for the limits above.
  */
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+public class AsyncConfig implements WebMvcConfigurer {
+    
+    // Renders at the same time on virtual threads; PDF rendering is CPU bound
+    private static final int VIRTUAL_CONCURRENCY_LIMIT = 50;
+    
+    private final ObjectProvider<AsyncTaskExecutor> asyncExecutor;
+    
+    public AsyncConfig(@Qualifier("virtualThreadExecutor") ObjectProvider<AsyncTaskExecutor> asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
     
     /**
-     * Task executor optimized for I/O-heavy operations like PDF generation.
-     * On Java 21+, this can be configured to use Virtual Threads.
+     * Task executor for I/O-heavy operations like PDF generation, on virtual threads.
+     * Submitting beyond the concurrency limit waits for a running task to finish.
      */
     @Bean(name = "virtualThreadExecutor")
-    public Executor virtualThreadExecutor() {
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualThreadExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        CountingVirtualThreadExecutor executor = new CountingVirtualThreadExecutor();
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(VIRTUAL_CONCURRENCY_LIMIT);
+        registerTaskGauges(meterRegistry, executor.waiting::get, executor.active::get);
+        return executor;
+    }
+    
+    /**
+     * Task executor for I/O-heavy operations like PDF generation, on platform threads.
+     * Used when virtual threads are not available or disabled.
+     */
+    @Bean(name = "virtualThreadExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor platformThreadExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("async-");
-        
-        // Uncomment the following line when using Java 21+
-        // executor.setVirtualThreads(true);
-        
+        executor.initialize();
+        registerTaskGauges(meterRegistry,
+                () -> executor.getThreadPoolExecutor().getQueue().size(),
+                executor::getActiveCount);
+        return executor;
+    }
+    
+    /**
+     * Writer for signage screens, one virtual thread per write without a concurrency limit.
+     * Each screen has at most one write in flight and bounds its own backlog.
+     */
+    @Bean(name = "signageWriterExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualSignageWriterExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("signage-writer-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+    
+    /**
+     * Writer for signage screens on platform threads. Without a queue, a write either reuses an
+     * idle thread or starts a new one, so it never waits behind a stalled screen or gets rejected;
+     * threads are only held while frames are being written and time out when idle.
+     */
+    @Bean(name = "signageWriterExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor platformSignageWriterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(Integer.MAX_VALUE);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(60);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("signage-writer-");
         executor.initialize();
         return executor;
     }
+    
+    /**
+     * Streaming responses (e.g. the schedule PDF) are written on the same executor
+     * instead of Spring MVC's fallback, which starts a new platform thread per request.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncExecutor.getObject());
+    }
+    
+    // Web slice tests run without a meter registry
+    private static void registerTaskGauges(ObjectProvider<MeterRegistry> meterRegistries,
+                                           Supplier<Number> queued, Supplier<Number> active) {
+        MeterRegistry meterRegistry = meterRegistries.getIfAvailable();
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("thermaflow.async.tasks.queued", queued)
+                .description("Async tasks waiting to start")
+                .register(meterRegistry);
+        Gauge.builder("thermaflow.async.tasks.active", active)
+                .description("Async tasks running")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Virtual thread executor that counts the tasks held back by the concurrency limit and the
+     * tasks running, which {@link SimpleAsyncTaskExecutor} does not expose.
+     */
+    private static final class CountingVirtualThreadExecutor extends SimpleAsyncTaskExecutor {
+        
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        
+        CountingVirtualThreadExecutor() {
+            super("async-");
+        }
+        
+        // All execute and submit variants end up here; it blocks while the concurrency limit is reached
+        @Deprecated
+        @Override
+        public void execute(Runnable task, long startTimeout) {
+            waiting.incrementAndGet();
+            try {
+                super.execute(() -> {
+                    active.incrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                }, startTimeout);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.thermaflow.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open EntityManager in View for all requests except the streaming downloads.
+ * 
+ * The request's EntityManager holds its JDBC connection until the request completes, and for
+ * streamed responses that includes writing the whole document on the async executor. With many
+ * concurrent downloads (and virtual threads, where request threads no longer limit them) the
+ * connection pool would run dry. Streaming endpoints load their data in a read-only transaction
+ * instead, which releases the connection before the body is written.
+ * 
+ * Replaces Spring Boot's interceptor, see {@code spring.jpa.open-in-view: false}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+    
+    private static final String[] STREAMING_PATHS = {
+            "/api/schedules/*/pdf",
+            "/api/schedules/export",
+            "/api/schedules/export/jobs/**"
+    };
+    
+    // Absent in web slice tests without JPA
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        entityManagerFactory.ifAvailable(factory -> {
+            OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+            interceptor.setEntityManagerFactory(factory);
+            registry.addWebRequestInterceptor(interceptor).excludePathPatterns(STREAMING_PATHS);
+        });
+    }
+}
@@ -2,10 +2,13 @@ package com.thermaflow.controller;
 
 import com.thermaflow.dto.SignageDisplayDTO;
 import com.thermaflow.service.DigitalSignageService;
+import com.thermaflow.service.SignageStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +24,7 @@ import java.util.List;
 public class DigitalSignageController {
     
     private final DigitalSignageService signageService;
+    private final SignageStreamService streamService;
     
     /**
      * Get today's complete schedule formatted for signage display.
@@ -70,4 +74,19 @@ public class DigitalSignageController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+    
+    /**
+     * Subscribe to live schedule updates via Server-Sent Events.
+     * Screens receive a "snapshot" event with today's schedule, then "diff" events whenever
+     * a slot changes or an infusion starts or ends. Browsers resend the last event id on
+     * reconnect, so missed events are replayed instead of refetching the whole schedule.
+     * 
+     * @param lastEventId The id of the last event received before a reconnect, if any
+     * @return The event stream
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSchedule(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return streamService.subscribe(lastEventId);
+    }
 }
@@ -1,8 +1,16 @@
 package com.thermaflow.controller;
 
+import com.thermaflow.dto.InventoryMovementDTO;
+import com.thermaflow.dto.KeysetPageDTO;
 import com.thermaflow.model.Ingredient;
+import com.thermaflow.model.ScentProfile;
+import com.thermaflow.repository.CatalogSpecifications;
 import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.NameKeyset;
+import com.thermaflow.service.IngredientService;
+import com.thermaflow.service.InventoryLedgerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,12 +26,51 @@ import java.util.List;
 public class IngredientController {
     
     private final IngredientRepository ingredientRepository;
+    private final IngredientService ingredientService;
+    private final InventoryLedgerService ledgerService;
     
     @GetMapping
     public List<Ingredient> getAllIngredients() {
         return ingredientRepository.findAll();
     }
     
+    /**
+     * Lists ingredients page by page in name order, filtered on the server.
+     * 
+     * @param namePrefix Case-sensitive start of the name
+     * @param after The {@code nextCursor} of the previous page
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getIngredientPage(
+            @RequestParam(required = false) ScentProfile scentProfile,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        if (limit < 1 || limit > RecipeController.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + RecipeController.MAX_PAGE_SIZE);
+        }
+        NameKeyset keyset;
+        try {
+            keyset = NameKeyset.decode(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        Specification<Ingredient> filter = Specification
+                .where(CatalogSpecifications.<Ingredient>nameStartsWith(namePrefix))
+                .and(CatalogSpecifications.ingredientScent(scentProfile));
+        // One extra row tells whether there is a next page
+        List<Ingredient> ingredients = ingredientRepository.findPage(filter, keyset, limit + 1);
+        String nextCursor = null;
+        if (ingredients.size() > limit) {
+            ingredients = ingredients.subList(0, limit);
+            Ingredient last = ingredients.get(limit - 1);
+            nextCursor = NameKeyset.of(last.getName(), last.getId()).encode();
+        }
+        return ResponseEntity.ok(new KeysetPageDTO<>(ingredients, nextCursor));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Ingredient> getIngredientById(@PathVariable Long id) {
         return ingredientRepository.findById(id)
@@ -31,18 +78,40 @@ public class IngredientController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<InventoryMovementDTO>> getIngredientMovements(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if (!ingredientRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ledgerService.getMovements(id, limit));
+    }
+    
     @PostMapping
-    public Ingredient createIngredient(@RequestBody Ingredient ingredient) {
-        return ingredientRepository.save(ingredient);
+    public ResponseEntity<?> createIngredient(@RequestBody Ingredient ingredient) {
+        if (ingredient.getStockLevel() == null) {
+            return ResponseEntity.badRequest().body("stockLevel is required");
+        }
+        return ResponseEntity.ok(ingredientService.createIngredient(ingredient));
     }
     
+    /**
+     * Updates an ingredient; a changed {@code stockLevel} is recorded in the ledger as an adjustment.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Ingredient> updateIngredient(@PathVariable Long id, @RequestBody Ingredient ingredient) {
-        if (!ingredientRepository.existsById(id)) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<?> updateIngredient(@PathVariable Long id, @RequestBody Ingredient ingredient) {
+        if (ingredient.getStockLevel() == null) {
+            return ResponseEntity.badRequest().body("stockLevel is required");
+        }
+        try {
+            return ingredientService.updateIngredient(id, ingredient)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        ingredient.setId(id);
-        return ResponseEntity.ok(ingredientRepository.save(ingredient));
     }
     
     @DeleteMapping("/{id}")
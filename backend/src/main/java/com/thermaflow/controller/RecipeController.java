@@ -1,14 +1,26 @@
 package com.thermaflow.controller;
 
 import com.thermaflow.dto.InfusionRecipeDTO;
+import com.thermaflow.dto.InfusionStepDTO;
+import com.thermaflow.dto.KeysetPageDTO;
 import com.thermaflow.dto.RecipeMapper;
+import com.thermaflow.model.Ingredient;
 import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionStep;
+import com.thermaflow.model.ScentProfile;
+import com.thermaflow.repository.CatalogSpecifications;
+import com.thermaflow.repository.IngredientRepository;
 import com.thermaflow.repository.InfusionRecipeRepository;
+import com.thermaflow.repository.NameKeyset;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -20,7 +32,10 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class RecipeController {
     
+    static final int MAX_PAGE_SIZE = 200;
+    
     private final InfusionRecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
     private final RecipeMapper recipeMapper;
     
     @GetMapping
@@ -30,6 +45,68 @@ public class RecipeController {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Lists recipes page by page in name order, filtered on the server.
+     * 
+     * @param scentProfile Only recipes with a step using an ingredient of this scent
+     * @param minIntensity Lowest average heat intensity of the steps, inclusive
+     * @param maxIntensity Highest average heat intensity of the steps, inclusive
+     * @param namePrefix Case-sensitive start of the name
+     * @param after The {@code nextCursor} of the previous page
+     * @param summary Whether to leave out the steps and the totals calculated from them
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getRecipePage(
+            @RequestParam(required = false) String theme,
+            @RequestParam(required = false) ScentProfile scentProfile,
+            @RequestParam(required = false) Double minIntensity,
+            @RequestParam(required = false) Double maxIntensity,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean summary) {
+        
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        NameKeyset keyset;
+        try {
+            keyset = NameKeyset.decode(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        Specification<InfusionRecipe> filter = Specification
+                .where(CatalogSpecifications.<InfusionRecipe>nameStartsWith(namePrefix))
+                .and(CatalogSpecifications.recipeTheme(theme))
+                .and(CatalogSpecifications.recipeScent(scentProfile))
+                .and(CatalogSpecifications.recipeIntensity(minIntensity, maxIntensity));
+        // One extra row tells whether there is a next page
+        List<InfusionRecipe> recipes = recipeRepository.findPage(filter, keyset, limit + 1);
+        String nextCursor = null;
+        if (recipes.size() > limit) {
+            recipes = recipes.subList(0, limit);
+            InfusionRecipe last = recipes.get(limit - 1);
+            nextCursor = NameKeyset.of(last.getName(), last.getId()).encode();
+        }
+        
+        if (summary) {
+            return ResponseEntity.ok(new KeysetPageDTO<>(recipes.stream()
+                    .map(recipeMapper::toSummaryDTO)
+                    .collect(Collectors.toList()), nextCursor));
+        }
+        // Steps and ingredients of the whole page in one query, in page order
+        Map<Long, InfusionRecipe> withSteps = recipeRepository.findAllWithStepsByIdIn(recipes.stream()
+                        .map(InfusionRecipe::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(InfusionRecipe::getId, Function.identity()));
+        return ResponseEntity.ok(new KeysetPageDTO<>(recipes.stream()
+                .map(recipe -> withSteps.get(recipe.getId()))
+                .filter(Objects::nonNull)
+                .map(recipeMapper::toDTO)
+                .collect(Collectors.toList()), nextCursor));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<InfusionRecipeDTO> getRecipeById(@PathVariable Long id) {
         return recipeRepository.findById(id)
@@ -41,6 +118,9 @@ public class RecipeController {
     @PostMapping
     public InfusionRecipeDTO createRecipe(@RequestBody InfusionRecipeDTO recipeDTO) {
         InfusionRecipe recipe = recipeMapper.toEntity(recipeDTO);
+        if (recipeDTO.getSteps() != null) {
+            addSteps(recipe, recipeDTO.getSteps());
+        }
         InfusionRecipe saved = recipeRepository.save(recipe);
         return recipeMapper.toDTO(saved);
     }
@@ -53,4 +133,27 @@ public class RecipeController {
         }
         return ResponseEntity.notFound().build();
     }
+    
+    /**
+     * Adds the steps in the given order, with all their ingredients looked up in one query.
+     * The steps are inserted in JDBC batches together with the recipe.
+     */
+    private void addSteps(InfusionRecipe recipe, List<InfusionStepDTO> stepDTOs) {
+        Map<Long, Ingredient> ingredients = ingredientRepository.findAllById(stepDTOs.stream()
+                        .map(InfusionStepDTO::getIngredientId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        for (InfusionStepDTO stepDTO : stepDTOs) {
+            InfusionStep step = recipeMapper.toEntity(stepDTO);
+            if (stepDTO.getIngredientId() != null) {
+                Ingredient ingredient = ingredients.get(stepDTO.getIngredientId());
+                if (ingredient == null) {
+                    throw new IllegalArgumentException("Ingredient not found: " + stepDTO.getIngredientId());
+                }
+                step.setIngredient(ingredient);
+            }
+            recipe.addStep(step);
+        }
+    }
 }
@@ -1,24 +1,41 @@
 package com.thermaflow.controller;
 
 import com.thermaflow.dto.Conflict;
+import com.thermaflow.dto.DayPlanRequestDTO;
 import com.thermaflow.dto.InfusionSlotDTO;
 import com.thermaflow.dto.SlotMapper;
+import com.thermaflow.dto.SlotValidationResultDTO;
 import com.thermaflow.model.DailySchedule;
+import com.thermaflow.model.Employee;
+import com.thermaflow.model.InfusionRecipe;
 import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.model.SaunaRoom;
 import com.thermaflow.repository.*;
+import com.thermaflow.service.AbsenceRepairService;
+import com.thermaflow.service.DayPlannerService;
 import com.thermaflow.service.InfusionSlotService;
 import com.thermaflow.service.PdfExportService;
 import com.thermaflow.service.ScheduleValidatorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +53,8 @@ public class ScheduleController {
     private final InfusionRecipeRepository recipeRepository;
     private final EmployeeRepository employeeRepository;
     private final InfusionSlotService slotService;
+    private final DayPlannerService plannerService;
+    private final AbsenceRepairService absenceRepairService;
     private final ScheduleValidatorService validatorService;
     private final PdfExportService pdfExportService;
     private final SlotMapper slotMapper;
@@ -44,12 +63,9 @@ public class ScheduleController {
     public ResponseEntity<List<InfusionSlotDTO>> getScheduleByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         
-        return scheduleRepository.findByDateWithSlots(date)
-                .map(schedule -> schedule.getSlots().stream()
-                        .map(slotMapper::toDTO)
-                        .collect(Collectors.toList()))
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.ok(List.of()));
+        return ResponseEntity.ok(slotRepository.findListingViewsByDate(date).stream()
+                .map(slotMapper::toDTO)
+                .collect(Collectors.toList()));
     }
     
     @PostMapping("/{date}/slots")
@@ -89,6 +105,64 @@ public class ScheduleController {
         }
     }
     
+    /**
+     * Creates all given slots of a day, or none of them if any slot conflicts or inventory is short.
+     * Slots sent with {@code confirmed = true} have their ingredients deducted.
+     */
+    @PostMapping("/{date}/slots/batch")
+    public ResponseEntity<?> createSlots(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody List<InfusionSlotDTO> slotDTOs) {
+        
+        try {
+            // The service looks up or creates the schedule within the batch's transaction
+            List<InfusionSlot> slots = toSlots(Map.of(date, slotDTOs), day -> DailySchedule.builder().date(day).build())
+                    .get(date);
+            
+            List<InfusionSlot> created = slotService.createAndConfirmSlots(slots);
+            return ResponseEntity.ok(created.stream()
+                    .map(slotMapper::toDTO)
+                    .collect(Collectors.toList()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Proposes conflict-free slots for the open planning slots of a day, around its existing slots.
+     * Nothing is saved; the proposed slots can be posted to the batch endpoint as they are.
+     */
+    @PostMapping("/{date}/plan")
+    public ResponseEntity<?> generatePlan(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody(required = false) DayPlanRequestDTO request) {
+        
+        try {
+            return ResponseEntity.ok(plannerService.generate(date, request != null ? request : new DayPlanRequestDTO()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Hands the slots of an absent employee over to colleagues on duty, moving as few slots as possible.
+     * Without {@code from} and {@code until} the employee is absent all day.
+     */
+    @PostMapping("/{date}/employees/{employeeId}/absence")
+    public ResponseEntity<?> repairAbsence(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime until,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        
+        try {
+            return ResponseEntity.ok(absenceRepairService.repair(date, employeeId, from, until, dryRun));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @PostMapping("/slots/{slotId}/validate")
     public ResponseEntity<List<Conflict>> validateSlot(@PathVariable Long slotId) {
         InfusionSlot slot = slotRepository.findById(slotId)
@@ -98,6 +172,29 @@ public class ScheduleController {
         return ResponseEntity.ok(conflicts);
     }
     
+    @PostMapping("/{date}/validate-batch")
+    public ResponseEntity<?> validateBatch(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody List<InfusionSlotDTO> candidates) {
+        
+        return validateCandidates(Map.of(date, candidates));
+    }
+    
+    @PostMapping("/week/{weekStart}/validate-batch")
+    public ResponseEntity<?> validateWeekBatch(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart,
+            @RequestBody Map<LocalDate, List<InfusionSlotDTO>> candidatesByDate) {
+        
+        LocalDate weekEnd = weekStart.plusDays(6);
+        boolean outsideWeek = candidatesByDate.keySet().stream()
+                .anyMatch(date -> date.isBefore(weekStart) || date.isAfter(weekEnd));
+        if (outsideWeek) {
+            return ResponseEntity.badRequest().body("All dates must lie between " + weekStart + " and " + weekEnd);
+        }
+        
+        return validateCandidates(candidatesByDate);
+    }
+    
     @PostMapping("/slots/{slotId}/confirm")
     public ResponseEntity<InfusionSlotDTO> confirmSlot(@PathVariable Long slotId) {
         try {
@@ -121,19 +218,148 @@ public class ScheduleController {
         }
     }
     
-    @GetMapping("/{date}/pdf")
-    public CompletableFuture<ResponseEntity<byte[]>> downloadSchedulePdf(
+    /**
+     * Marks a schedule as published and pre-renders its PDF in the background.
+     */
+    @PostMapping("/{date}/publish")
+    public ResponseEntity<Void> publishSchedule(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         
-        DailySchedule schedule = scheduleRepository.findByDateWithSlots(date)
+        Optional<DailySchedule> schedule = scheduleRepository.findByDate(date);
+        if (schedule.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        schedule.get().setPublished(true);
+        scheduleRepository.save(schedule.get());
+        pdfExportService.prerenderDailySchedulePdf(date);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Streams the schedule PDF into the response.
+     * Rows are resolved on the request thread in a short read-only transaction; only the rendering
+     * runs on the async executor.
+     * The ETag is the schedule's content hash, so unchanged schedules are answered with 304
+     * and rendered documents are served from the PDF cache.
+     */
+    @GetMapping("/{date}/pdf")
+    public ResponseEntity<StreamingResponseBody> downloadSchedulePdf(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
+        
+        List<PdfExportService.ScheduleRow> rows = pdfExportService.prepareRows(date)
                 .orElseThrow(() -> new IllegalArgumentException("Schedule not found for date: " + date));
+        String version = pdfExportService.scheduleVersion(date, rows);
+        String etag = "\"" + version + "\"";
+        
+        // Sets the ETag header and, if the client already has this version, the 304 status
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        StreamingResponseBody body = out -> pdfExportService.writeCachedDailySchedulePdf(date, rows, version, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, 
+                        "attachment; filename=schedule-" + date + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+    
+    /**
+     * Validates all candidates in a single pass.
+     */
+    private ResponseEntity<?> validateCandidates(Map<LocalDate, List<InfusionSlotDTO>> candidatesByDate) {
+        Map<LocalDate, List<InfusionSlot>> slotsByDate;
+        try {
+            slotsByDate = toSlots(candidatesByDate, date -> DailySchedule.builder().date(date).build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        Map<LocalDate, List<List<Conflict>>> conflictsByDate = validatorService.validateBatch(slotsByDate);
+        
+        List<SlotValidationResultDTO> results = new ArrayList<>();
+        slotsByDate.forEach((date, slots) -> {
+            List<List<Conflict>> conflicts = conflictsByDate.get(date);
+            for (int i = 0; i < slots.size(); i++) {
+                InfusionSlot slot = slots.get(i);
+                results.add(SlotValidationResultDTO.builder()
+                        .date(date)
+                        .index(i)
+                        .roomId(slot.getRoom().getId())
+                        .employeeId(slot.getEmployee().getId())
+                        .startTime(slot.getStartTime())
+                        .valid(conflicts.get(i).isEmpty())
+                        .conflicts(conflicts.get(i))
+                        .build());
+            }
+        });
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * Builds slot entities from DTOs, resolving the referenced rooms, recipes (with steps and
+     * ingredients) and employees with one query each instead of three lookups per slot.
+     * 
+     * @throws IllegalArgumentException if a referenced entity does not exist
+     */
+    private Map<LocalDate, List<InfusionSlot>> toSlots(
+            Map<LocalDate, List<InfusionSlotDTO>> slotDTOsByDate,
+            Function<LocalDate, DailySchedule> scheduleForDate) {
         
-        return pdfExportService.generateDailySchedulePdf(schedule)
-                .thenApply(pdfBytes -> ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, 
-                                "attachment; filename=schedule-" + date + ".pdf")
-                        .contentType(MediaType.APPLICATION_PDF)
-                        .body(pdfBytes))
-                .exceptionally(ex -> ResponseEntity.internalServerError().build());
+        List<InfusionSlotDTO> allSlotDTOs = slotDTOsByDate.values().stream()
+                .flatMap(List::stream)
+                .toList();
+        
+        Map<Long, SaunaRoom> rooms = roomRepository.findAllById(referencedIds(allSlotDTOs, InfusionSlotDTO::getRoomId))
+                .stream().collect(Collectors.toMap(SaunaRoom::getId, Function.identity()));
+        Map<Long, InfusionRecipe> recipes = recipeRepository.findAllWithStepsByIdIn(referencedIds(allSlotDTOs, InfusionSlotDTO::getRecipeId))
+                .stream().collect(Collectors.toMap(InfusionRecipe::getId, Function.identity()));
+        Map<Long, Employee> employees = employeeRepository.findAllById(referencedIds(allSlotDTOs, InfusionSlotDTO::getEmployeeId))
+                .stream().collect(Collectors.toMap(Employee::getId, Function.identity()));
+        
+        Map<LocalDate, List<InfusionSlot>> slotsByDate = new TreeMap<>();
+        slotDTOsByDate.forEach((date, slotDTOs) -> {
+            DailySchedule schedule = scheduleForDate.apply(date);
+            slotsByDate.put(date, slotDTOs.stream()
+                    .map(slotDTO -> toSlot(slotDTO, schedule, rooms, recipes, employees))
+                    .toList());
+        });
+        return slotsByDate;
+    }
+    
+    private InfusionSlot toSlot(
+            InfusionSlotDTO slotDTO,
+            DailySchedule schedule,
+            Map<Long, SaunaRoom> rooms,
+            Map<Long, InfusionRecipe> recipes,
+            Map<Long, Employee> employees) {
+        
+        if (slotDTO.getStartTime() == null) {
+            throw new IllegalArgumentException("Start time is required");
+        }
+        
+        return InfusionSlot.builder()
+                .schedule(schedule)
+                .room(Optional.ofNullable(rooms.get(slotDTO.getRoomId()))
+                        .orElseThrow(() -> new IllegalArgumentException("Room not found")))
+                .recipe(Optional.ofNullable(recipes.get(slotDTO.getRecipeId()))
+                        .orElseThrow(() -> new IllegalArgumentException("Recipe not found")))
+                .employee(Optional.ofNullable(employees.get(slotDTO.getEmployeeId()))
+                        .orElseThrow(() -> new IllegalArgumentException("Employee not found")))
+                .startTime(slotDTO.getStartTime())
+                .confirmed(Boolean.TRUE.equals(slotDTO.getConfirmed()))
+                .cancelled(false)
+                .notes(slotDTO.getNotes())
+                .build();
+    }
+    
+    private static Set<Long> referencedIds(List<InfusionSlotDTO> slotDTOs, Function<InfusionSlotDTO, Long> idGetter) {
+        return slotDTOs.stream()
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,164 @@
+package com.thermaflow.controller;
+
+import com.thermaflow.dto.ScheduleExportJobDTO;
+import com.thermaflow.dto.ScheduleExportJobDTO.ExportFormat;
+import com.thermaflow.dto.ScheduleExportJobDTO.JobPriority;
+import com.thermaflow.service.ScheduleExportJobService;
+import com.thermaflow.service.ScheduleExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * REST controller for exporting the schedules of a date range as a ZIP of daily PDFs
+ * or as a single merged PDF.
+ */
+@RestController
+@RequestMapping("/api/schedules/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ScheduleExportController {
+    
+    static final String TENANT_HEADER = "X-Tenant-Id";
+    
+    private final ScheduleExportService exportService;
+    private final ScheduleExportJobService jobService;
+    
+    /**
+     * Streams the export into the response while the days are rendered.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportSchedules(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "zip") String format,
+            @RequestParam(required = false) List<String> location) {
+        
+        List<ScheduleExportService.DayExport> days;
+        ExportFormat exportFormat;
+        try {
+            exportFormat = parseFormat(format);
+            days = exportService.prepare(from, to, location);
+        } catch (IllegalArgumentException e) {
+            // The body type is fixed to the stream, so errors are reported via the status
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        StreamingResponseBody body = out -> exportService.export(days, exportFormat, out, written -> { });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=" + fileName(from, to, exportFormat))
+                .contentType(mediaType(exportFormat))
+                .body(body);
+    }
+    
+    /**
+     * Queues a background export; poll the returned job or subscribe to its events for progress.
+     * Jobs are scheduled by priority and fairly across the tenants named in {@code X-Tenant-Id}.
+     * If the queue is full, the request is rejected with 429 and a {@code Retry-After} header.
+     * The schedules are loaded once the job runs, so a rejected request costs no queries.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> startExportJob(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "zip") String format,
+            @RequestParam(defaultValue = "normal") String priority,
+            @RequestParam(required = false) List<String> location,
+            @RequestHeader(value = TENANT_HEADER, required = false) String tenant) {
+        
+        try {
+            ExportFormat exportFormat = parseFormat(format);
+            JobPriority jobPriority = parsePriority(priority);
+            exportService.validateRange(from, to);
+            ScheduleExportJobDTO job = jobService.submit(from, to, exportFormat, location, tenant, jobPriority);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/schedules/export/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ScheduleExportJobService.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ScheduleExportJobDTO> getExportJob(@PathVariable String jobId) {
+        return jobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Server-Sent Events with the job's progress; the stream ends when the job has finished.
+     */
+    @GetMapping(path = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamExportJob(@PathVariable String jobId) {
+        return jobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/jobs/{jobId}/file")
+    public ResponseEntity<StreamingResponseBody> downloadExportJob(@PathVariable String jobId) {
+        Optional<ScheduleExportJobDTO> job = jobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Optional<Path> file = jobService.getJobFile(jobId);
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Export job " + jobId + " is " + job.get().getStatus());
+        }
+        
+        ExportFormat format = job.get().getFormat();
+        StreamingResponseBody body = out -> Files.copy(file.get(), out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=" + fileName(job.get().getFrom(), job.get().getTo(), format))
+                .contentType(mediaType(format))
+                .body(body);
+    }
+    
+    private ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+    }
+    
+    private JobPriority parsePriority(String priority) {
+        try {
+            return JobPriority.valueOf(priority.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown job priority: " + priority);
+        }
+    }
+    
+    private String fileName(LocalDate from, LocalDate to, ExportFormat format) {
+        return "schedules-" + from + "-to-" + to + (format == ExportFormat.ZIP ? ".zip" : ".pdf");
+    }
+    
+    private MediaType mediaType(ExportFormat format) {
+        return format == ExportFormat.ZIP ? MediaType.parseMediaType("application/zip") : MediaType.APPLICATION_PDF;
+    }
+}
@@ -0,0 +1,50 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with the outcome of re-planning a day around an absent employee.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbsenceRepairDTO {
+    
+    /**
+     * A slot handed over to another employee.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Reassignment {
+        private Long slotId;
+        private String roomName;
+        private LocalTime startTime;
+        private Long previousEmployeeId;
+        private Long employeeId;
+        private String employeeName;
+    }
+    
+    private LocalDate date;
+    private Long employeeId;
+    private LocalTime from;
+    private LocalTime until;
+    private Boolean applied;   // False for a dry run
+    
+    // Slots of the absent employee and, where needed to free a qualified colleague, one slot of that colleague
+    @Builder.Default
+    private List<Reassignment> reassignments = new ArrayList<>();
+    
+    // Slots nobody can take over; they stay with the absent employee until cancelled
+    @Builder.Default
+    private List<InfusionSlotDTO> unresolved = new ArrayList<>();
+}
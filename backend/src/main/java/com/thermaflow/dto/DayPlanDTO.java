@@ -0,0 +1,47 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with a generated, not yet saved day plan.
+ * The slots can be submitted as they are to the batch endpoint of the day.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayPlanDTO {
+    
+    /**
+     * A room and start time the planner could not fill without a conflict.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OpenSlot {
+        private Long roomId;
+        private String roomName;
+        private LocalTime startTime;
+    }
+    
+    private LocalDate date;
+    
+    @Builder.Default
+    private List<InfusionSlotDTO> slots = new ArrayList<>();
+    
+    @Builder.Default
+    private List<OpenSlot> openSlots = new ArrayList<>();
+    
+    private Long softPenalty;     // Uneven load and repeated recipes; lower is better
+    private Integer searches;     // Searches run in parallel
+    private Long evaluatedMoves;
+    private Long solveTimeMs;
+}
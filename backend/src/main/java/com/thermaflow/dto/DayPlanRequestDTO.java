@@ -0,0 +1,20 @@
+package com.thermaflow.dto;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * DTO with the settings for generating a day plan; every field is optional.
+ */
+@Data
+public class DayPlanRequestDTO {
+    private LocalTime openFrom;        // First infusion start, default 10:00
+    private LocalTime openUntil;       // Infusions end by then, default 22:00
+    private Integer cadenceMinutes;    // Minutes between infusion starts in a room, default 60
+    private List<Long> roomIds;        // Rooms to plan; all rooms if empty
+    private List<Long> recipeIds;      // Recipes to choose from; all recipes if empty
+    private List<Long> employeeIds;    // Employees to choose from; all active employees if empty
+    private Integer timeLimitSeconds;  // Search time, capped by thermaflow.planner.max-time-limit-seconds
+}
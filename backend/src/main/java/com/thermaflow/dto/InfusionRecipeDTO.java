@@ -1,10 +1,12 @@
 package com.thermaflow.dto;
 
+import com.thermaflow.model.EmployeeSkill;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DTO for InfusionRecipe.
@@ -19,6 +21,7 @@ public class InfusionRecipeDTO {
     private String description;
     private String theme;
     private List<InfusionStepDTO> steps;
+    private Set<EmployeeSkill> requiredSkills;
     
     // Calculated fields
     private Integer totalDuration;
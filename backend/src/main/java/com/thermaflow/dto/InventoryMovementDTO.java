@@ -0,0 +1,31 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an entry of the append-only inventory ledger.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovementDTO {
+    
+    public enum MovementKind {
+        DEDUCTION,
+        RESTORE,
+        ADJUSTMENT
+    }
+    
+    private Long id;
+    private Long ingredientId;
+    private Long slotId; // Null for manual adjustments
+    private MovementKind kind;
+    private Integer delta; // Signed change in ml
+    private LocalDateTime createdAt;
+}
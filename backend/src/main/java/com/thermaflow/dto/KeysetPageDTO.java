@@ -0,0 +1,21 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO with one page of a keyset-paginated listing.
+ * The next page is requested with {@code after=<nextCursor>} and the same filters.
+ * 
+ * @param <T> The listed items
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // Null on the last page
+}
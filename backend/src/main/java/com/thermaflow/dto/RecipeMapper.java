@@ -14,6 +14,14 @@ public interface RecipeMapper {
     @Mapping(target = "totalCost", expression = "java(recipe.calculateTotalCost())")
     InfusionRecipeDTO toDTO(InfusionRecipe recipe);
     
+    /**
+     * Recipe without steps and calculated totals, for the summary listing; does not touch the steps.
+     */
+    @Mapping(target = "steps", ignore = true)
+    @Mapping(target = "totalDuration", ignore = true)
+    @Mapping(target = "totalCost", ignore = true)
+    InfusionRecipeDTO toSummaryDTO(InfusionRecipe recipe);
+    
     @Mapping(target = "steps", ignore = true)
     InfusionRecipe toEntity(InfusionRecipeDTO dto);
     
@@ -0,0 +1,52 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO with the progress of a background schedule export.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleExportJobDTO {
+    
+    public enum ExportFormat {
+        ZIP,    // One PDF per day
+        MERGED  // All days in a single PDF
+    }
+    
+    public enum JobPriority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+    
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private String id;
+    private LocalDate from;
+    private LocalDate to;
+    private ExportFormat format;
+    private JobPriority priority;
+    private String tenant;
+    private JobStatus status;
+    private Integer queuePosition; // Jobs ahead of this one while queued
+    private Integer totalDays;
+    private Integer renderedDays;
+    private String error; // Set if the job failed
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
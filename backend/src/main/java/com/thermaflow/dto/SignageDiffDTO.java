@@ -0,0 +1,35 @@
+package com.thermaflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO describing the changes to today's signage schedule pushed to subscribed screens.
+ * Entries are keyed by {@link SignageDisplayDTO#getSlotId()}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignageDiffDTO {
+    
+    @Builder.Default
+    private List<SignageDisplayDTO> added = new ArrayList<>();
+    
+    @Builder.Default
+    private List<SignageDisplayDTO> updated = new ArrayList<>();  // e.g. a slot started or ended
+    
+    @Builder.Default
+    private List<Long> removed = new ArrayList<>();
+    
+    @JsonIgnore
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+}
@@ -12,11 +12,12 @@ import java.util.List;
  * Contains simplified, guest-friendly formatting optimized for display.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class SignageDisplayDTO {
     
+    private Long slotId;             // Stable key for push updates
     private String roomName;
     private String recipeName;
     private String startTime;        // Format: "14:00"
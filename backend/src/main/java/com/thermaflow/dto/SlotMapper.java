@@ -1,10 +1,11 @@
 package com.thermaflow.dto;
 
 import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.repository.SlotListingView;
 import org.mapstruct.*;
 
 /**
- * MapStruct mapper for InfusionSlot entity to DTO.
+ * MapStruct mapper for InfusionSlot entity and listing read model to DTO.
  */
 @Mapper(componentModel = "spring")
 public interface SlotMapper {
@@ -20,4 +21,7 @@ public interface SlotMapper {
     @Mapping(target = "endTime", expression = "java(slot.getEndTime())")
     @Mapping(target = "averageHeatIntensity", expression = "java(slot.getAverageHeatIntensity())")
     InfusionSlotDTO toDTO(InfusionSlot slot);
+    
+    @Mapping(target = "endTime", expression = "java(view.endTime())")
+    InfusionSlotDTO toDTO(SlotListingView view);
 }
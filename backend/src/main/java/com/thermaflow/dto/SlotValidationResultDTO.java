@@ -0,0 +1,31 @@
+package com.thermaflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with the validation result of one candidate slot of a batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotValidationResultDTO {
+    
+    private LocalDate date;
+    private Integer index; // Position of the candidate in the submitted list of its date
+    private Long roomId;
+    private Long employeeId;
+    private LocalTime startTime;
+    private Boolean valid;
+    
+    @Builder.Default
+    private List<Conflict> conflicts = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.thermaflow.event;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published whenever an infusion slot is created, confirmed, reassigned or cancelled.
+ * Listeners use it to invalidate or update in-memory views of the affected day.
+ */
+@Value
+public class SlotChangedEvent {
+    
+    public enum ChangeType {
+        CREATED,
+        CONFIRMED,
+        REASSIGNED, // Another employee performs the slot; time and room are unchanged
+        CANCELLED
+    }
+    
+    LocalDate date;
+    Long slotId;
+    ChangeType changeType;
+}
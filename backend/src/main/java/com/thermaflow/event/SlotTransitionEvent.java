@@ -0,0 +1,26 @@
+package com.thermaflow.event;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Application event published by the signage clock whenever the set of running infusions changes:
+ * exactly at slot start and end boundaries, after the day's timeline was rebuilt, and at midnight.
+ */
+@Value
+public class SlotTransitionEvent {
+    
+    LocalDate date;
+    Set<Long> startedSlotIds;
+    Set<Long> endedSlotIds;
+    Set<Long> runningSlotIds;  // Complete running state after the transition
+    
+    /**
+     * Whether an infusion actually started or ended, as opposed to a state resync.
+     */
+    public boolean isBoundary() {
+        return !startedSlotIds.isEmpty() || !endedSlotIds.isEmpty();
+    }
+}
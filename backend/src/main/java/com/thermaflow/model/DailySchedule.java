@@ -23,7 +23,8 @@ import java.util.List;
 public class DailySchedule {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_schedules_seq")
+    @SequenceGenerator(name = "daily_schedules_seq", sequenceName = "daily_schedules_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
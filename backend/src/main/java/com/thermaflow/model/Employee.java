@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -19,6 +21,8 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,7 +30,8 @@ import java.util.Set;
 public class Employee {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -51,7 +56,8 @@ public class Employee {
     @Column(nullable = false)
     private Integer dailyMaxInfusions; // Maximum number of infusions per day for health safety
     
-    @ElementCollection(targetClass = EmployeeSkill.class, fetch = FetchType.EAGER)
+    @ElementCollection(targetClass = EmployeeSkill.class)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "employee_skills", joinColumns = @JoinColumn(name = "employee_id"))
     @Enumerated(EnumType.STRING)
     @Column(name = "skill")
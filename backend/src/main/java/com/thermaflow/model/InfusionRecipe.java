@@ -2,21 +2,34 @@ package com.thermaflow.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Entity representing an infusion recipe.
- * A recipe contains multiple steps and calculates total cost and duration dynamically.
+ * A recipe contains multiple steps; total cost, duration and other derived metrics are
+ * compiled once into a {@link RecipeProfile}.
  */
 @Entity
 @Table(name = "infusion_recipes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,7 +37,8 @@ import java.util.List;
 public class InfusionRecipe {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "infusion_recipes_seq")
+    @SequenceGenerator(name = "infusion_recipes_seq", sequenceName = "infusion_recipes_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -38,19 +52,60 @@ public class InfusionRecipe {
     private String theme; // e.g., "Nordic Aurora", "Tropical Paradise"
     
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OrderBy("stepOrder ASC")
     @Builder.Default
     private List<InfusionStep> steps = new ArrayList<>();
     
+    // Skills an employee needs to perform this recipe, e.g. HIGH_HEAT for an intense Aufguss
+    @ElementCollection(targetClass = EmployeeSkill.class)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @CollectionTable(name = "recipe_required_skills", joinColumns = @JoinColumn(name = "recipe_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "skill")
+    @BatchSize(size = 50)
+    @Builder.Default
+    private Set<EmployeeSkill> requiredSkills = new HashSet<>();
+    
+    // Derived metrics of the loaded steps; cleared whenever the step list changes.
+    // Lives on the loaded instance only, so ingredient price changes apply to every later load.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient AtomicReference<RecipeProfile> profile = new AtomicReference<>();
+    
+    /**
+     * Returns the derived metrics of this recipe, compiling them on first use.
+     */
+    public RecipeProfile getProfile() {
+        RecipeProfile current = profile.get();
+        if (current == null) {
+            current = RecipeProfile.of(steps);
+            profile.set(current);
+        }
+        return current;
+    }
+    
+    /**
+     * Discards the derived metrics, e.g. after a step or ingredient of this instance was edited in place.
+     */
+    public void invalidateProfile() {
+        profile.set(null);
+    }
+    
+    public void setSteps(List<InfusionStep> steps) {
+        this.steps = steps;
+        invalidateProfile();
+    }
+    
     /**
      * Calculates the total duration of the recipe by summing all step durations.
      * 
      * @return Total duration in seconds
      */
     public Integer calculateTotalDuration() {
-        return steps.stream()
-                .mapToInt(InfusionStep::getDurationSeconds)
-                .sum();
+        return getProfile().totalDurationSeconds();
     }
     
     /**
@@ -59,11 +114,7 @@ public class InfusionRecipe {
      * @return Total cost as BigDecimal
      */
     public BigDecimal calculateTotalCost() {
-        return steps.stream()
-                .filter(step -> step.getIngredient() != null)
-                .map(step -> step.getIngredient().getCostPerMl()
-                        .multiply(BigDecimal.valueOf(step.getScentDosageMl())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getProfile().totalCost();
     }
     
     /**
@@ -73,6 +124,7 @@ public class InfusionRecipe {
         steps.add(step);
         step.setRecipe(this);
         step.setStepOrder(steps.size() - 1);
+        invalidateProfile();
     }
     
     /**
@@ -85,5 +137,6 @@ public class InfusionRecipe {
         for (int i = 0; i < steps.size(); i++) {
             steps.get(i).setStepOrder(i);
         }
+        invalidateProfile();
     }
 }
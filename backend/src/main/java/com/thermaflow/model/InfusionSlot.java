@@ -13,6 +13,7 @@ import java.time.LocalTime;
 /**
  * Entity representing a scheduled infusion slot.
  * Connects a sauna room, recipe, employee, and start time.
+ * All associations are lazy; the queries in InfusionSlotRepository fetch what each use case needs.
  */
 @Entity
 @Table(name = "infusion_slots")
@@ -23,7 +24,8 @@ import java.time.LocalTime;
 public class InfusionSlot {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "infusion_slots_seq")
+    @SequenceGenerator(name = "infusion_slots_seq", sequenceName = "infusion_slots_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -32,17 +34,17 @@ public class InfusionSlot {
     private DailySchedule schedule;
     
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id", nullable = false)
     private SaunaRoom room;
     
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipe_id", nullable = false)
     private InfusionRecipe recipe;
     
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id", nullable = false)
     private Employee employee;
     
@@ -77,9 +79,6 @@ public class InfusionSlot {
      * Get the average heat intensity of the recipe.
      */
     public double getAverageHeatIntensity() {
-        return recipe.getSteps().stream()
-                .mapToInt(InfusionStep::getHeatIntensity)
-                .average()
-                .orElse(0.0);
+        return recipe.getProfile().averageHeatIntensity();
     }
 }
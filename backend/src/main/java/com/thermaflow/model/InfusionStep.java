@@ -8,6 +8,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a single step in an infusion recipe.
@@ -15,6 +17,8 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "infusion_steps")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,7 +26,8 @@ import lombok.NoArgsConstructor;
 public class InfusionStep {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "infusion_steps_seq")
+    @SequenceGenerator(name = "infusion_steps_seq", sequenceName = "infusion_steps_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -8,15 +8,23 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 /**
  * Entity representing an ingredient used in infusion recipes.
  * Contains attributes like viscosity, scent profile, stock level, and cost.
+ * The bulk stock updates of IngredientRepository evict the whole cache region of this entity.
+ * Updates only write changed columns, so editing other attributes never writes back a stale stock level.
  */
 @Entity
 @Table(name = "ingredients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,7 +32,8 @@ import java.math.BigDecimal;
 public class Ingredient {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -0,0 +1,71 @@
+package com.thermaflow.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable metrics derived from the steps of a recipe.
+ * Computed once per loaded recipe (see {@link InfusionRecipe#getProfile()}) instead of
+ * re-streaming the steps for every duration, cost, intensity or scent lookup.
+ * 
+ * @param totalDurationSeconds Sum of all step durations
+ * @param totalCost Sum of ingredient cost per step
+ * @param averageHeatIntensity Average heat intensity of all steps (0 if there are none)
+ * @param scentProfileMask Bit {@code 1 << ordinal} is set for every scent profile used
+ */
+public record RecipeProfile(
+        int totalDurationSeconds,
+        BigDecimal totalCost,
+        double averageHeatIntensity,
+        int scentProfileMask) {
+    
+    private static final ScentProfile[] SCENT_PROFILES = ScentProfile.values();
+    
+    /**
+     * Compiles the profile of the given steps in a single pass.
+     */
+    public static RecipeProfile of(List<InfusionStep> steps) {
+        int totalDuration = 0;
+        int totalIntensity = 0;
+        int scentMask = 0;
+        BigDecimal totalCost = BigDecimal.ZERO;
+        
+        for (InfusionStep step : steps) {
+            totalDuration += step.getDurationSeconds();
+            totalIntensity += step.getHeatIntensity();
+            
+            Ingredient ingredient = step.getIngredient();
+            if (ingredient != null) {
+                // All metrics are compiled together, so an unpriced ingredient must not fail the others
+                if (ingredient.getCostPerMl() != null) {
+                    totalCost = totalCost.add(ingredient.getCostPerMl()
+                            .multiply(BigDecimal.valueOf(step.getScentDosageMl())));
+                }
+                if (ingredient.getScentProfile() != null) {
+                    scentMask |= 1 << ingredient.getScentProfile().ordinal();
+                }
+            }
+        }
+        
+        double averageIntensity = steps.isEmpty() ? 0.0 : (double) totalIntensity / steps.size();
+        return new RecipeProfile(totalDuration, totalCost, averageIntensity, scentMask);
+    }
+    
+    /**
+     * The scent profiles used by the recipe, in enum order.
+     */
+    public List<ScentProfile> scentProfiles() {
+        List<ScentProfile> profiles = new ArrayList<>(Integer.bitCount(scentProfileMask));
+        for (ScentProfile profile : SCENT_PROFILES) {
+            if (hasScentProfile(profile)) {
+                profiles.add(profile);
+            }
+        }
+        return profiles;
+    }
+    
+    public boolean hasScentProfile(ScentProfile profile) {
+        return (scentProfileMask & (1 << profile.ordinal())) != 0;
+    }
+}
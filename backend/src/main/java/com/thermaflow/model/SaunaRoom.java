@@ -8,12 +8,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a sauna room with its properties and capabilities.
  */
 @Entity
 @Table(name = "sauna_rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,7 +25,8 @@ import lombok.NoArgsConstructor;
 public class SaunaRoom {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sauna_rooms_seq")
+    @SequenceGenerator(name = "sauna_rooms_seq", sequenceName = "sauna_rooms_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -22,7 +22,8 @@ import java.time.LocalTime;
 public class ShiftPlan {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_plans_seq")
+    @SequenceGenerator(name = "shift_plans_seq", sequenceName = "shift_plans_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
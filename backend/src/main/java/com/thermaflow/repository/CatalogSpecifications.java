@@ -0,0 +1,81 @@
+package com.thermaflow.repository;
+
+import com.thermaflow.model.Ingredient;
+import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionStep;
+import com.thermaflow.model.ScentProfile;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Server-side filters of the recipe and ingredient listings.
+ * Every factory returns null for a missing parameter, which {@link Specification#and} ignores.
+ */
+public final class CatalogSpecifications {
+    
+    private CatalogSpecifications() {
+    }
+    
+    /**
+     * Names starting with the given prefix, case-sensitive so that the name index serves it.
+     */
+    public static <T> Specification<T> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+    
+    public static Specification<InfusionRecipe> recipeTheme(String theme) {
+        if (theme == null || theme.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("theme"), theme);
+    }
+    
+    /**
+     * Recipes with at least one step whose ingredient has the given scent profile.
+     */
+    public static Specification<InfusionRecipe> recipeScent(ScentProfile scentProfile) {
+        if (scentProfile == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> steps = query.subquery(Long.class);
+            Root<InfusionStep> step = steps.from(InfusionStep.class);
+            steps.select(step.get("id"))
+                    .where(cb.equal(step.get("recipe"), root),
+                            cb.equal(step.get("ingredient").get("scentProfile"), scentProfile));
+            return cb.exists(steps);
+        };
+    }
+    
+    /**
+     * Recipes whose average step heat intensity lies within the given bounds (each inclusive and optional).
+     * Recipes without steps have no intensity and never match.
+     */
+    public static Specification<InfusionRecipe> recipeIntensity(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Double> intensity = query.subquery(Double.class);
+            Root<InfusionStep> step = intensity.from(InfusionStep.class);
+            intensity.select(cb.avg(step.get("heatIntensity")))
+                    .where(cb.equal(step.get("recipe"), root));
+            if (min == null) {
+                return cb.le(intensity, max);
+            }
+            return max == null ? cb.ge(intensity, min) : cb.between(intensity, min, max);
+        };
+    }
+    
+    public static Specification<Ingredient> ingredientScent(ScentProfile scentProfile) {
+        if (scentProfile == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("scentProfile"), scentProfile);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,6 +18,17 @@ public interface DailyScheduleRepository extends JpaRepository<DailySchedule, Lo
     
     Optional<DailySchedule> findByDate(LocalDate date);
     
-    @Query("SELECT s FROM DailySchedule s LEFT JOIN FETCH s.slots WHERE s.date = :date")
+    boolean existsByDateAndPublishedTrue(LocalDate date);
+    
+    /**
+     * Schedule of a date with its slots, rooms and recipes.
+     * The recipes' steps are loaded separately with {@link InfusionRecipeRepository#fetchSteps}.
+     */
+    @Query("SELECT s FROM DailySchedule s LEFT JOIN FETCH s.slots sl LEFT JOIN FETCH sl.room "
+            + "LEFT JOIN FETCH sl.recipe WHERE s.date = :date")
     Optional<DailySchedule> findByDateWithSlots(@Param("date") LocalDate date);
+    
+    @Query("SELECT DISTINCT s FROM DailySchedule s LEFT JOIN FETCH s.slots sl LEFT JOIN FETCH sl.room "
+            + "LEFT JOIN FETCH sl.recipe WHERE s.date BETWEEN :from AND :to ORDER BY s.date")
+    List<DailySchedule> findByDateBetweenWithSlots(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
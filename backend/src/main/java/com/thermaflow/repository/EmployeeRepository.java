@@ -1,10 +1,16 @@
 package com.thermaflow.repository;
 
 import com.thermaflow.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Employee entity.
@@ -12,4 +18,24 @@ import java.util.List;
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     List<Employee> findByActiveTrue();
+    
+    /**
+     * Active employees with their skills, for planning without a skills query per employee.
+     */
+    @Query("SELECT DISTINCT e FROM Employee e LEFT JOIN FETCH e.skills WHERE e.active = true")
+    List<Employee> findActiveWithSkills();
+    
+    /**
+     * An employee with initialized skills, usable after the query's session has closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.skills WHERE e.id = :id")
+    Optional<Employee> findWithSkillsById(@Param("id") Long id);
+    
+    /**
+     * Served from the query cache when the same employees are looked up again, as in bulk slot imports.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Employee> findAllById(Iterable<Long> ids);
 }
@@ -1,20 +1,72 @@
 package com.thermaflow.repository;
 
 import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionSlot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Repository for InfusionRecipe entity.
+ * The step queries are in the query cache; recipes, steps and ingredients are in the second-level cache.
  */
 @Repository
-public interface InfusionRecipeRepository extends JpaRepository<InfusionRecipe, Long> {
+public interface InfusionRecipeRepository extends JpaRepository<InfusionRecipe, Long>, JpaSpecificationExecutor<InfusionRecipe> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT r FROM InfusionRecipe r LEFT JOIN FETCH r.steps")
     List<InfusionRecipe> findAllWithSteps();
     
+    /**
+     * Recipes with their steps and ingredients. Recipes already loaded in the persistence context,
+     * e.g. through a schedule's slots, get their steps initialized by this query as well.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT r FROM InfusionRecipe r LEFT JOIN FETCH r.steps st LEFT JOIN FETCH st.ingredient WHERE r.id IN :ids")
+    List<InfusionRecipe> findAllWithStepsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Initializes the steps and ingredients of the recipes of the given slots with one query.
+     * Slot queries fetch only their to-one associations: joining the steps bag through the slots
+     * would repeat the steps of a recipe once for every slot that uses it.
+     */
+    default void fetchSteps(Collection<InfusionSlot> slots) {
+        Set<Long> recipeIds = slots.stream()
+                .map(slot -> slot.getRecipe().getId())
+                .collect(Collectors.toSet());
+        if (!recipeIds.isEmpty()) {
+            findAllWithStepsByIdIn(recipeIds);
+        }
+    }
+    
+    /**
+     * A recipe with initialized required skills, usable after the query's session has closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT r FROM InfusionRecipe r LEFT JOIN FETCH r.requiredSkills WHERE r.id = :id")
+    Optional<InfusionRecipe> findWithRequiredSkillsById(@Param("id") Long id);
+    
     List<InfusionRecipe> findByNameContainingIgnoreCase(String name);
+    
+    /**
+     * One page of recipes, without their steps, matching the filter in {@link NameKeyset#ORDER}.
+     * 
+     * @param after The last recipe of the previous page, or null for the first page
+     */
+    default List<InfusionRecipe> findPage(Specification<InfusionRecipe> filter, NameKeyset after, int limit) {
+        return findBy(Specification.where(filter).and(NameKeyset.after(after)),
+                query -> query.sortBy(NameKeyset.ORDER).limit(limit).all());
+    }
 }
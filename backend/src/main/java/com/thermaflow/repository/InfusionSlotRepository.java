@@ -1,23 +1,73 @@
 package com.thermaflow.repository;
 
 import com.thermaflow.model.InfusionSlot;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Repository for InfusionSlot entity.
+ * 
+ * The entity day queries fetch the to-one associations their use case reads; the recipes' steps follow
+ * with {@link InfusionRecipeRepository#fetchSteps}, so a full day loads with two statements.
+ * Read-only endpoints use the view queries instead, which return records rather than managed entities.
  */
 @Repository
 public interface InfusionSlotRepository extends JpaRepository<InfusionSlot, Long> {
     
+    /**
+     * Non-cancelled slots of a date for validation: rooms, employees and recipes.
+     */
+    @EntityGraph(attributePaths = {"room", "employee", "recipe"})
     @Query("SELECT s FROM InfusionSlot s WHERE s.schedule.date = :date AND s.cancelled = false")
     List<InfusionSlot> findByScheduleDateAndNotCancelled(@Param("date") LocalDate date);
     
+    /**
+     * Non-cancelled slots of a date range for validation, with their schedules.
+     */
+    @EntityGraph(attributePaths = {"schedule", "room", "employee", "recipe"})
+    @Query("SELECT s FROM InfusionSlot s WHERE s.schedule.date BETWEEN :from AND :to AND s.cancelled = false")
+    List<InfusionSlot> findByScheduleDateBetweenAndNotCancelled(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * Read model of all slots of a date, including cancelled ones, for the slot listing.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.thermaflow.repository.SlotListingView(s.id, sc.id, r.id, r.name, rc.id, rc.name, rc.theme, "
+            + "e.id, CONCAT(e.firstName, ' ', e.lastName), s.startTime, s.confirmed, s.cancelled, s.notes, "
+            + "COALESCE(SUM(st.durationSeconds), 0L), COALESCE(AVG(st.heatIntensity), 0.0)) "
+            + "FROM InfusionSlot s JOIN s.schedule sc JOIN s.room r JOIN s.recipe rc JOIN s.employee e "
+            + "LEFT JOIN rc.steps st WHERE sc.date = :date "
+            + "GROUP BY s.id, sc.id, r.id, r.name, rc.id, rc.name, rc.theme, e.id, e.firstName, e.lastName, "
+            + "s.startTime, s.confirmed, s.cancelled, s.notes ORDER BY s.startTime")
+    List<SlotListingView> findListingViewsByDate(@Param("date") LocalDate date);
+    
+    /**
+     * Read model of the non-cancelled slots of a date for the signage snapshot.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.thermaflow.repository.SignageSlotView(s.id, r.name, rc.id, rc.name, rc.theme, s.startTime, "
+            + "COALESCE(SUM(st.durationSeconds), 0L), COALESCE(AVG(st.heatIntensity), 0.0)) "
+            + "FROM InfusionSlot s JOIN s.room r JOIN s.recipe rc LEFT JOIN rc.steps st "
+            + "WHERE s.schedule.date = :date AND s.cancelled = false "
+            + "GROUP BY s.id, r.name, rc.id, rc.name, rc.theme, s.startTime ORDER BY s.startTime")
+    List<SignageSlotView> findSignageViewsByDate(@Param("date") LocalDate date);
+    
+    /**
+     * Scent profiles of the recipes of the non-cancelled slots of a date, one row per recipe and profile.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT DISTINCT new com.thermaflow.repository.RecipeScentView(st.recipe.id, i.scentProfile) "
+            + "FROM InfusionStep st JOIN st.ingredient i WHERE st.recipe.id IN "
+            + "(SELECT s.recipe.id FROM InfusionSlot s WHERE s.schedule.date = :date AND s.cancelled = false)")
+    List<RecipeScentView> findRecipeScentsByDate(@Param("date") LocalDate date);
+    
     @Query("SELECT s FROM InfusionSlot s WHERE s.employee.id = :employeeId AND s.schedule.date = :date AND s.cancelled = false")
     List<InfusionSlot> findByEmployeeAndDate(@Param("employeeId") Long employeeId, @Param("date") LocalDate date);
     
@@ -1,15 +1,54 @@
 package com.thermaflow.repository;
 
 import com.thermaflow.model.Ingredient;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for Ingredient entity.
  */
 @Repository
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, JpaSpecificationExecutor<Ingredient> {
     Optional<Ingredient> findByName(String name);
+    
+    /**
+     * Deducts stock in a single guarded statement; matches no row if the stock is insufficient.
+     * 
+     * @return The number of updated rows (0 or 1)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ingredient i SET i.stockLevel = i.stockLevel - :amount WHERE i.id = :id AND i.stockLevel >= :amount")
+    int deductStock(@Param("id") Long id, @Param("amount") int amount);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ingredient i SET i.stockLevel = i.stockLevel + :amount WHERE i.id = :id")
+    int restoreStock(@Param("id") Long id, @Param("amount") int amount);
+    
+    /**
+     * Changes stock by a signed amount in a single guarded statement; matches no row if the stock
+     * would drop below zero. Clears the persistence context, so the ingredient is read again afterwards.
+     * 
+     * @return The number of updated rows (0 or 1)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ingredient i SET i.stockLevel = i.stockLevel + :delta WHERE i.id = :id AND i.stockLevel + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+    
+    /**
+     * One page of ingredients matching the filter in {@link NameKeyset#ORDER}.
+     * 
+     * @param after The last ingredient of the previous page, or null for the first page
+     */
+    default List<Ingredient> findPage(Specification<Ingredient> filter, NameKeyset after, int limit) {
+        return findBy(Specification.where(filter).and(NameKeyset.after(after)),
+                query -> query.sortBy(NameKeyset.ORDER).limit(limit).all());
+    }
 }
@@ -0,0 +1,184 @@
+package com.thermaflow.repository;
+
+import com.thermaflow.dto.InventoryMovementDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC repository for the inventory ledger.
+ * Movements are appended with JDBC batch inserts, which JPA cannot do for identity keys.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryLedgerRepository {
+    
+    private static final int BATCH_SIZE = 50;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insertMovements(List<InventoryMovementDTO> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_movements (ingredient_id, slot_id, kind, delta, created_at) VALUES (?, ?, ?, ?, ?)",
+                movements,
+                BATCH_SIZE,
+                (statement, movement) -> {
+                    statement.setLong(1, movement.getIngredientId());
+                    statement.setObject(2, movement.getSlotId(), Types.BIGINT);
+                    statement.setString(3, movement.getKind().name());
+                    statement.setInt(4, movement.getDelta());
+                    statement.setTimestamp(5, Timestamp.valueOf(movement.getCreatedAt()));
+                });
+    }
+    
+    /**
+     * Deducted amounts per ingredient of a slot that have not been restored yet.
+     */
+    public Map<Long, Integer> findUnreversedDeductions(Long slotId) {
+        Map<Long, Integer> amounts = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT d.ingredient_id, d.delta FROM inventory_movements d "
+                        + "WHERE d.slot_id = ? AND d.kind = 'DEDUCTION' AND NOT EXISTS ("
+                        + "SELECT 1 FROM inventory_movements r "
+                        + "WHERE r.slot_id = d.slot_id AND r.ingredient_id = d.ingredient_id AND r.kind = 'RESTORE')",
+                row -> {
+                    amounts.put(row.getLong("ingredient_id"), -row.getInt("delta"));
+                },
+                slotId);
+        return amounts;
+    }
+    
+    public boolean existsBySlotId(Long slotId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_movements WHERE slot_id = ?", Integer.class, slotId);
+        return count != null && count > 0;
+    }
+    
+    /**
+     * Latest movements of an ingredient, newest first.
+     */
+    public List<InventoryMovementDTO> findByIngredientId(Long ingredientId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, ingredient_id, slot_id, kind, delta, created_at FROM inventory_movements "
+                        + "WHERE ingredient_id = ? ORDER BY id DESC FETCH FIRST ? ROWS ONLY",
+                (row, rowNum) -> InventoryMovementDTO.builder()
+                        .id(row.getLong("id"))
+                        .ingredientId(row.getLong("ingredient_id"))
+                        .slotId(row.getObject("slot_id", Long.class))
+                        .kind(InventoryMovementDTO.MovementKind.valueOf(row.getString("kind")))
+                        .delta(row.getInt("delta"))
+                        .createdAt(row.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                ingredientId,
+                limit);
+    }
+    
+    /**
+     * Stock per ingredient as recorded by the ledger: snapshot plus the sum of later movements.
+     * Ingredients without a snapshot or any movement have no ledger history and are left out.
+     */
+    public Map<Long, Integer> findLedgerStockLevels() {
+        Map<Long, Integer> stockLevels = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT i.id, COALESCE(s.stock_level, 0) + COALESCE((SELECT SUM(m.delta) FROM inventory_movements m "
+                        + "WHERE m.ingredient_id = i.id AND m.id > COALESCE(s.last_movement_id, 0)), 0) AS ledger_stock "
+                        + "FROM ingredients i LEFT JOIN inventory_snapshots s ON s.ingredient_id = i.id "
+                        + "WHERE s.ingredient_id IS NOT NULL "
+                        + "OR EXISTS (SELECT 1 FROM inventory_movements m WHERE m.ingredient_id = i.id)",
+                row -> {
+                    stockLevels.put(row.getLong("id"), row.getInt("ledger_stock"));
+                });
+        return stockLevels;
+    }
+    
+    /**
+     * Highest movement id created before the given time, or 0 if there is none.
+     */
+    public long findMaxMovementIdBefore(LocalDateTime createdBefore) {
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM inventory_movements WHERE created_at < ?",
+                Long.class,
+                Timestamp.valueOf(createdBefore));
+        return maxId != null ? maxId : 0;
+    }
+    
+    /**
+     * Folds all movements up to the given id into the snapshots.
+     * 
+     * @return The number of snapshots changed
+     */
+    public int compactSnapshots(long upToMovementId, LocalDateTime takenAt) {
+        Map<Long, Integer> tailSums = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT m.ingredient_id, SUM(m.delta) AS tail FROM inventory_movements m "
+                        + "LEFT JOIN inventory_snapshots s ON s.ingredient_id = m.ingredient_id "
+                        + "WHERE m.id > COALESCE(s.last_movement_id, 0) AND m.id <= ? "
+                        + "GROUP BY m.ingredient_id",
+                row -> {
+                    tailSums.put(row.getLong("ingredient_id"), row.getInt("tail"));
+                },
+                upToMovementId);
+        if (tailSums.isEmpty()) {
+            return 0;
+        }
+        
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(tailSums.entrySet());
+        Timestamp timestamp = Timestamp.valueOf(takenAt);
+        int[][] updated = jdbcTemplate.batchUpdate(
+                "UPDATE inventory_snapshots SET stock_level = stock_level + ?, last_movement_id = ?, taken_at = ? "
+                        + "WHERE ingredient_id = ?",
+                entries,
+                BATCH_SIZE,
+                (statement, entry) -> {
+                    statement.setInt(1, entry.getValue());
+                    statement.setLong(2, upToMovementId);
+                    statement.setTimestamp(3, timestamp);
+                    statement.setLong(4, entry.getKey());
+                });
+        
+        // Ingredients created after the opening snapshot get their first one
+        List<Map.Entry<Long, Integer>> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(entries.get(index));
+                }
+                index++;
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_snapshots (ingredient_id, stock_level, last_movement_id, taken_at) VALUES (?, ?, ?, ?)",
+                missing,
+                BATCH_SIZE,
+                (statement, entry) -> {
+                    statement.setLong(1, entry.getKey());
+                    statement.setInt(2, entry.getValue());
+                    statement.setLong(3, upToMovementId);
+                    statement.setTimestamp(4, timestamp);
+                });
+        return entries.size();
+    }
+    
+    /**
+     * Deletes movements that are folded into snapshots and older than the retention limit.
+     */
+    public int deleteCompactedBefore(long upToMovementId, LocalDateTime createdBefore) {
+        return jdbcTemplate.update(
+                "DELETE FROM inventory_movements WHERE id <= ? AND created_at < ?",
+                upToMovementId,
+                Timestamp.valueOf(createdBefore));
+    }
+}
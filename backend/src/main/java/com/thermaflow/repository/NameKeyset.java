@@ -0,0 +1,62 @@
+package com.thermaflow.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by name, with the id as tie-breaker for equal names.
+ * 
+ * Pages continue after the last row of the previous page ({@code (name, id) > (lastName, lastId)}),
+ * so deep pages cost the same as the first one and rows inserted meanwhile are neither skipped
+ * nor repeated. Clients pass the position around as an opaque cursor.
+ */
+public record NameKeyset(String name, Long id) {
+    
+    /**
+     * The listing order the keyset refers to.
+     */
+    public static final Sort ORDER = Sort.by("name", "id");
+    
+    public static NameKeyset of(String name, Long id) {
+        return new NameKeyset(name, id);
+    }
+    
+    /**
+     * Restricts a listing to the rows after the given position.
+     * 
+     * @return The condition, or null (no restriction) for the first page
+     */
+    public static <T> Specification<T> after(NameKeyset keyset) {
+        if (keyset == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("name"), keyset.name()),
+                cb.and(cb.equal(root.get("name"), keyset.name()), cb.greaterThan(root.get("id"), keyset.id())));
+    }
+    
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + name).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @param cursor A cursor from {@link #encode()}, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static NameKeyset decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            return new NameKeyset(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
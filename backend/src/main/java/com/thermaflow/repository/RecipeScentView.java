@@ -0,0 +1,9 @@
+package com.thermaflow.repository;
+
+import com.thermaflow.model.ScentProfile;
+
+/**
+ * A scent profile used by one of a recipe's step ingredients.
+ */
+public record RecipeScentView(Long recipeId, ScentProfile scentProfile) {
+}
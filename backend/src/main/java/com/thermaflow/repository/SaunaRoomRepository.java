@@ -1,9 +1,13 @@
 package com.thermaflow.repository;
 
 import com.thermaflow.model.SaunaRoom;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,4 +16,11 @@ import java.util.Optional;
 @Repository
 public interface SaunaRoomRepository extends JpaRepository<SaunaRoom, Long> {
     Optional<SaunaRoom> findByName(String name);
+    
+    /**
+     * Query-cached like {@link EmployeeRepository#findAllById}.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SaunaRoom> findAllById(Iterable<Long> ids);
 }
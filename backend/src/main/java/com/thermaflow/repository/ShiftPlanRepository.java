@@ -0,0 +1,18 @@
+package com.thermaflow.repository;
+
+import com.thermaflow.model.ShiftPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for ShiftPlan entity.
+ */
+@Repository
+public interface ShiftPlanRepository extends JpaRepository<ShiftPlan, Long> {
+    List<ShiftPlan> findByDate(LocalDate date);
+    
+    List<ShiftPlan> findByDateBetween(LocalDate from, LocalDate to);
+}
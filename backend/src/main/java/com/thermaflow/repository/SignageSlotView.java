@@ -0,0 +1,22 @@
+package com.thermaflow.repository;
+
+import java.time.LocalTime;
+
+/**
+ * Read model of a slot for the signage displays, with the columns {@code SignageDisplayDTO} is built from.
+ * Duration and average heat intensity of the recipe are aggregated by the database;
+ * the recipe's scent profiles come from {@link RecipeScentView}.
+ * 
+ * @param durationSeconds Sum of the recipe's step durations (0 without steps)
+ * @param averageHeatIntensity Average heat intensity of the recipe's steps (0 without steps)
+ */
+public record SignageSlotView(
+        Long slotId,
+        String roomName,
+        Long recipeId,
+        String recipeName,
+        String theme,
+        LocalTime startTime,
+        Long durationSeconds,
+        Double averageHeatIntensity) {
+}
@@ -0,0 +1,32 @@
+package com.thermaflow.repository;
+
+import java.time.LocalTime;
+
+/**
+ * Read model of a slot for the schedule listing, with exactly the columns of {@code InfusionSlotDTO}.
+ * Duration and average heat intensity of the recipe are aggregated by the database.
+ * 
+ * @param durationSeconds Sum of the recipe's step durations (0 without steps)
+ * @param averageHeatIntensity Average heat intensity of the recipe's steps (0 without steps)
+ */
+public record SlotListingView(
+        Long id,
+        Long scheduleId,
+        Long roomId,
+        String roomName,
+        Long recipeId,
+        String recipeName,
+        String recipeTheme,
+        Long employeeId,
+        String employeeName,
+        LocalTime startTime,
+        Boolean confirmed,
+        Boolean cancelled,
+        String notes,
+        Long durationSeconds,
+        Double averageHeatIntensity) {
+    
+    public LocalTime endTime() {
+        return startTime.plusSeconds(durationSeconds);
+    }
+}
@@ -0,0 +1,275 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.AbsenceRepairDTO;
+import com.thermaflow.dto.SlotMapper;
+import com.thermaflow.model.Employee;
+import com.thermaflow.model.EmployeeSkill;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.repository.EmployeeRepository;
+import com.thermaflow.repository.InfusionSlotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Re-plans a day around an employee who becomes unavailable, e.g. calls in sick.
+ * 
+ * Only the absent employee's slots within the absence are handed over; time and room stay as they are.
+ * Replacements are the colleagues on duty that day (those with a shift plan for the date, or all active
+ * employees if the day has no shift plans). A colleague qualifies for a slot with the recipe's skills,
+ * a shift covering the infusion, room below the daily maximum and no overlapping slot. All of this is
+ * checked against the day's in-memory {@link ScheduleConflictIndex} plus the repair's own tentative
+ * changes, so no validation queries run per candidate.
+ * 
+ * The slots with the fewest qualified colleagues are handed over first, each to the least loaded one.
+ * If nobody is free for a slot, a qualified colleague is freed by passing their one overlapping slot on to
+ * someone else, so a slot moves at most one other slot. Slots nobody can take stay with the absent
+ * employee and are reported for manual handling.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AbsenceRepairService {
+    
+    // Absences without an end last until the end of the day, including infusions running past midnight
+    private static final int END_OF_DAY_SECOND = EmployeeAvailability.MINUTES * 60;
+    
+    private final InfusionSlotRepository slotRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ScheduleValidatorService validatorService;
+    private final InfusionSlotService slotService;
+    private final SlotMapper slotMapper;
+    
+    /**
+     * A colleague who may take over slots, with the changes the repair has planned for them so far.
+     */
+    private static final class Replacement {
+        
+        private final Employee employee;
+        private final EmployeeAvailability availability;
+        private final Set<Long> released = new HashSet<>();
+        private final List<ScheduleConflictIndex.Booking> taken = new ArrayList<>();
+        private int load;
+        
+        Replacement(Employee employee, EmployeeAvailability availability, int load) {
+            this.employee = employee;
+            this.availability = availability;
+            this.load = load;
+        }
+        
+        /**
+         * Whether the colleague could perform the slot if no other slot were in the way.
+         */
+        boolean qualifiesFor(ScheduleConflictIndex.Booking booking, Set<EmployeeSkill> requiredSkills) {
+            return employee.getSkills().containsAll(requiredSkills)
+                    && availability.covers(booking.startSecond(), booking.endSecond());
+        }
+        
+        boolean canTake(ScheduleConflictIndex.Booking booking, Set<EmployeeSkill> requiredSkills,
+                        ScheduleConflictIndex index) {
+            return qualifiesFor(booking, requiredSkills)
+                    && load < employee.getDailyMaxInfusions()
+                    && overlaps(booking, index).isEmpty();
+        }
+        
+        /**
+         * Slots of the colleague overlapping the booking, with the repair's changes applied.
+         */
+        List<ScheduleConflictIndex.Booking> overlaps(ScheduleConflictIndex.Booking booking, ScheduleConflictIndex index) {
+            List<ScheduleConflictIndex.Booking> overlapping = new ArrayList<>();
+            index.findEmployeeOverlaps(employee.getId(), booking.startSecond(), booking.endSecond()).stream()
+                    .filter(existing -> !released.contains(existing.slotId()))
+                    .forEach(overlapping::add);
+            taken.stream()
+                    .filter(other -> other.startSecond() < booking.endSecond() && booking.startSecond() < other.endSecond())
+                    .forEach(overlapping::add);
+            return overlapping;
+        }
+        
+        void take(ScheduleConflictIndex.Booking booking) {
+            taken.add(booking);
+            load++;
+        }
+        
+        void release(ScheduleConflictIndex.Booking booking) {
+            released.add(booking.slotId());
+            load--;
+        }
+    }
+    
+    /**
+     * Hands the absent employee's slots between {@code from} and {@code until} over to colleagues.
+     * 
+     * @param date The day of the absence
+     * @param employeeId The absent employee
+     * @param from Start of the absence, or null for the start of the day
+     * @param until End of the absence, or null for the end of the day
+     * @param dryRun Only report the reassignments without saving them
+     * @return The reassignments and the slots nobody can take over
+     * @throws IllegalArgumentException if the employee does not exist or the absence ends before it starts
+     */
+    @Transactional
+    public AbsenceRepairDTO repair(LocalDate date, Long employeeId, LocalTime from, LocalTime until, boolean dryRun) {
+        long started = System.nanoTime();
+        employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("Employee not found: " + employeeId));
+        int fromSecond = from != null ? from.toSecondOfDay() : 0;
+        int untilSecond = until != null ? until.toSecondOfDay() : END_OF_DAY_SECOND;
+        if (untilSecond <= fromSecond) {
+            throw new IllegalArgumentException("Absence must end after it starts");
+        }
+        
+        ScheduleConflictIndex index = validatorService.indexFor(date);
+        List<ScheduleConflictIndex.Booking> affected = index.findEmployeeOverlaps(employeeId, fromSecond, untilSecond);
+        AbsenceRepairDTO result = AbsenceRepairDTO.builder()
+                .date(date)
+                .employeeId(employeeId)
+                .from(from)
+                .until(until)
+                .applied(!dryRun)
+                .build();
+        if (affected.isEmpty()) {
+            return result;
+        }
+        
+        Map<Long, InfusionSlot> slots = slotRepository.findAllById(affected.stream()
+                        .map(ScheduleConflictIndex.Booking::slotId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(InfusionSlot::getId, Function.identity()));
+        Map<Long, Set<EmployeeSkill>> requiredSkills = new HashMap<>();
+        Function<ScheduleConflictIndex.Booking, Set<EmployeeSkill>> skillsOf = booking -> requiredSkills.computeIfAbsent(
+                booking.slotId(), slotId -> Set.copyOf(Optional.ofNullable(slots.get(slotId))
+                        .or(() -> slotRepository.findById(slotId))
+                        .orElseThrow(() -> new IllegalStateException("Slot not found: " + slotId))
+                        .getRecipe().getRequiredSkills()));
+        List<Replacement> replacements = replacementsFor(date, employeeId, index);
+        
+        // Most constrained slots first, so that rare skills are not used up by slots with alternatives
+        Map<ScheduleConflictIndex.Booking, Long> options = affected.stream()
+                .collect(Collectors.toMap(Function.identity(), booking -> replacements.stream()
+                        .filter(replacement -> replacement.canTake(booking, skillsOf.apply(booking), index))
+                        .count()));
+        List<ScheduleConflictIndex.Booking> order = new ArrayList<>(affected);
+        order.sort(Comparator.comparing((ScheduleConflictIndex.Booking booking) -> options.get(booking))
+                .thenComparingInt(ScheduleConflictIndex.Booking::startSecond));
+        
+        Map<ScheduleConflictIndex.Booking, Replacement> reassigned = new LinkedHashMap<>();
+        Map<Long, Long> previousEmployees = new HashMap<>();
+        List<ScheduleConflictIndex.Booking> unresolved = new ArrayList<>();
+        for (ScheduleConflictIndex.Booking booking : order) {
+            Set<EmployeeSkill> skills = skillsOf.apply(booking);
+            Optional<Replacement> free = leastLoaded(replacements.stream()
+                    .filter(replacement -> replacement.canTake(booking, skills, index)));
+            if (free.isPresent()) {
+                free.get().take(booking);
+                reassigned.put(booking, free.get());
+                previousEmployees.put(booking.slotId(), employeeId);
+            } else if (!handOverViaColleague(booking, skills, replacements, index, skillsOf, reassigned, previousEmployees)) {
+                unresolved.add(booking);
+            }
+        }
+        
+        if (!dryRun && !reassigned.isEmpty()) {
+            slotService.reassignSlots(reassigned.entrySet().stream()
+                    .collect(Collectors.toMap(entry -> entry.getKey().slotId(), entry -> entry.getValue().employee)));
+        }
+        
+        reassigned.forEach((booking, replacement) -> result.getReassignments().add(new AbsenceRepairDTO.Reassignment(
+                booking.slotId(),
+                booking.roomName(),
+                booking.startTime(),
+                previousEmployees.get(booking.slotId()),
+                replacement.employee.getId(),
+                replacement.employee.getFullName())));
+        unresolved.stream()
+                .sorted(Comparator.comparingInt(ScheduleConflictIndex.Booking::startSecond))
+                .forEach(booking -> result.getUnresolved().add(slotMapper.toDTO(slots.get(booking.slotId()))));
+        log.info("Absence of employee {} on {}: {} slots reassigned, {} unresolved in {} ms{}",
+                employeeId, date, reassigned.size(), unresolved.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis(), dryRun ? " (dry run)" : "");
+        return result;
+    }
+    
+    /**
+     * Frees a qualified colleague for the booking by passing their only overlapping slot on to someone else.
+     * 
+     * @return Whether the booking was handed over
+     */
+    private boolean handOverViaColleague(
+            ScheduleConflictIndex.Booking booking,
+            Set<EmployeeSkill> skills,
+            List<Replacement> replacements,
+            ScheduleConflictIndex index,
+            Function<ScheduleConflictIndex.Booking, Set<EmployeeSkill>> skillsOf,
+            Map<ScheduleConflictIndex.Booking, Replacement> reassigned,
+            Map<Long, Long> previousEmployees) {
+        
+        List<Replacement> qualified = replacements.stream()
+                .filter(replacement -> replacement.qualifiesFor(booking, skills))
+                .filter(replacement -> replacement.load < replacement.employee.getDailyMaxInfusions())
+                .sorted(Comparator.comparingInt(replacement -> replacement.load))
+                .toList();
+        for (Replacement colleague : qualified) {
+            List<ScheduleConflictIndex.Booking> blocking = colleague.overlaps(booking, index);
+            // Only an original slot of the colleague is passed on, never one the repair just gave them
+            if (blocking.size() != 1 || colleague.taken.contains(blocking.get(0))) {
+                continue;
+            }
+            
+            ScheduleConflictIndex.Booking passedOn = blocking.get(0);
+            Set<EmployeeSkill> passedOnSkills = skillsOf.apply(passedOn);
+            Optional<Replacement> free = leastLoaded(replacements.stream()
+                    .filter(replacement -> replacement != colleague)
+                    .filter(replacement -> replacement.canTake(passedOn, passedOnSkills, index)));
+            if (free.isPresent()) {
+                colleague.release(passedOn);
+                free.get().take(passedOn);
+                colleague.take(booking);
+                reassigned.put(passedOn, free.get());
+                previousEmployees.put(passedOn.slotId(), colleague.employee.getId());
+                reassigned.put(booking, colleague);
+                previousEmployees.put(booking.slotId(), booking.employeeId());
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Colleagues on duty that day, with their shifts and the number of slots they already have.
+     */
+    private List<Replacement> replacementsFor(LocalDate date, Long absentEmployeeId, ScheduleConflictIndex index) {
+        DailyShifts shifts = validatorService.shiftsFor(date);
+        return employeeRepository.findActiveWithSkills().stream()
+                .filter(employee -> !employee.getId().equals(absentEmployeeId))
+                .filter(employee -> shifts.isEmpty() || shifts.isOnShift(employee.getId()))
+                .map(employee -> new Replacement(
+                        employee,
+                        shifts.availabilityOf(employee.getId()),
+                        index.countForEmployee(employee.getId())))
+                .toList();
+    }
+    
+    private static Optional<Replacement> leastLoaded(Stream<Replacement> replacements) {
+        return replacements.min(Comparator.comparingInt((Replacement replacement) -> replacement.load)
+                .thenComparing(replacement -> replacement.employee.getId()));
+    }
+}
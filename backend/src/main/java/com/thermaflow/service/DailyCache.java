@@ -0,0 +1,188 @@
+package com.thermaflow.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Per-date cache of values that are loaded from the database on first use.
+ * 
+ * Unlike {@code ConcurrentHashMap.computeIfAbsent}, the loader runs outside of any monitor:
+ * concurrent misses for the same date wait on the first caller's future instead of a map bin lock,
+ * so a slow query never pins a virtual thread to its carrier and each date is still loaded once.
+ * Invalidating a date while it is loading discards the loaded value for later callers.
+ * 
+ * Writers announce changes of a date with {@link #beginChange} before they commit and
+ * {@link #endChange} afterwards. A value loaded while a change was pending, or while one began or
+ * ended, may lack that change and is handed to the waiting callers but not cached.
+ * 
+ * Hits and misses of {@link #get} are counted and can be exported with {@link #bindTo}.
+ * 
+ * @param <V> The cached value
+ */
+final class DailyCache<V> {
+    
+    private final ConcurrentHashMap<LocalDate, CompletableFuture<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDate, Changes> changes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * Uncommitted changes of a date, and a version bumped whenever one begins or ends.
+     */
+    private static final class Changes {
+        
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong version = new AtomicLong();
+    }
+    
+    /**
+     * Returns the value of a date, loading it if it is neither cached nor being loaded.
+     */
+    V get(LocalDate date, Function<LocalDate, V> loader) {
+        return get(date, loader, value -> true);
+    }
+    
+    /**
+     * Like {@link #get(LocalDate, Function)}, but a loaded value is only cached if it is cacheable.
+     * Waiting callers receive it either way.
+     */
+    V get(LocalDate date, Function<LocalDate, V> loader, Predicate<? super V> cacheable) {
+        CompletableFuture<V> entry = entries.get(date);
+        if (entry == null) {
+            CompletableFuture<V> load = new CompletableFuture<>();
+            entry = entries.putIfAbsent(date, load);
+            if (entry == null) {
+                misses.increment();
+                long stamp = changeStamp(date);
+                try {
+                    load.complete(loader.apply(date));
+                } catch (RuntimeException e) {
+                    // Not cached; the next caller tries again
+                    entries.remove(date, load);
+                    load.completeExceptionally(e);
+                    throw e;
+                }
+                V value = load.join();
+                if (!cacheable.test(value) || !isUnchangedSince(date, stamp)) {
+                    entries.remove(date, load);
+                }
+                return value;
+            }
+        }
+        
+        hits.increment();
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    /**
+     * Returns the value of a date if it has been loaded.
+     * 
+     * @return The value, or null if it is not cached or still loading
+     */
+    V getIfLoaded(LocalDate date) {
+        CompletableFuture<V> entry = entries.get(date);
+        return entry != null && entry.isDone() && !entry.isCompletedExceptionally() ? entry.join() : null;
+    }
+    
+    boolean contains(LocalDate date) {
+        return entries.containsKey(date);
+    }
+    
+    /**
+     * Caches a value loaded by the caller, unless the date is cached or loading already,
+     * or has changed since the caller took the stamp.
+     * 
+     * @param stamp The {@link #changeStamp} of the date taken before loading the value
+     */
+    void putIfAbsent(LocalDate date, V value, long stamp) {
+        CompletableFuture<V> entry = CompletableFuture.completedFuture(value);
+        if (entries.putIfAbsent(date, entry) == null && !isUnchangedSince(date, stamp)) {
+            entries.remove(date, entry);
+        }
+    }
+    
+    /**
+     * Marks the state of a date's changes; a load may only be cached if the stamp is unchanged
+     * after it. Negative while a change is pending, so nothing loaded then is cached.
+     */
+    long changeStamp(LocalDate date) {
+        Changes dateChanges = changes.get(date);
+        if (dateChanges == null) {
+            return 0;
+        }
+        long version = dateChanges.version.get();
+        return dateChanges.pending.get() > 0 ? -1 : version;
+    }
+    
+    private boolean isUnchangedSince(LocalDate date, long stamp) {
+        return stamp >= 0 && changeStamp(date) == stamp;
+    }
+    
+    /**
+     * Announces a change of the date that is not committed yet.
+     */
+    void beginChange(LocalDate date) {
+        Changes dateChanges = changes.computeIfAbsent(date, day -> new Changes());
+        dateChanges.version.incrementAndGet();
+        dateChanges.pending.incrementAndGet();
+    }
+    
+    /**
+     * Ends a change announced with {@link #beginChange}, once it has been committed or rolled back.
+     */
+    void endChange(LocalDate date) {
+        Changes dateChanges = changes.get(date);
+        if (dateChanges != null) {
+            dateChanges.pending.decrementAndGet();
+            dateChanges.version.incrementAndGet();
+        }
+    }
+    
+    void invalidate(LocalDate date) {
+        entries.remove(date);
+    }
+    
+    /**
+     * Drops all dates; values loading right now are not cached either.
+     */
+    void invalidateAll() {
+        entries.clear();
+    }
+    
+    /**
+     * Drops all dates before the given one.
+     */
+    void evictBefore(LocalDate date) {
+        entries.keySet().removeIf(cached -> cached.isBefore(date));
+        changes.keySet().removeIf(changed -> changed.isBefore(date));
+    }
+    
+    /**
+     * Exports hits and misses as {@code thermaflow.cache.requests}, tagged with the cache name,
+     * so the hit ratio is {@code hit / (hit + miss)}.
+     */
+    void bindTo(MeterRegistry meterRegistry, String cache) {
+        FunctionCounter.builder("thermaflow.cache.requests", hits, LongAdder::sum)
+                .description("Lookups of per-day caches")
+                .tags("cache", cache, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("thermaflow.cache.requests", misses, LongAdder::sum)
+                .description("Lookups of per-day caches")
+                .tags("cache", cache, "result", "miss")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.ShiftPlan;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The shifts of one day as an {@link EmployeeAvailability} bitset per employee, built once per day
+ * so that checking whether an infusion lies within an employee's shifts needs no query.
+ * 
+ * Employees without a shift plan for the day are not restricted, so days planned without
+ * shift plans validate as before.
+ */
+final class DailyShifts {
+    
+    private final Map<Long, EmployeeAvailability> byEmployee;
+    
+    private DailyShifts(Map<Long, EmployeeAvailability> byEmployee) {
+        this.byEmployee = byEmployee;
+    }
+    
+    /**
+     * Precomputes the availability of every employee with a shift in the given shift plans of a day.
+     */
+    static DailyShifts of(Collection<ShiftPlan> shifts) {
+        return new DailyShifts(shifts.stream()
+                .collect(Collectors.groupingBy(shift -> shift.getEmployee().getId()))
+                .entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> EmployeeAvailability.of(entry.getValue()))));
+    }
+    
+    /**
+     * Whether any shifts are planned for the day.
+     */
+    boolean isEmpty() {
+        return byEmployee.isEmpty();
+    }
+    
+    boolean isOnShift(Long employeeId) {
+        return byEmployee.containsKey(employeeId);
+    }
+    
+    /**
+     * Minutes of the day in which the employee may perform infusions.
+     */
+    EmployeeAvailability availabilityOf(Long employeeId) {
+        return byEmployee.getOrDefault(employeeId, EmployeeAvailability.unrestricted());
+    }
+}
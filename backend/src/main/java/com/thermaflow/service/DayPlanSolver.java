@@ -0,0 +1,547 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.EmployeeSkill;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory constraint model and local search that fills the planning slots of a day.
+ * 
+ * A planning slot is a fixed start time in a room; the solver gives it a recipe and an employee
+ * or leaves it empty. Constraints that depend on a single assignment (closing time, existing bookings
+ * of the room, required skills, shift windows and existing bookings of the employee) are resolved up
+ * front into the allowed recipes and employees of each slot, so the search never proposes them.
+ * Constraints between slots are scored, in this order of precedence:
+ * <ul>
+ *   <li>hard: room intervals including cool-down that overlap, overlapping infusions of an employee,
+ *       infusions beyond an employee's daily maximum and ingredient demand beyond stock</li>
+ *   <li>medium: empty slots</li>
+ *   <li>soft: uneven load across employees, the same recipe twice in a row in a room and recipes
+ *       used much more often than others</li>
+ * </ul>
+ * Scores are kept per room, employee and ingredient, so a move only rescores what it touches.
+ * 
+ * Every search builds a greedy plan in start order and improves it with late acceptance hill climbing
+ * until the time limit, or earlier once it stops improving. Several searches with different seeds run
+ * in parallel and the best plan wins. Plans never have hard violations: the greedy plan leaves a slot
+ * empty rather than violate a constraint, and only better plans replace it.
+ * 
+ * The model is immutable after construction and shared by all searches.
+ */
+final class DayPlanSolver {
+    
+    // Moves evaluated without a new best plan before a search gives up early
+    private static final long MIN_STALL_MOVES = 200_000;
+    private static final int STALL_MOVES_PER_SLOT = 1_000;
+    private static final int LATE_ACCEPTANCE_LENGTH = 400;
+    
+    private static final int EXCESS_INFUSION_PENALTY = 60;
+    private static final int REPEATED_RECIPE_PENALTY = 5;
+    
+    /**
+     * A time interval in seconds of day, end exclusive.
+     */
+    record Interval(int startSecond, int endSecond) {
+    }
+    
+    /**
+     * A room with its cool-down and the intervals, including cool-down, of its existing bookings.
+     */
+    record Room(int coolDownSeconds, List<Interval> booked) {
+    }
+    
+    /**
+     * A recipe with its duration and ingredient demand; ingredients are indexes into the stock.
+     */
+    record Recipe(int durationSeconds, Set<EmployeeSkill> requiredSkills, int[] ingredients, int[] amounts) {
+    }
+    
+    /**
+     * An employee with the infusions still allowed today and the time not already taken by bookings.
+     */
+    record Employee(Set<EmployeeSkill> skills, int maxInfusions, EmployeeAvailability availability) {
+    }
+    
+    /**
+     * A planning slot: a start time in a room.
+     */
+    record Slot(int room, int startSecond) {
+    }
+    
+    /**
+     * Rooms, recipes, employees, stock per ingredient and the slots to fill.
+     * No infusion of a planned slot may run past the closing second.
+     */
+    record Problem(
+            List<Room> rooms,
+            List<Recipe> recipes,
+            List<Employee> employees,
+            int[] stock,
+            List<Slot> slots,
+            int closingSecond) {
+    }
+    
+    /**
+     * Score of a plan, compared by hard violations, then empty slots, then soft penalty.
+     */
+    record Score(long hard, int empty, long soft) implements Comparable<Score> {
+        
+        boolean feasible() {
+            return hard == 0;
+        }
+        
+        @Override
+        public int compareTo(Score other) {
+            if (hard != other.hard) {
+                return Long.compare(hard, other.hard);
+            }
+            if (empty != other.empty) {
+                return Integer.compare(empty, other.empty);
+            }
+            return Long.compare(soft, other.soft);
+        }
+    }
+    
+    /**
+     * The best plan found: per slot the recipe and employee index, or -1 for an empty slot.
+     */
+    record Plan(int[] recipes, int[] employees, Score score, long evaluatedMoves, int searches) {
+    }
+    
+    private final Problem problem;
+    private final int[] slotRoom;
+    private final int[] slotStart;
+    private final int[] roomCoolDown;
+    private final int[] recipeDuration;
+    private final int[] maxInfusions;
+    
+    // Slot indexes of each room, by start time
+    private final int[][] roomSlots;
+    
+    // Per slot: recipes allowed there, and per recipe the employees allowed to perform it there
+    private final int[][] allowedRecipes;
+    private final int[][][] eligibleEmployees;
+    private final BitSet[][] eligible;
+    
+    DayPlanSolver(Problem problem) {
+        this.problem = problem;
+        int slots = problem.slots().size();
+        int recipes = problem.recipes().size();
+        
+        slotRoom = problem.slots().stream().mapToInt(Slot::room).toArray();
+        slotStart = problem.slots().stream().mapToInt(Slot::startSecond).toArray();
+        roomCoolDown = problem.rooms().stream().mapToInt(Room::coolDownSeconds).toArray();
+        recipeDuration = problem.recipes().stream().mapToInt(Recipe::durationSeconds).toArray();
+        maxInfusions = problem.employees().stream().mapToInt(Employee::maxInfusions).toArray();
+        
+        roomSlots = new int[problem.rooms().size()][];
+        for (int room = 0; room < roomSlots.length; room++) {
+            int current = room;
+            roomSlots[room] = IntStream.range(0, slots)
+                    .filter(slot -> slotRoom[slot] == current)
+                    .boxed()
+                    .sorted(Comparator.comparingInt(slot -> slotStart[slot]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        
+        allowedRecipes = new int[slots][];
+        eligibleEmployees = new int[slots][recipes][];
+        eligible = new BitSet[slots][recipes];
+        for (int slot = 0; slot < slots; slot++) {
+            List<Integer> allowed = new ArrayList<>();
+            for (int recipe = 0; recipe < recipes; recipe++) {
+                eligible[slot][recipe] = new BitSet();
+                eligibleEmployees[slot][recipe] = roomAllows(slot, recipe)
+                        ? eligibleEmployees(slot, recipe)
+                        : new int[0];
+                for (int employee : eligibleEmployees[slot][recipe]) {
+                    eligible[slot][recipe].set(employee);
+                }
+                if (eligibleEmployees[slot][recipe].length > 0) {
+                    allowed.add(recipe);
+                }
+            }
+            allowedRecipes[slot] = allowed.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+    
+    /**
+     * Runs independent searches in parallel and returns the best plan.
+     * 
+     * @param searches Number of searches, each with its own seed
+     * @param timeLimit Time after which all searches stop
+     * @param executor Runs the searches; one thread per search lets them all use the time limit
+     * @param seed Seed of the first search
+     */
+    Plan solve(int searches, Duration timeLimit, Executor executor, long seed) {
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        List<CompletableFuture<Plan>> runs = IntStream.range(0, searches)
+                .mapToObj(search -> CompletableFuture.supplyAsync(
+                        () -> new Search(seed + search).run(deadline), executor))
+                .toList();
+        
+        List<Plan> plans = runs.stream().map(CompletableFuture::join).toList();
+        Plan best = plans.stream().min(Comparator.comparing(Plan::score)).orElseThrow();
+        long evaluatedMoves = plans.stream().mapToLong(Plan::evaluatedMoves).sum();
+        return new Plan(best.recipes(), best.employees(), best.score(), evaluatedMoves, searches);
+    }
+    
+    /**
+     * Whether the recipe ends before closing and, with cool-down, stays clear of the room's bookings.
+     */
+    private boolean roomAllows(int slot, int recipe) {
+        int start = slotStart[slot];
+        int end = start + recipeDuration[recipe];
+        if (end > problem.closingSecond()) {
+            return false;
+        }
+        int coolDownEnd = end + roomCoolDown[slotRoom[slot]];
+        return problem.rooms().get(slotRoom[slot]).booked().stream()
+                .noneMatch(booked -> booked.startSecond() < coolDownEnd && start < booked.endSecond());
+    }
+    
+    /**
+     * Employees with the recipe's skills who are on shift and not booked for the whole infusion.
+     */
+    private int[] eligibleEmployees(int slot, int recipe) {
+        Recipe candidate = problem.recipes().get(recipe);
+        int start = slotStart[slot];
+        return IntStream.range(0, problem.employees().size())
+                .filter(employee -> {
+                    Employee staff = problem.employees().get(employee);
+                    return staff.maxInfusions() > 0
+                            && staff.skills().containsAll(candidate.requiredSkills())
+                            && staff.availability().covers(start, start + candidate.durationSeconds());
+                })
+                .toArray();
+    }
+    
+    private static long minutes(int seconds) {
+        return (seconds + 59) / 60;
+    }
+    
+    /**
+     * One search: its own plan, its score components and its random generator.
+     */
+    private final class Search {
+        
+        private final Random random;
+        
+        private final int[] recipeOf;
+        private final int[] employeeOf;
+        private final int[][] employeeSlots;
+        private final int[] employeeLoad;
+        private final int[] demand;
+        private final int[] recipeUses;
+        
+        private final long[] roomHard;
+        private final long[] roomSoft;
+        private final long[] employeeHard;
+        private final long[] employeeSoft;
+        private long hard;
+        private long soft;
+        private int empty;
+        
+        // Assignments replaced by the last move, restored in reverse order on rejection
+        private final int[] undoSlot = new int[2];
+        private final int[] undoRecipe = new int[2];
+        private final int[] undoEmployee = new int[2];
+        private int undoCount;
+        
+        Search(long seed) {
+            random = new Random(seed);
+            int slots = slotStart.length;
+            int employees = maxInfusions.length;
+            recipeOf = new int[slots];
+            employeeOf = new int[slots];
+            Arrays.fill(recipeOf, -1);
+            Arrays.fill(employeeOf, -1);
+            employeeSlots = new int[employees][4];
+            employeeLoad = new int[employees];
+            demand = new int[problem.stock().length];
+            recipeUses = new int[recipeDuration.length];
+            roomHard = new long[roomSlots.length];
+            roomSoft = new long[roomSlots.length];
+            employeeHard = new long[employees];
+            employeeSoft = new long[employees];
+            empty = slots;
+        }
+        
+        Plan run(long deadline) {
+            construct();
+            
+            Score current = score();
+            Score best = current;
+            int[] bestRecipes = recipeOf.clone();
+            int[] bestEmployees = employeeOf.clone();
+            Score[] history = new Score[LATE_ACCEPTANCE_LENGTH];
+            Arrays.fill(history, current);
+            
+            long stallLimit = Math.max(MIN_STALL_MOVES, (long) STALL_MOVES_PER_SLOT * slotStart.length);
+            long moves = 0;
+            long lastImprovement = 0;
+            // The clock is read every 1024 moves
+            while ((moves & 1023) != 0 || System.nanoTime() < deadline && moves - lastImprovement < stallLimit) {
+                moves++;
+                if (!move()) {
+                    continue;
+                }
+                
+                Score candidate = score();
+                int index = (int) (moves % LATE_ACCEPTANCE_LENGTH);
+                if (candidate.compareTo(current) <= 0 || candidate.compareTo(history[index]) <= 0) {
+                    current = candidate;
+                    if (current.compareTo(best) < 0) {
+                        best = current;
+                        System.arraycopy(recipeOf, 0, bestRecipes, 0, recipeOf.length);
+                        System.arraycopy(employeeOf, 0, bestEmployees, 0, employeeOf.length);
+                        lastImprovement = moves;
+                    }
+                } else {
+                    undo();
+                }
+                history[index] = current;
+            }
+            return new Plan(bestRecipes, bestEmployees, best, moves, 1);
+        }
+        
+        /**
+         * Greedy plan: slots in start order, each with the best allowed assignment, if any improves the score.
+         */
+        private void construct() {
+            List<Integer> order = new ArrayList<>(IntStream.range(0, slotStart.length).boxed().toList());
+            Collections.shuffle(order, random);
+            order.sort(Comparator.comparingInt(slot -> slotStart[slot]));
+            
+            for (int slot : order) {
+                Score best = score();
+                int bestRecipe = -1;
+                int bestEmployee = -1;
+                int ties = 0;
+                for (int recipe : allowedRecipes[slot]) {
+                    for (int employee : eligibleEmployees[slot][recipe]) {
+                        assign(slot, recipe, employee);
+                        // Equally good assignments are chosen uniformly at random
+                        int comparison = score().compareTo(best);
+                        if (comparison < 0) {
+                            ties = 1;
+                        }
+                        if (comparison < 0 || comparison == 0 && bestRecipe >= 0 && random.nextInt(++ties) == 0) {
+                            best = score();
+                            bestRecipe = recipe;
+                            bestEmployee = employee;
+                        }
+                        assign(slot, -1, -1);
+                    }
+                }
+                if (bestRecipe >= 0) {
+                    assign(slot, bestRecipe, bestEmployee);
+                }
+            }
+        }
+        
+        /**
+         * Applies a random move: clear a slot, change its employee, swap the employees of two slots,
+         * or give it another recipe.
+         * 
+         * @return false if the drawn move changes nothing
+         */
+        private boolean move() {
+            undoCount = 0;
+            int slot = random.nextInt(slotStart.length);
+            if (allowedRecipes[slot].length == 0) {
+                return false;
+            }
+            
+            int recipe = recipeOf[slot];
+            int kind = random.nextInt(20);
+            if (recipe >= 0 && kind == 0) {
+                change(slot, -1, -1);
+            } else if (recipe >= 0 && kind < 9) {
+                int employee = pick(eligibleEmployees[slot][recipe]);
+                if (employee == employeeOf[slot]) {
+                    return false;
+                }
+                change(slot, recipe, employee);
+            } else if (recipe >= 0 && kind < 13) {
+                int other = random.nextInt(slotStart.length);
+                int employee = employeeOf[slot];
+                int otherEmployee = employeeOf[other];
+                if (recipeOf[other] < 0 || employee == otherEmployee
+                        || !eligible[slot][recipe].get(otherEmployee)
+                        || !eligible[other][recipeOf[other]].get(employee)) {
+                    return false;
+                }
+                change(slot, recipe, otherEmployee);
+                change(other, recipeOf[other], employee);
+            } else {
+                int newRecipe = allowedRecipes[slot][random.nextInt(allowedRecipes[slot].length)];
+                int employee = employeeOf[slot] >= 0 && eligible[slot][newRecipe].get(employeeOf[slot]) && random.nextBoolean()
+                        ? employeeOf[slot]
+                        : pick(eligibleEmployees[slot][newRecipe]);
+                if (newRecipe == recipe && employee == employeeOf[slot]) {
+                    return false;
+                }
+                change(slot, newRecipe, employee);
+            }
+            return true;
+        }
+        
+        private int pick(int[] candidates) {
+            return candidates[random.nextInt(candidates.length)];
+        }
+        
+        private void change(int slot, int recipe, int employee) {
+            undoSlot[undoCount] = slot;
+            undoRecipe[undoCount] = recipeOf[slot];
+            undoEmployee[undoCount] = employeeOf[slot];
+            undoCount++;
+            assign(slot, recipe, employee);
+        }
+        
+        private void undo() {
+            for (int i = undoCount - 1; i >= 0; i--) {
+                assign(undoSlot[i], undoRecipe[i], undoEmployee[i]);
+            }
+            undoCount = 0;
+        }
+        
+        private Score score() {
+            return new Score(hard, empty, soft);
+        }
+        
+        /**
+         * Sets the recipe and employee of a slot (-1 for none) and rescores the affected room,
+         * employees and ingredients.
+         */
+        private void assign(int slot, int recipe, int employee) {
+            int oldRecipe = recipeOf[slot];
+            int oldEmployee = employeeOf[slot];
+            if (oldRecipe == recipe && oldEmployee == employee) {
+                return;
+            }
+            
+            if (oldRecipe >= 0) {
+                use(oldRecipe, -1);
+                removeFromEmployee(oldEmployee, slot);
+                empty++;
+            }
+            recipeOf[slot] = recipe;
+            employeeOf[slot] = employee;
+            if (recipe >= 0) {
+                use(recipe, 1);
+                addToEmployee(employee, slot);
+                empty--;
+            }
+            
+            rescoreRoom(slotRoom[slot]);
+            if (oldEmployee >= 0) {
+                rescoreEmployee(oldEmployee);
+            }
+            if (employee >= 0 && employee != oldEmployee) {
+                rescoreEmployee(employee);
+            }
+        }
+        
+        /**
+         * Adds or removes one use of a recipe: its ingredient demand and its share of the variety penalty.
+         */
+        private void use(int recipe, int count) {
+            Recipe used = problem.recipes().get(recipe);
+            for (int i = 0; i < used.ingredients().length; i++) {
+                int ingredient = used.ingredients()[i];
+                int stock = problem.stock()[ingredient];
+                hard -= Math.max(0, demand[ingredient] - stock);
+                demand[ingredient] += count * used.amounts()[i];
+                hard += Math.max(0, demand[ingredient] - stock);
+            }
+            soft -= (long) recipeUses[recipe] * recipeUses[recipe];
+            recipeUses[recipe] += count;
+            soft += (long) recipeUses[recipe] * recipeUses[recipe];
+        }
+        
+        private void addToEmployee(int employee, int slot) {
+            if (employeeLoad[employee] == employeeSlots[employee].length) {
+                employeeSlots[employee] = Arrays.copyOf(employeeSlots[employee], employeeLoad[employee] * 2);
+            }
+            employeeSlots[employee][employeeLoad[employee]++] = slot;
+        }
+        
+        private void removeFromEmployee(int employee, int slot) {
+            int[] slots = employeeSlots[employee];
+            for (int i = 0; i < employeeLoad[employee]; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--employeeLoad[employee]];
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Overlaps of the room's intervals including cool-down, and recipes repeated back to back.
+         */
+        private void rescoreRoom(int room) {
+            int[] slots = roomSlots[room];
+            long roomViolations = 0;
+            long roomPenalty = 0;
+            int previousRecipe = -1;
+            for (int i = 0; i < slots.length; i++) {
+                int recipe = recipeOf[slots[i]];
+                if (recipe < 0) {
+                    continue;
+                }
+                int coolDownEnd = slotStart[slots[i]] + recipeDuration[recipe] + roomCoolDown[room];
+                for (int j = i + 1; j < slots.length && slotStart[slots[j]] < coolDownEnd; j++) {
+                    if (recipeOf[slots[j]] >= 0) {
+                        roomViolations += minutes(coolDownEnd - slotStart[slots[j]]);
+                    }
+                }
+                if (recipe == previousRecipe) {
+                    roomPenalty += REPEATED_RECIPE_PENALTY;
+                }
+                previousRecipe = recipe;
+            }
+            hard += roomViolations - roomHard[room];
+            soft += roomPenalty - roomSoft[room];
+            roomHard[room] = roomViolations;
+            roomSoft[room] = roomPenalty;
+        }
+        
+        /**
+         * Overlapping infusions of the employee, infusions beyond the daily maximum, and the load.
+         */
+        private void rescoreEmployee(int employee) {
+            int[] slots = employeeSlots[employee];
+            int load = employeeLoad[employee];
+            long violations = (long) Math.max(0, load - maxInfusions[employee]) * EXCESS_INFUSION_PENALTY;
+            for (int i = 0; i < load; i++) {
+                int start = slotStart[slots[i]];
+                int end = start + recipeDuration[recipeOf[slots[i]]];
+                for (int j = i + 1; j < load; j++) {
+                    int otherStart = slotStart[slots[j]];
+                    int otherEnd = otherStart + recipeDuration[recipeOf[slots[j]]];
+                    if (start < otherEnd && otherStart < end) {
+                        violations += minutes(Math.min(end, otherEnd) - Math.max(start, otherStart));
+                    }
+                }
+            }
+            long penalty = (long) load * load;
+            hard += violations - employeeHard[employee];
+            soft += penalty - employeeSoft[employee];
+            employeeHard[employee] = violations;
+            employeeSoft[employee] = penalty;
+        }
+    }
+}
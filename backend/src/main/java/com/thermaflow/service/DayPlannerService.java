@@ -0,0 +1,292 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.DayPlanDTO;
+import com.thermaflow.dto.DayPlanRequestDTO;
+import com.thermaflow.dto.InfusionSlotDTO;
+import com.thermaflow.dto.SlotMapper;
+import com.thermaflow.model.DailySchedule;
+import com.thermaflow.model.Employee;
+import com.thermaflow.model.Ingredient;
+import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.model.InfusionStep;
+import com.thermaflow.model.SaunaRoom;
+import com.thermaflow.model.ShiftPlan;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.EmployeeRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import com.thermaflow.repository.InfusionSlotRepository;
+import com.thermaflow.repository.SaunaRoomRepository;
+import com.thermaflow.repository.ShiftPlanRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Generates conflict-free proposals for the infusions of a day.
+ * 
+ * Planning slots are laid out per room at the requested cadence between opening and closing time,
+ * and {@link DayPlanSolver} fills them with recipes and employees: within the employees' shifts and
+ * daily maximum, with the skills a recipe requires, with the rooms' cool-downs and within the stock
+ * of every ingredient. Slots already booked for the day stay as they are and are planned around.
+ * 
+ * Everything the solver needs is loaded in one short read-only transaction; the search itself runs
+ * without a connection on a fixed pool of solver threads. The proposal is not saved.
+ */
+@Service
+@Slf4j
+public class DayPlannerService {
+    
+    private static final LocalTime DEFAULT_OPEN_FROM = LocalTime.of(10, 0);
+    private static final LocalTime DEFAULT_OPEN_UNTIL = LocalTime.of(22, 0);
+    private static final int DEFAULT_CADENCE_MINUTES = 60;
+    private static final int MIN_CADENCE_MINUTES = 5;
+    private static final int DEFAULT_TIME_LIMIT_SECONDS = 5;
+    
+    /**
+     * The loaded day: the entities the planning slots and solver indexes refer to, and the solver model.
+     */
+    private record PlanningDay(
+            DailySchedule schedule,
+            List<SaunaRoom> rooms,
+            List<InfusionRecipe> recipes,
+            List<Employee> employees,
+            DayPlanSolver.Problem problem) {
+    }
+    
+    private final DailyScheduleRepository scheduleRepository;
+    private final InfusionSlotRepository slotRepository;
+    private final SaunaRoomRepository roomRepository;
+    private final InfusionRecipeRepository recipeRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ShiftPlanRepository shiftPlanRepository;
+    private final SlotMapper slotMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int searches;
+    private final int maxTimeLimitSeconds;
+    private final ExecutorService solverPool;
+    
+    public DayPlannerService(
+            DailyScheduleRepository scheduleRepository,
+            InfusionSlotRepository slotRepository,
+            SaunaRoomRepository roomRepository,
+            InfusionRecipeRepository recipeRepository,
+            EmployeeRepository employeeRepository,
+            ShiftPlanRepository shiftPlanRepository,
+            SlotMapper slotMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${thermaflow.planner.solver.threads:0}") int threads,
+            @Value("${thermaflow.planner.max-time-limit-seconds:30}") int maxTimeLimitSeconds) {
+        this.scheduleRepository = scheduleRepository;
+        this.slotRepository = slotRepository;
+        this.roomRepository = roomRepository;
+        this.recipeRepository = recipeRepository;
+        this.employeeRepository = employeeRepository;
+        this.shiftPlanRepository = shiftPlanRepository;
+        this.slotMapper = slotMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.searches = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxTimeLimitSeconds = maxTimeLimitSeconds;
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.solverPool = Executors.newFixedThreadPool(searches, runnable -> {
+            Thread thread = new Thread(runnable, "day-planner-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        solverPool.shutdownNow();
+    }
+    
+    /**
+     * Generates a plan for a day without saving it.
+     * 
+     * @param date The day to plan
+     * @param request Opening hours, cadence, the rooms, recipes and employees to plan with, and the time limit
+     * @return The planned slots and the planning slots left open
+     * @throws IllegalArgumentException if the opening hours or cadence are invalid
+     */
+    public DayPlanDTO generate(LocalDate date, DayPlanRequestDTO request) {
+        LocalTime openFrom = request.getOpenFrom() != null ? request.getOpenFrom() : DEFAULT_OPEN_FROM;
+        LocalTime openUntil = request.getOpenUntil() != null ? request.getOpenUntil() : DEFAULT_OPEN_UNTIL;
+        int cadenceMinutes = request.getCadenceMinutes() != null ? request.getCadenceMinutes() : DEFAULT_CADENCE_MINUTES;
+        if (!openUntil.isAfter(openFrom)) {
+            throw new IllegalArgumentException("Opening hours must end after they start");
+        }
+        if (cadenceMinutes < MIN_CADENCE_MINUTES) {
+            throw new IllegalArgumentException("Cadence must be at least " + MIN_CADENCE_MINUTES + " minutes");
+        }
+        int timeLimitSeconds = Math.min(maxTimeLimitSeconds,
+                request.getTimeLimitSeconds() != null ? Math.max(request.getTimeLimitSeconds(), 1) : DEFAULT_TIME_LIMIT_SECONDS);
+        
+        long started = System.nanoTime();
+        PlanningDay day = readOnlyTransaction.execute(status -> load(date, request, openFrom, openUntil, cadenceMinutes));
+        DayPlanSolver.Plan plan = new DayPlanSolver(day.problem())
+                .solve(searches, Duration.ofSeconds(timeLimitSeconds), solverPool, date.toEpochDay());
+        
+        List<InfusionSlotDTO> planned = new ArrayList<>();
+        List<DayPlanDTO.OpenSlot> open = new ArrayList<>();
+        List<DayPlanSolver.Slot> slots = day.problem().slots();
+        for (int i = 0; i < slots.size(); i++) {
+            SaunaRoom room = day.rooms().get(slots.get(i).room());
+            LocalTime startTime = LocalTime.ofSecondOfDay(slots.get(i).startSecond());
+            if (plan.recipes()[i] < 0) {
+                open.add(new DayPlanDTO.OpenSlot(room.getId(), room.getName(), startTime));
+                continue;
+            }
+            planned.add(slotMapper.toDTO(InfusionSlot.builder()
+                    .schedule(day.schedule())
+                    .room(room)
+                    .recipe(day.recipes().get(plan.recipes()[i]))
+                    .employee(day.employees().get(plan.employees()[i]))
+                    .startTime(startTime)
+                    .confirmed(false)
+                    .cancelled(false)
+                    .build()));
+        }
+        planned.sort(Comparator.comparing(InfusionSlotDTO::getStartTime).thenComparing(InfusionSlotDTO::getRoomName));
+        
+        long solveTimeMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Planned {} of {} slots for {} in {} ms ({} moves in {} searches)",
+                planned.size(), slots.size(), date, solveTimeMs, plan.evaluatedMoves(), plan.searches());
+        return DayPlanDTO.builder()
+                .date(date)
+                .slots(planned)
+                .openSlots(open)
+                .softPenalty(plan.score().soft())
+                .searches(plan.searches())
+                .evaluatedMoves(plan.evaluatedMoves())
+                .solveTimeMs(solveTimeMs)
+                .build();
+    }
+    
+    /**
+     * Loads rooms, recipes, employees, shifts and existing slots of the day and builds the solver model.
+     */
+    private PlanningDay load(LocalDate date, DayPlanRequestDTO request,
+                             LocalTime openFrom, LocalTime openUntil, int cadenceMinutes) {
+        DailySchedule schedule = scheduleRepository.findByDate(date)
+                .orElseGet(() -> DailySchedule.builder().date(date).build());
+        List<SaunaRoom> rooms = isEmpty(request.getRoomIds())
+                ? roomRepository.findAll()
+                : roomRepository.findAllById(request.getRoomIds());
+        List<InfusionRecipe> recipes = recipeRepository.findAllWithStepsByIdIn(isEmpty(request.getRecipeIds())
+                ? recipeRepository.findAll().stream().map(InfusionRecipe::getId).toList()
+                : request.getRecipeIds());
+        List<Employee> employees = employeeRepository.findActiveWithSkills().stream()
+                .filter(employee -> isEmpty(request.getEmployeeIds()) || request.getEmployeeIds().contains(employee.getId()))
+                .toList();
+        
+        List<InfusionSlot> existing = slotRepository.findByScheduleDateAndNotCancelled(date);
+        recipeRepository.fetchSteps(existing);
+        List<ScheduleConflictIndex.Booking> bookings = existing.stream()
+                .map(ScheduleConflictIndex.Booking::of)
+                .toList();
+        Map<Long, List<ShiftPlan>> shiftsByEmployee = shiftPlanRepository.findByDate(date).stream()
+                .collect(Collectors.groupingBy(shift -> shift.getEmployee().getId()));
+        
+        // Stock left for the plan once the existing, not yet deducted slots are confirmed
+        Map<Long, Integer> ingredientIndexes = new LinkedHashMap<>();
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        recipes.stream()
+                .flatMap(recipe -> recipe.getSteps().stream())
+                .map(InfusionStep::getIngredient)
+                .filter(Objects::nonNull)
+                .forEach(ingredient -> {
+                    ingredientIndexes.putIfAbsent(ingredient.getId(), ingredientIndexes.size());
+                    ingredients.putIfAbsent(ingredient.getId(), ingredient);
+                });
+        int[] stock = ingredientIndexes.keySet().stream()
+                .mapToInt(id -> ingredients.get(id).getStockLevel())
+                .toArray();
+        existing.stream()
+                .filter(slot -> !Boolean.TRUE.equals(slot.getConfirmed()))
+                .flatMap(slot -> slot.getRecipe().getSteps().stream())
+                .filter(step -> step.getIngredient() != null && ingredientIndexes.containsKey(step.getIngredient().getId()))
+                .forEach(step -> stock[ingredientIndexes.get(step.getIngredient().getId())] -= step.getScentDosageMl());
+        
+        List<DayPlanSolver.Room> solverRooms = rooms.stream()
+                .map(room -> new DayPlanSolver.Room(room.getRequiredCoolDownMin() * 60, bookings.stream()
+                        .filter(booking -> booking.roomId().equals(room.getId()))
+                        .map(booking -> new DayPlanSolver.Interval(booking.startSecond(), booking.coolDownEndSecond()))
+                        .toList()))
+                .toList();
+        List<DayPlanSolver.Recipe> solverRecipes = recipes.stream()
+                .map(recipe -> toSolverRecipe(recipe, ingredientIndexes))
+                .toList();
+        List<DayPlanSolver.Employee> solverEmployees = employees.stream()
+                .map(employee -> toSolverEmployee(employee, bookings,
+                        shiftsByEmployee.getOrDefault(employee.getId(), List.of())))
+                .toList();
+        
+        List<DayPlanSolver.Slot> slots = new ArrayList<>();
+        for (int room = 0; room < rooms.size(); room++) {
+            for (int start = openFrom.toSecondOfDay(); start < openUntil.toSecondOfDay(); start += cadenceMinutes * 60) {
+                slots.add(new DayPlanSolver.Slot(room, start));
+            }
+        }
+        
+        return new PlanningDay(schedule, rooms, recipes, employees, new DayPlanSolver.Problem(
+                solverRooms, solverRecipes, solverEmployees, stock, slots, openUntil.toSecondOfDay()));
+    }
+    
+    private static DayPlanSolver.Recipe toSolverRecipe(InfusionRecipe recipe, Map<Long, Integer> ingredientIndexes) {
+        Map<Integer, Integer> demand = recipe.getSteps().stream()
+                .filter(step -> step.getIngredient() != null)
+                .collect(Collectors.groupingBy(
+                        step -> ingredientIndexes.get(step.getIngredient().getId()),
+                        Collectors.summingInt(InfusionStep::getScentDosageMl)));
+        List<Map.Entry<Integer, Integer>> amounts = List.copyOf(demand.entrySet());
+        return new DayPlanSolver.Recipe(
+                recipe.calculateTotalDuration(),
+                Set.copyOf(recipe.getRequiredSkills()),
+                amounts.stream().mapToInt(Map.Entry::getKey).toArray(),
+                amounts.stream().mapToInt(Map.Entry::getValue).toArray());
+    }
+    
+    /**
+     * The employee's shifts minus the infusions already booked, and the infusions still allowed today.
+     */
+    private static DayPlanSolver.Employee toSolverEmployee(
+            Employee employee, List<ScheduleConflictIndex.Booking> bookings, List<ShiftPlan> shifts) {
+        EmployeeAvailability availability = EmployeeAvailability.of(shifts);
+        int booked = 0;
+        for (ScheduleConflictIndex.Booking booking : bookings) {
+            if (booking.employeeId().equals(employee.getId())) {
+                availability = availability.without(booking.startSecond(), booking.endSecond());
+                booked++;
+            }
+        }
+        return new DayPlanSolver.Employee(
+                Set.copyOf(employee.getSkills()),
+                Math.max(0, employee.getDailyMaxInfusions() - booked),
+                availability);
+    }
+    
+    private static boolean isEmpty(List<Long> ids) {
+        return ids == null || ids.isEmpty();
+    }
+}
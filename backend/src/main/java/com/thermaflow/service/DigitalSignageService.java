@@ -1,31 +1,60 @@
 package com.thermaflow.service;
 
 import com.thermaflow.dto.SignageDisplayDTO;
-import com.thermaflow.model.InfusionSlot;
-import com.thermaflow.model.InfusionStep;
+import com.thermaflow.event.SlotChangedEvent;
+import com.thermaflow.event.SlotTransitionEvent;
 import com.thermaflow.model.ScentProfile;
 import com.thermaflow.repository.InfusionSlotRepository;
-import lombok.RequiredArgsConstructor;
+import com.thermaflow.repository.RecipeScentView;
+import com.thermaflow.repository.SignageSlotView;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Service for formatting infusion data for digital signage displays.
  * Provides guest-friendly, simplified data formatting.
+ * 
+ * Each day is rendered once into an immutable {@link SignageSnapshot} that is kept in memory
+ * and dropped whenever {@link InfusionSlotService} creates, confirms or cancels a slot of that day.
+ * Snapshots are built from read-only projections ({@link SignageSlotView}), not managed entities.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class DigitalSignageService {
     
     private final InfusionSlotRepository slotRepository;
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     
+    // Per-date precomputed signage views, invalidated by slot changes
+    private final DailyCache<SignageSnapshot> snapshots = new DailyCache<>();
+    
+    // Running state pushed by the SignageClock at slot boundaries
+    private volatile RunningSlots runningSlots;
+    
+    private record RunningSlots(LocalDate date, Set<Long> slotIds) {
+    }
+    
+    public DigitalSignageService(InfusionSlotRepository slotRepository, MeterRegistry meterRegistry) {
+        this.slotRepository = slotRepository;
+        snapshots.bindTo(meterRegistry, "signage-snapshot");
+    }
+    
     /**
      * Get all infusions for today formatted for signage display.
      */
@@ -37,43 +66,24 @@ public class DigitalSignageService {
      * Get all infusions for a specific date formatted for signage display.
      */
     public List<SignageDisplayDTO> getScheduleForDate(LocalDate date) {
-        List<InfusionSlot> slots = slotRepository.findByScheduleDateAndNotCancelled(date);
-        LocalTime now = LocalTime.now();
-        
-        return slots.stream()
-                .map(slot -> toSignageDisplay(slot, now))
-                .collect(Collectors.toList());
+        return snapshotFor(date).all(LocalTime.now().toSecondOfDay(), runningOn(date));
     }
     
     /**
      * Get the next 3-5 upcoming infusions.
+     * Answered from the in-memory snapshots with a binary search on the current time.
      */
     public List<SignageDisplayDTO> getNextInfusions() {
         LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
-        
-        List<InfusionSlot> todaySlots = slotRepository.findByScheduleDateAndNotCancelled(today);
+        int now = LocalTime.now().toSecondOfDay();
         
-        // Filter for upcoming slots and take first 5
-        List<SignageDisplayDTO> upcomingToday = todaySlots.stream()
-                .filter(slot -> slot.getStartTime().isAfter(now))
-                .sorted((s1, s2) -> s1.getStartTime().compareTo(s2.getStartTime()))
-                .limit(5)
-                .map(slot -> toSignageDisplay(slot, now))
-                .collect(Collectors.toList());
+        List<SignageDisplayDTO> upcomingToday = snapshotFor(today).upcoming(now, 5, runningOn(today));
         
         // If we have fewer than 3 today, try tomorrow
         if (upcomingToday.size() < 3) {
-            LocalDate tomorrow = today.plusDays(1);
-            List<InfusionSlot> tomorrowSlots = slotRepository.findByScheduleDateAndNotCancelled(tomorrow);
-            
-            List<SignageDisplayDTO> tomorrowFirst = tomorrowSlots.stream()
-                    .sorted((s1, s2) -> s1.getStartTime().compareTo(s2.getStartTime()))
-                    .limit(5 - upcomingToday.size())
-                    .map(slot -> toSignageDisplay(slot, LocalTime.MIN)) // Tomorrow, so not currently running
-                    .collect(Collectors.toList());
-            
-            upcomingToday.addAll(tomorrowFirst);
+            // Tomorrow, so nothing is currently running
+            upcomingToday.addAll(snapshotFor(today.plusDays(1))
+                    .upcoming(-1, 5 - upcomingToday.size(), null));
         }
         
         return upcomingToday;
@@ -81,48 +91,118 @@ public class DigitalSignageService {
     
     /**
      * Get the currently running infusion, if any.
+     * A direct lookup of the clock's running set; falls back to a binary search on the time.
      */
     public Optional<SignageDisplayDTO> getCurrentInfusion() {
         LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
+        return snapshotFor(today).current(LocalTime.now().toSecondOfDay(), runningOn(today));
+    }
+    
+    /**
+     * The precomputed slots of a day with their start and end seconds, in start order.
+     * Used by {@link SignageClock} to derive the day's boundaries.
+     */
+    List<SignageSnapshot.Entry> getTimeline(LocalDate date) {
+        return snapshotFor(date).entries();
+    }
+    
+    /**
+     * Adopts the running state maintained by {@link SignageClock}.
+     * Runs before other listeners so that push channels render the new state.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSlotTransition(SlotTransitionEvent event) {
+        runningSlots = new RunningSlots(event.getDate(), event.getRunningSlotIds());
+    }
+    
+    /**
+     * Drops the cached snapshot of a day once a slot change has been committed.
+     * The next signage read rebuilds it from the database. Runs before other listeners
+     * so that push channels reading the schedule afterwards see the new state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSlotChanged(SlotChangedEvent event) {
+        log.debug("Invalidating signage snapshot for {} ({} slot {})",
+                event.getDate(), event.getChangeType(), event.getSlotId());
+        snapshots.invalidate(event.getDate());
+    }
+    
+    /**
+     * The clock's running slot ids for the given date, or null if the clock does not track it.
+     */
+    private Set<Long> runningOn(LocalDate date) {
+        RunningSlots running = runningSlots;
+        return running != null && running.date().equals(date) ? running.slotIds() : null;
+    }
+    
+    /**
+     * Returns the cached snapshot of a day, building it on first access.
+     * Screens polling while a snapshot is rebuilt wait for that single build.
+     */
+    private SignageSnapshot snapshotFor(LocalDate date) {
+        SignageSnapshot snapshot = snapshots.getIfLoaded(date);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        evictPastSnapshots();
+        return snapshots.get(date, this::buildSnapshot);
+    }
+    
+    private SignageSnapshot buildSnapshot(LocalDate date) {
+        List<SignageSlotView> slots = slotRepository.findSignageViewsByDate(date);
+        log.debug("Building signage snapshot for {} with {} slots", date, slots.size());
         
-        List<InfusionSlot> todaySlots = slotRepository.findByScheduleDateAndNotCancelled(today);
+        Map<Long, Set<ScentProfile>> scentsByRecipe = new HashMap<>();
+        for (RecipeScentView scent : slotRepository.findRecipeScentsByDate(date)) {
+            scentsByRecipe.computeIfAbsent(scent.recipeId(), id -> EnumSet.noneOf(ScentProfile.class))
+                    .add(scent.scentProfile());
+        }
         
-        return todaySlots.stream()
-                .filter(slot -> isCurrentlyRunning(slot, now))
-                .findFirst()
-                .map(slot -> toSignageDisplay(slot, now));
+        return SignageSnapshot.of(slots.stream()
+                .map(slot -> toSnapshotEntry(slot, scentsByRecipe.getOrDefault(slot.recipeId(), Set.of())))
+                .collect(Collectors.toList()));
     }
     
     /**
-     * Convert an InfusionSlot to a SignageDisplayDTO.
+     * Snapshots are only needed for today and upcoming days; anything older than yesterday is dropped.
      */
-    private SignageDisplayDTO toSignageDisplay(InfusionSlot slot, LocalTime now) {
-        double avgIntensity = slot.getAverageHeatIntensity();
-        
-        // Get unique scent profiles from recipe steps
-        List<String> scentProfiles = slot.getRecipe().getSteps().stream()
-                .filter(step -> step.getIngredient() != null)
-                .map(step -> step.getIngredient().getScentProfile())
-                .distinct()
+    private void evictPastSnapshots() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        snapshots.evictBefore(yesterday);
+    }
+    
+    /**
+     * Convert a slot read model to a precomputed snapshot entry.
+     * The display template leaves {@code isCurrentlyRunning} unset; it is filled in per read.
+     * 
+     * @param scents The scent profiles of the slot's recipe, listed in enum order
+     */
+    private SignageSnapshot.Entry toSnapshotEntry(SignageSlotView slot, Set<ScentProfile> scents) {
+        double avgIntensity = slot.averageHeatIntensity();
+        List<String> scentProfiles = scents.stream()
                 .map(ScentProfile::name)
-                .collect(Collectors.toList());
+                .toList();
         
-        LocalTime endTime = slot.getEndTime();
-        int durationSeconds = endTime.toSecondOfDay() - slot.getStartTime().toSecondOfDay();
+        int durationSeconds = slot.durationSeconds().intValue();
+        int startSecond = slot.startTime().toSecondOfDay();
+        LocalTime endTime = slot.startTime().plusSeconds(durationSeconds);
         
-        return SignageDisplayDTO.builder()
-                .roomName(slot.getRoom().getName())
-                .recipeName(slot.getRecipe().getName())
-                .startTime(slot.getStartTime().format(TIME_FORMATTER))
+        SignageDisplayDTO display = SignageDisplayDTO.builder()
+                .slotId(slot.slotId())
+                .roomName(slot.roomName())
+                .recipeName(slot.recipeName())
+                .startTime(slot.startTime().format(TIME_FORMATTER))
                 .endTime(endTime.format(TIME_FORMATTER))
                 .duration(formatDuration(durationSeconds))
                 .intensity(mapIntensityLevel(avgIntensity))
                 .intensityIcon(mapIntensityIcon(avgIntensity))
                 .scentProfiles(scentProfiles)
-                .theme(slot.getRecipe().getTheme())
-                .isCurrentlyRunning(isCurrentlyRunning(slot, now))
+                .theme(slot.theme())
                 .build();
+        
+        return new SignageSnapshot.Entry(display, startSecond, startSecond + durationSeconds);
     }
     
     /**
@@ -164,11 +244,4 @@ public class DigitalSignageService {
         int minutes = durationSeconds / 60;
         return minutes + " min";
     }
-    
-    /**
-     * Check if a slot is currently running based on the current time.
-     */
-    private boolean isCurrentlyRunning(InfusionSlot slot, LocalTime now) {
-        return !now.isBefore(slot.getStartTime()) && now.isBefore(slot.getEndTime());
-    }
 }
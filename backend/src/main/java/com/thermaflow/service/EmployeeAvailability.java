@@ -0,0 +1,79 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.ShiftPlan;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Minutes of a day in which an employee may perform infusions, at minute resolution.
+ * 
+ * One bit per minute, covering two days so that shifts and infusions running past midnight
+ * keep their unwrapped seconds of day. Checking whether an interval lies within the shifts
+ * is a single scan for the next unavailable minute.
+ */
+final class EmployeeAvailability {
+    
+    static final int MINUTES = 2 * 24 * 60;
+    
+    private static final EmployeeAvailability UNRESTRICTED;
+    
+    static {
+        BitSet all = new BitSet(MINUTES);
+        all.set(0, MINUTES);
+        UNRESTRICTED = new EmployeeAvailability(all);
+    }
+    
+    private final BitSet available;
+    
+    private EmployeeAvailability(BitSet available) {
+        this.available = available;
+    }
+    
+    /**
+     * Availability of an employee without shift plans for the day: the whole day.
+     */
+    static EmployeeAvailability unrestricted() {
+        return UNRESTRICTED;
+    }
+    
+    /**
+     * Availability during the given shifts; a shift ending before it starts runs past midnight.
+     * No shifts means the employee is available all day.
+     */
+    static EmployeeAvailability of(Collection<ShiftPlan> shifts) {
+        if (shifts.isEmpty()) {
+            return UNRESTRICTED;
+        }
+        
+        BitSet available = new BitSet(MINUTES);
+        for (ShiftPlan shift : shifts) {
+            int start = shift.getStartTime().toSecondOfDay() / 60;
+            int end = shift.getEndTime().toSecondOfDay() / 60;
+            available.set(start, end > start ? end : end + 24 * 60);
+        }
+        return new EmployeeAvailability(available);
+    }
+    
+    /**
+     * Whether the interval of seconds of day lies completely within the available minutes.
+     * Partial minutes at both ends count as whole minutes.
+     */
+    boolean covers(int startSecond, int endSecond) {
+        int fromMinute = startSecond / 60;
+        int toMinute = (endSecond + 59) / 60;
+        if (fromMinute < 0 || toMinute > MINUTES) {
+            return false;
+        }
+        return available.nextClearBit(fromMinute) >= toMinute;
+    }
+    
+    /**
+     * This availability without the given interval, e.g. because the employee is booked then.
+     */
+    EmployeeAvailability without(int startSecond, int endSecond) {
+        BitSet remaining = (BitSet) available.clone();
+        remaining.clear(Math.max(startSecond / 60, 0), Math.min((endSecond + 59) / 60, MINUTES));
+        return new EmployeeAvailability(remaining);
+    }
+}
@@ -0,0 +1,132 @@
+package com.thermaflow.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded queue that hands out items by priority and, within a priority, round-robin across tenants.
+ * 
+ * Every priority level keeps one FIFO per tenant in rotation order. {@link #poll()} takes the first
+ * item of the tenant at the head of the highest non-empty level and moves that tenant to the back,
+ * so a tenant submitting many jobs only delays its own. Both the total size and the items per tenant
+ * are capped. Not thread-safe; callers guard access.
+ * 
+ * @param <T> The queued item
+ */
+final class FairJobQueue<T> {
+    
+    /**
+     * Outcome of {@link #offer}.
+     */
+    enum OfferResult {
+        ACCEPTED,
+        QUEUE_FULL,
+        TENANT_LIMIT
+    }
+    
+    private final int capacity;
+    private final int maxPerTenant;
+    
+    // Index 0 is the highest priority; insertion order of each map is the tenant rotation
+    private final List<LinkedHashMap<String, ArrayDeque<T>>> levels;
+    private final Map<String, Integer> queuedPerTenant = new HashMap<>();
+    private int size;
+    
+    FairJobQueue(int priorities, int capacity, int maxPerTenant) {
+        this.capacity = capacity;
+        this.maxPerTenant = maxPerTenant;
+        this.levels = new ArrayList<>(priorities);
+        for (int i = 0; i < priorities; i++) {
+            levels.add(new LinkedHashMap<>());
+        }
+    }
+    
+    /**
+     * Queues an item behind the tenant's earlier items of the same priority.
+     * 
+     * @param priority The priority level, 0 being the highest
+     */
+    OfferResult offer(String tenant, int priority, T item) {
+        if (size >= capacity) {
+            return OfferResult.QUEUE_FULL;
+        }
+        if (queuedPerTenant.getOrDefault(tenant, 0) >= maxPerTenant) {
+            return OfferResult.TENANT_LIMIT;
+        }
+        
+        levels.get(priority).computeIfAbsent(tenant, key -> new ArrayDeque<>()).add(item);
+        queuedPerTenant.merge(tenant, 1, Integer::sum);
+        size++;
+        return OfferResult.ACCEPTED;
+    }
+    
+    /**
+     * Removes the next item.
+     * 
+     * @return The item, or null if the queue is empty
+     */
+    T poll() {
+        for (LinkedHashMap<String, ArrayDeque<T>> level : levels) {
+            Iterator<Map.Entry<String, ArrayDeque<T>>> iterator = level.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                continue;
+            }
+            
+            Map.Entry<String, ArrayDeque<T>> head = iterator.next();
+            String tenant = head.getKey();
+            ArrayDeque<T> items = head.getValue();
+            T item = items.poll();
+            iterator.remove();
+            if (!items.isEmpty()) {
+                // Back of the rotation
+                level.put(tenant, items);
+            }
+            
+            queuedPerTenant.computeIfPresent(tenant, (key, count) -> count > 1 ? count - 1 : null);
+            size--;
+            return item;
+        }
+        return null;
+    }
+    
+    /**
+     * The number of items that {@link #poll()} would return before the given one.
+     * 
+     * @return The position, or -1 if the item is not queued
+     */
+    int positionOf(T item) {
+        int position = 0;
+        for (LinkedHashMap<String, ArrayDeque<T>> level : levels) {
+            // Simulate the rotation of this level without modifying it
+            List<Iterator<T>> rotation = new ArrayList<>();
+            level.values().forEach(items -> rotation.add(items.iterator()));
+            while (!rotation.isEmpty()) {
+                Iterator<Iterator<T>> tenants = rotation.iterator();
+                while (tenants.hasNext()) {
+                    Iterator<T> items = tenants.next();
+                    if (items.next() == item) {
+                        return position;
+                    }
+                    position++;
+                    if (!items.hasNext()) {
+                        tenants.remove();
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -1,20 +1,32 @@
 package com.thermaflow.service;
 
 import com.thermaflow.dto.Conflict;
+import com.thermaflow.event.SlotChangedEvent;
 import com.thermaflow.model.*;
 import com.thermaflow.repository.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing infusion slots with inventory deduction and conflict validation.
+ * Confirmations and cancellations are timed including their commit as {@code thermaflow.slot.transition}.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class InfusionSlotService {
     
@@ -22,6 +34,32 @@ public class InfusionSlotService {
     private final DailyScheduleRepository scheduleRepository;
     private final IngredientRepository ingredientRepository;
     private final ScheduleValidatorService validatorService;
+    private final InventoryLedgerService ledgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer confirmCommittedTimer;
+    private final Timer confirmRolledBackTimer;
+    private final Timer cancelCommittedTimer;
+    private final Timer cancelRolledBackTimer;
+    
+    public InfusionSlotService(
+            InfusionSlotRepository slotRepository,
+            DailyScheduleRepository scheduleRepository,
+            IngredientRepository ingredientRepository,
+            ScheduleValidatorService validatorService,
+            InventoryLedgerService ledgerService,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.slotRepository = slotRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.validatorService = validatorService;
+        this.ledgerService = ledgerService;
+        this.eventPublisher = eventPublisher;
+        this.confirmCommittedTimer = transitionTimer(meterRegistry, "confirm", "committed");
+        this.confirmRolledBackTimer = transitionTimer(meterRegistry, "confirm", "rolled-back");
+        this.cancelCommittedTimer = transitionTimer(meterRegistry, "cancel", "committed");
+        this.cancelRolledBackTimer = transitionTimer(meterRegistry, "cancel", "rolled-back");
+    }
     
     /**
      * Creates and confirms a new infusion slot.
@@ -51,9 +89,62 @@ public class InfusionSlotService {
             deductInventory(savedSlot);
         }
         
+        publishChange(savedSlot, SlotChangedEvent.ChangeType.CREATED);
         return savedSlot;
     }
     
+    /**
+     * Creates many slots as one all-or-nothing unit.
+     * All slots are validated together, the ingredient demand of the confirmed ones is summed
+     * per ingredient and deducted with a single guarded update each. Any conflict or shortage
+     * rolls back the whole batch.
+     * Slots may refer to an unsaved schedule of their day; it is replaced by the day's schedule,
+     * which is created within the batch's transaction if missing.
+     * 
+     * @param slots The slots to create
+     * @return The created slots, in input order
+     * @throws IllegalStateException if validation fails or inventory is insufficient
+     */
+    @Transactional
+    public List<InfusionSlot> createAndConfirmSlots(List<InfusionSlot> slots) {
+        // Get or create the schedule of each day
+        Map<LocalDate, DailySchedule> schedules = new HashMap<>();
+        for (InfusionSlot slot : slots) {
+            if (slot.getSchedule().getId() == null) {
+                slot.setSchedule(schedules.computeIfAbsent(slot.getSchedule().getDate(), date -> scheduleRepository.findByDate(date)
+                        .orElseGet(() -> scheduleRepository.save(DailySchedule.builder().date(date).build()))));
+            }
+        }
+        
+        // Validate all slots against existing ones and against each other
+        Map<LocalDate, List<InfusionSlot>> slotsByDate = slots.stream()
+                .collect(Collectors.groupingBy(slot -> slot.getSchedule().getDate(),
+                        LinkedHashMap::new, Collectors.toList()));
+        String conflictMessages = validatorService.validateBatch(slotsByDate).values().stream()
+                .flatMap(List::stream)
+                .flatMap(List::stream)
+                .map(Conflict::getMessage)
+                .collect(Collectors.joining("; "));
+        if (!conflictMessages.isEmpty()) {
+            throw new IllegalStateException("Cannot create slots due to conflicts: " + conflictMessages);
+        }
+        
+        List<InfusionSlot> savedSlots = slotRepository.saveAll(slots);
+        
+        // One guarded update per ingredient for the whole batch, one ledger entry per slot and ingredient
+        List<InfusionSlot> confirmedSlots = savedSlots.stream()
+                .filter(InfusionSlot::getConfirmed)
+                .toList();
+        Map<Long, Integer> demand = ingredientDemand(confirmedSlots);
+        demand.forEach(this::deductStock);
+        ledgerService.recordDeductions(confirmedSlots.stream()
+                .collect(Collectors.toMap(InfusionSlot::getId, slot -> ingredientDemand(List.of(slot)))));
+        
+        savedSlots.forEach(slot -> publishChange(slot, SlotChangedEvent.ChangeType.CREATED));
+        log.info("Created {} slots, deducted {} ingredients", savedSlots.size(), demand.size());
+        return savedSlots;
+    }
+    
     /**
      * Confirms a slot and deducts inventory.
      * This is a separate transactional method to handle inventory deduction atomically.
@@ -63,6 +154,7 @@ public class InfusionSlotService {
      */
     @Transactional
     public InfusionSlot confirmSlot(Long slotId) {
+        timeUntilCompletion(confirmCommittedTimer, confirmRolledBackTimer);
         InfusionSlot slot = slotRepository.findById(slotId)
                 .orElseThrow(() -> new IllegalArgumentException("Slot not found: " + slotId));
         
@@ -85,40 +177,43 @@ public class InfusionSlotService {
         
         // Mark as confirmed
         slot.setConfirmed(true);
-        return slotRepository.save(slot);
+        InfusionSlot confirmedSlot = slotRepository.save(slot);
+        publishChange(confirmedSlot, SlotChangedEvent.ChangeType.CONFIRMED);
+        return confirmedSlot;
     }
     
     /**
      * Deducts ingredient inventory for a confirmed slot.
-     * This method is package-private and should only be called within a transaction.
+     * This method should only be called within a transaction.
      * 
-     * Uses pessimistic locking to prevent concurrent inventory deductions.
+     * Each ingredient is decremented with a single guarded UPDATE instead of a read-modify-write,
+     * so concurrent confirmations can neither lose updates nor drive the stock below zero.
      */
     private void deductInventory(InfusionSlot slot) {
         log.info("Deducting inventory for slot {}", slot.getId());
         
-        slot.getRecipe().getSteps().forEach(step -> {
-            if (step.getIngredient() != null) {
-                Ingredient ingredient = ingredientRepository.findById(step.getIngredient().getId())
-                        .orElseThrow(() -> new IllegalStateException("Ingredient not found: " + step.getIngredient().getId()));
-                
-                int currentStock = ingredient.getStockLevel();
-                int requiredAmount = step.getScentDosageMl();
-                
-                if (currentStock < requiredAmount) {
-                    throw new IllegalStateException(
-                            String.format("Insufficient inventory for %s: required %d ml, available %d ml",
-                                    ingredient.getName(), requiredAmount, currentStock)
-                    );
-                }
-                
-                ingredient.setStockLevel(currentStock - requiredAmount);
-                ingredientRepository.save(ingredient);
-                
-                log.debug("Deducted {} ml of {} (remaining: {} ml)",
-                        requiredAmount, ingredient.getName(), ingredient.getStockLevel());
-            }
-        });
+        Map<Long, Integer> demand = ingredientDemand(List.of(slot));
+        demand.forEach(this::deductStock);
+        ledgerService.recordDeductions(Map.of(slot.getId(), demand));
+    }
+    
+    /**
+     * Deducts an amount of an ingredient with one guarded update.
+     * 
+     * @throws IllegalStateException if the stock is insufficient, rolling back the transaction
+     */
+    private void deductStock(Long ingredientId, int requiredAmount) {
+        if (ingredientRepository.deductStock(ingredientId, requiredAmount) == 0) {
+            Ingredient ingredient = ingredientRepository.findById(ingredientId)
+                    .orElseThrow(() -> new IllegalStateException("Ingredient not found: " + ingredientId));
+            // The loaded entity may predate concurrent deductions, so its stock level is not reported
+            throw new IllegalStateException(
+                    String.format("Insufficient inventory for %s: required %d ml exceeds the remaining stock",
+                            ingredient.getName(), requiredAmount)
+            );
+        }
+        
+        log.debug("Deducted {} ml of ingredient {}", requiredAmount, ingredientId);
     }
     
     /**
@@ -130,6 +225,7 @@ public class InfusionSlotService {
      */
     @Transactional
     public InfusionSlot cancelSlot(Long slotId, boolean restoreInventory) {
+        timeUntilCompletion(cancelCommittedTimer, cancelRolledBackTimer);
         InfusionSlot slot = slotRepository.findById(slotId)
                 .orElseThrow(() -> new IllegalArgumentException("Slot not found: " + slotId));
         
@@ -144,27 +240,93 @@ public class InfusionSlotService {
         }
         
         slot.setCancelled(true);
-        return slotRepository.save(slot);
+        InfusionSlot cancelledSlot = slotRepository.save(slot);
+        publishChange(cancelledSlot, SlotChangedEvent.ChangeType.CANCELLED);
+        return cancelledSlot;
+    }
+    
+    /**
+     * Hands slots over to other employees, e.g. because their employee is absent.
+     * Only the employee changes; checking the new assignments is up to the caller.
+     * 
+     * @param employeesBySlotId The new employee of each slot
+     * @return The reassigned slots
+     */
+    @Transactional
+    public List<InfusionSlot> reassignSlots(Map<Long, Employee> employeesBySlotId) {
+        List<InfusionSlot> slots = slotRepository.findAllById(employeesBySlotId.keySet());
+        if (slots.size() != employeesBySlotId.size()) {
+            throw new IllegalArgumentException("Slot not found");
+        }
+        
+        slots.forEach(slot -> slot.setEmployee(employeesBySlotId.get(slot.getId())));
+        List<InfusionSlot> reassignedSlots = slotRepository.saveAll(slots);
+        reassignedSlots.forEach(slot -> publishChange(slot, SlotChangedEvent.ChangeType.REASSIGNED));
+        log.info("Reassigned {} slots", reassignedSlots.size());
+        return reassignedSlots;
+    }
+    
+    /**
+     * Notifies in-memory views (e.g. signage snapshots) that a slot of a day has changed.
+     * Transactional listeners receive the event only after the surrounding transaction commits.
+     */
+    private void publishChange(InfusionSlot slot, SlotChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new SlotChangedEvent(
+                slot.getSchedule().getDate(), slot.getId(), changeType));
+    }
+    
+    /**
+     * Records the time from now until the surrounding transaction has completed, so the commit with
+     * its row locks and flush is part of the latency, under the timer of the transaction's outcome.
+     */
+    private static void timeUntilCompletion(Timer committed, Timer rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long started = System.nanoTime();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                (status == STATUS_COMMITTED ? committed : rolledBack)
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+    
+    private static Timer transitionTimer(MeterRegistry meterRegistry, String action, String outcome) {
+        return Timer.builder("thermaflow.slot.transition")
+                .description("Time to confirm or cancel a slot, including the commit")
+                .tags("action", action, "outcome", outcome)
+                .register(meterRegistry);
     }
     
     /**
      * Restores ingredient inventory for a cancelled slot.
+     * Puts back what the ledger recorded as deducted, at most once per slot.
      */
     private void restoreInventory(InfusionSlot slot) {
         log.info("Restoring inventory for cancelled slot {}", slot.getId());
         
-        slot.getRecipe().getSteps().forEach(step -> {
-            if (step.getIngredient() != null) {
-                Ingredient ingredient = ingredientRepository.findById(step.getIngredient().getId())
-                        .orElseThrow(() -> new IllegalStateException("Ingredient not found: " + step.getIngredient().getId()));
-                
-                int restoredAmount = step.getScentDosageMl();
-                ingredient.setStockLevel(ingredient.getStockLevel() + restoredAmount);
-                ingredientRepository.save(ingredient);
-                
-                log.debug("Restored {} ml of {} (new stock: {} ml)",
-                        restoredAmount, ingredient.getName(), ingredient.getStockLevel());
+        Map<Long, Integer> amounts = ledgerService.recordRestore(slot.getId(), ingredientDemand(List.of(slot)));
+        new TreeMap<>(amounts).forEach((ingredientId, restoredAmount) -> {
+            if (ingredientRepository.restoreStock(ingredientId, restoredAmount) == 0) {
+                throw new IllegalStateException("Ingredient not found: " + ingredientId);
             }
+            
+            log.debug("Restored {} ml of ingredient {}", restoredAmount, ingredientId);
         });
     }
+    
+    /**
+     * Sums the scent dosage of the slots' recipes per ingredient id.
+     * Sorted by id so that concurrent transactions lock ingredient rows in the same order.
+     */
+    private Map<Long, Integer> ingredientDemand(List<InfusionSlot> slots) {
+        Map<Long, Integer> demand = new TreeMap<>();
+        slots.stream()
+                .flatMap(slot -> slot.getRecipe().getSteps().stream())
+                .filter(step -> step.getIngredient() != null)
+                .forEach(step -> demand.merge(step.getIngredient().getId(), step.getScentDosageMl(), Integer::sum));
+        return demand;
+    }
 }
@@ -0,0 +1,68 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.Ingredient;
+import com.thermaflow.repository.IngredientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Service for creating and editing ingredients with their stock.
+ * Every stock change is applied and recorded in the inventory ledger in the same transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngredientService {
+    
+    private final IngredientRepository ingredientRepository;
+    private final InventoryLedgerService ledgerService;
+    
+    /**
+     * Saves a new ingredient; its initial stock is the opening ledger entry.
+     */
+    @Transactional
+    public Ingredient createIngredient(Ingredient ingredient) {
+        ingredient.setId(null);
+        Ingredient created = ingredientRepository.save(ingredient);
+        ledgerService.recordAdjustment(created.getId(), created.getStockLevel());
+        return created;
+    }
+    
+    /**
+     * Updates an ingredient's attributes and sets its stock to the given level.
+     * The stock is changed by the difference to the stored level with a guarded update,
+     * so deductions committed meanwhile are kept rather than overwritten.
+     * 
+     * @return The updated ingredient, or empty if it does not exist
+     * @throws IllegalStateException if the stock would drop below zero
+     */
+    @Transactional
+    public Optional<Ingredient> updateIngredient(Long id, Ingredient changes) {
+        Optional<Ingredient> existing = ingredientRepository.findById(id);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        Ingredient ingredient = existing.get();
+        int delta = changes.getStockLevel() - ingredient.getStockLevel();
+        ingredient.setName(changes.getName());
+        ingredient.setViscosity(changes.getViscosity());
+        ingredient.setScentProfile(changes.getScentProfile());
+        ingredient.setCostPerMl(changes.getCostPerMl());
+        ingredient.setDescription(changes.getDescription());
+        if (delta == 0) {
+            return Optional.of(ingredient);
+        }
+        
+        if (ingredientRepository.adjustStock(id, delta) == 0) {
+            throw new IllegalStateException("Stock of " + ingredient.getName() + " cannot drop below 0 ml");
+        }
+        ledgerService.recordAdjustment(id, delta);
+        log.info("Adjusted stock of {} by {} ml", ingredient.getName(), delta);
+        return ingredientRepository.findById(id);
+    }
+}
@@ -0,0 +1,189 @@
+package com.thermaflow.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Augmented AVL tree of half-open intervals {@code [start, end)} in seconds of day.
+ * 
+ * Nodes are ordered by (start, id) and carry the maximum end of their subtree, so an overlap
+ * query only descends into subtrees that can contain a hit: O(log n + k) for k results.
+ * Insert and remove are O(log n). Not thread-safe; callers guard access.
+ * 
+ * @param <T> The payload stored with each interval
+ */
+final class IntervalTree<T> {
+    
+    private static final class Node<T> {
+        final int start;
+        final int end;
+        final long id;
+        final T value;
+        Node<T> left;
+        Node<T> right;
+        int height = 1;
+        int maxEnd;
+        
+        Node(int start, int end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+    
+    private Node<T> root;
+    private int size;
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Adds an interval. The (start, id) pair must be unique within the tree.
+     */
+    void insert(int start, int end, long id, T value) {
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+    
+    /**
+     * Removes the interval with the given start and id.
+     * 
+     * @return true if the interval was present
+     */
+    boolean remove(int start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+    
+    /**
+     * All payloads whose interval overlaps {@code [from, to)}, in start order.
+     */
+    List<T> findOverlapping(int from, int to) {
+        List<T> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+    
+    private void collect(Node<T> node, int from, int to, List<T> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, result);
+        if (node.start >= to) {
+            return; // This node and everything to its right start too late
+        }
+        if (node.end > from) {
+            result.add(node.value);
+        }
+        collect(node.right, from, to, result);
+    }
+    
+    private static int compare(int start, long id, Node<?> node) {
+        int byStart = Integer.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(id, node.id);
+    }
+    
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+    
+    private Node<T> remove(Node<T> node, int start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+    
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+    
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+    
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+    
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+    
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,186 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.InventoryMovementDTO;
+import com.thermaflow.dto.InventoryMovementDTO.MovementKind;
+import com.thermaflow.model.Ingredient;
+import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.InventoryLedgerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service for the append-only inventory ledger.
+ * 
+ * Every stock change is recorded as a movement (slot deduction, cancellation restore or manual
+ * adjustment). A nightly job folds old movements into per-ingredient snapshots, so the ledger
+ * stock of an ingredient is its snapshot plus the sum of the movements after it.
+ * {@code Ingredient.stockLevel} remains the materialized balance that guards deductions;
+ * the ledger is its audit trail and is reconciled against it on every compaction.
+ * 
+ * The stock levels are also published as the gauge {@code thermaflow.inventory.stock} per ingredient,
+ * refreshed periodically rather than queried on every scrape.
+ */
+@Service
+@Slf4j
+public class InventoryLedgerService {
+    
+    // Movements younger than this may still belong to open transactions and are not compacted yet
+    private static final Duration SETTLE_TIME = Duration.ofHours(1);
+    
+    private final InventoryLedgerRepository ledgerRepository;
+    private final IngredientRepository ingredientRepository;
+    private final int retentionDays;
+    private final MultiGauge stockGauge;
+    
+    public InventoryLedgerService(
+            InventoryLedgerRepository ledgerRepository,
+            IngredientRepository ingredientRepository,
+            @Value("${thermaflow.inventory.ledger.retention-days:90}") int retentionDays,
+            MeterRegistry meterRegistry) {
+        this.ledgerRepository = ledgerRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.retentionDays = retentionDays;
+        this.stockGauge = MultiGauge.builder("thermaflow.inventory.stock")
+                .description("Stock level per ingredient")
+                .baseUnit("ml")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Records the deductions of confirmed slots with one batch insert.
+     * 
+     * @param amountsBySlot Deducted ml per ingredient id, per slot id
+     */
+    public void recordDeductions(Map<Long, Map<Long, Integer>> amountsBySlot) {
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovementDTO> movements = new ArrayList<>();
+        amountsBySlot.forEach((slotId, amounts) ->
+                amounts.forEach((ingredientId, amount) ->
+                        movements.add(movement(ingredientId, slotId, MovementKind.DEDUCTION, -amount, now))));
+        ledgerRepository.insertMovements(movements);
+    }
+    
+    /**
+     * Records the reversal of a slot's deductions. Reversals are keyed by slot and ingredient,
+     * so a slot is never restored twice.
+     * 
+     * @param slotId The cancelled slot
+     * @param recipeAmounts Amounts per ingredient id derived from the recipe, used for slots
+     *                      confirmed before the ledger existed
+     * @return Amounts per ingredient id to put back; empty if already restored
+     */
+    public Map<Long, Integer> recordRestore(Long slotId, Map<Long, Integer> recipeAmounts) {
+        Map<Long, Integer> amounts = ledgerRepository.findUnreversedDeductions(slotId);
+        if (amounts.isEmpty() && !ledgerRepository.existsBySlotId(slotId)) {
+            amounts = recipeAmounts;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        ledgerRepository.insertMovements(amounts.entrySet().stream()
+                .map(entry -> movement(entry.getKey(), slotId, MovementKind.RESTORE, entry.getValue(), now))
+                .toList());
+        return amounts;
+    }
+    
+    /**
+     * Records a manual stock change, e.g. a delivery or a correction via the ingredient API.
+     */
+    public void recordAdjustment(Long ingredientId, int delta) {
+        if (delta != 0) {
+            ledgerRepository.insertMovements(List.of(
+                    movement(ingredientId, null, MovementKind.ADJUSTMENT, delta, LocalDateTime.now())));
+        }
+    }
+    
+    /**
+     * Latest movements of an ingredient, newest first.
+     */
+    public List<InventoryMovementDTO> getMovements(Long ingredientId, int limit) {
+        return ledgerRepository.findByIngredientId(ingredientId, limit);
+    }
+    
+    /**
+     * Stock of an ingredient according to the ledger (snapshot plus later movements),
+     * or null if the ingredient has no ledger history.
+     */
+    public Integer getLedgerStockLevel(Long ingredientId) {
+        return ledgerRepository.findLedgerStockLevels().get(ingredientId);
+    }
+    
+    /**
+     * Refreshes the stock gauge from the materialized stock levels; ingredients deleted since
+     * the last refresh disappear from it.
+     */
+    @Scheduled(fixedDelayString = "${thermaflow.inventory.stock-gauge-refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refreshStockGauge() {
+        stockGauge.register(ingredientRepository.findAll().stream()
+                .filter(ingredient -> ingredient.getStockLevel() != null)
+                .map(ingredient -> MultiGauge.Row.of(
+                        Tags.of("ingredient", ingredient.getName()), ingredient.getStockLevel()))
+                .toList(), true);
+    }
+    
+    /**
+     * Nightly compaction of settled movements into snapshots.
+     */
+    @Scheduled(cron = "${thermaflow.inventory.ledger.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public void compact() {
+        compactBefore(LocalDateTime.now().minus(SETTLE_TIME));
+    }
+    
+    /**
+     * Folds all movements created before the given time into the snapshots, deletes folded
+     * movements past the retention period and reports ingredients whose stock level drifted
+     * from the ledger. Ingredients without any ledger history, e.g. inserted directly into the
+     * database, are not compared.
+     * 
+     * @return The number of snapshots changed
+     */
+    @Transactional
+    public int compactBefore(LocalDateTime settledBefore) {
+        long upToMovementId = ledgerRepository.findMaxMovementIdBefore(settledBefore);
+        int snapshots = ledgerRepository.compactSnapshots(upToMovementId, LocalDateTime.now());
+        int deleted = ledgerRepository.deleteCompactedBefore(
+                upToMovementId, LocalDateTime.now().minusDays(retentionDays));
+        log.info("Compacted inventory ledger up to movement {}: {} snapshots updated, {} movements deleted",
+                upToMovementId, snapshots, deleted);
+        
+        Map<Long, Integer> ledgerStockLevels = ledgerRepository.findLedgerStockLevels();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            Integer ledgerStock = ledgerStockLevels.get(ingredient.getId());
+            if (ledgerStock == null) {
+                log.debug("Stock of {} is not tracked in the ledger", ingredient.getName());
+            } else if (!Objects.equals(ledgerStock, ingredient.getStockLevel())) {
+                log.warn("Stock of {} is {} ml but the ledger records {} ml",
+                        ingredient.getName(), ingredient.getStockLevel(), ledgerStock);
+            }
+        }
+        return snapshots;
+    }
+    
+    private InventoryMovementDTO movement(
+            Long ingredientId, Long slotId, MovementKind kind, int delta, LocalDateTime createdAt) {
+        return InventoryMovementDTO.builder()
+                .ingredientId(ingredientId)
+                .slotId(slotId)
+                .kind(kind)
+                .delta(delta)
+                .createdAt(createdAt)
+                .build();
+    }
+}
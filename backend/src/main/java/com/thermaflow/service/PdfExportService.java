@@ -1,33 +1,140 @@
 package com.thermaflow.service;
 
 import com.lowagie.text.*;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.OutputStreamCounter;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import com.thermaflow.event.SlotChangedEvent;
 import com.thermaflow.model.DailySchedule;
 import com.thermaflow.model.InfusionSlot;
-import lombok.RequiredArgsConstructor;
+import com.thermaflow.model.RecipeProfile;
+import com.thermaflow.model.ScentProfile;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Service for generating PDF exports of daily schedules.
  * Uses OpenPDF and runs on Virtual Threads for optimal I/O performance.
+ * Render time and document size are recorded as {@code thermaflow.pdf.render} and {@code thermaflow.pdf.size}.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PdfExportService {
     
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     
+    // Rows laid out and written to the output before the next chunk is added to the table
+    private static final int ROWS_PER_CHUNK = 50;
+    
+    // Part of every schedule version; bump when the layout changes so cached documents are not reused
+    private static final String LAYOUT_VERSION = "1";
+    
+    // Shared rendering resources, built once instead of per row or document. Fonts carry their
+    // BaseFont, so it is not looked up again for every chunk of text.
+    private static final BaseFont HELVETICA = standardFont(BaseFont.HELVETICA);
+    private static final BaseFont HELVETICA_BOLD = standardFont(BaseFont.HELVETICA_BOLD);
+    private static final BaseFont HELVETICA_OBLIQUE = standardFont(BaseFont.HELVETICA_OBLIQUE);
+    private static final Font TITLE_FONT = new Font(HELVETICA_BOLD, 24, Font.NORMAL);
+    private static final Font DATE_FONT = new Font(HELVETICA, 14, Font.NORMAL, Color.GRAY);
+    private static final Font HEADER_FONT = new Font(HELVETICA_BOLD, 10, Font.NORMAL, Color.WHITE);
+    private static final Font NORMAL_FONT = new Font(HELVETICA, 9, Font.NORMAL);
+    private static final Font BOLD_FONT = new Font(HELVETICA_BOLD, 9, Font.NORMAL);
+    private static final Font FOOTER_FONT = new Font(HELVETICA_OBLIQUE, 8, Font.NORMAL, Color.GRAY);
+    private static final Color HEADER_COLOR = new Color(41, 128, 185); // Blue
+    private static final String[] HEADERS = {"Time", "Location", "Theme/Name", "Intensity", "Scent Info", "Rating"};
+    
+    private static final String[] INTENSITY_INDICATORS = {
+            "🔥",  // Low intensity
+            "🔥🔥",  // Medium intensity
+            "🔥🔥🔥"  // High intensity
+    };
+    
+    // Scent info text per scent profile mask, i.e. per distinct recipe scent combination
+    private static final Map<Integer, String> SCENT_INFO_BY_MASK = new ConcurrentHashMap<>();
+    
+    /**
+     * Display values of one slot row, resolved while the slot's entities are still attached.
+     */
+    public record ScheduleRow(String timeRange, String location, String theme, double heatIntensity, String scentInfo) {
+    }
+    
+    private final DailyScheduleRepository scheduleRepository;
+    private final InfusionRecipeRepository recipeRepository;
+    private final SchedulePdfCache pdfCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor executor;
+    private final Set<LocalDate> pendingPrerenders = ConcurrentHashMap.newKeySet();
+    private final Timer renderTimer;
+    private final DistributionSummary documentSize;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    
+    public PdfExportService(
+            DailyScheduleRepository scheduleRepository,
+            InfusionRecipeRepository recipeRepository,
+            SchedulePdfCache pdfCache,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("virtualThreadExecutor") Executor executor,
+            MeterRegistry meterRegistry) {
+        this.scheduleRepository = scheduleRepository;
+        this.recipeRepository = recipeRepository;
+        this.pdfCache = pdfCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = executor;
+        
+        this.renderTimer = Timer.builder("thermaflow.pdf.render")
+                .description("Time to render a schedule PDF")
+                .register(meterRegistry);
+        this.documentSize = DistributionSummary.builder("thermaflow.pdf.size")
+                .description("Size of rendered schedule PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.cacheHits = cacheRequests(meterRegistry, "hit");
+        this.cacheMisses = cacheRequests(meterRegistry, "miss");
+        Gauge.builder("thermaflow.pdf.cache.size", pdfCache, SchedulePdfCache::getTotalSizeBytes)
+                .description("Size of the cached PDF documents")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
     /**
      * Generates a PDF for a daily schedule asynchronously using Virtual Threads.
      * 
@@ -49,42 +156,238 @@ public class PdfExportService {
     }
     
     /**
-     * Creates the PDF document.
+     * Loads the schedule of a date and resolves its rows in a read-only transaction.
+     * The connection is released before the document is streamed, instead of being held by the
+     * request's persistence context until the response has been written.
+     * 
+     * @return The rows, or empty if there is no schedule for the date
      */
-    private byte[] createPdf(DailySchedule schedule) throws DocumentException, IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    public Optional<List<ScheduleRow>> prepareRows(LocalDate date) {
+        return Optional.ofNullable(readOnlyTransaction.execute(status ->
+                findScheduleWithRecipes(date)
+                        .map(this::prepareRows)
+                        .orElse(null)));
+    }
+    
+    /**
+     * Loads the schedule of a date with its slots, rooms and recipes, and the steps of those recipes
+     * with one more query, so a full day takes two statements however many slots and recipes it has.
+     */
+    private Optional<DailySchedule> findScheduleWithRecipes(LocalDate date) {
+        Optional<DailySchedule> schedule = scheduleRepository.findByDateWithSlots(date);
+        schedule.ifPresent(found -> recipeRepository.fetchSteps(found.getSlots()));
+        return schedule;
+    }
+    
+    /**
+     * Resolves the rows of all non-cancelled slots of a schedule.
+     * Must run while the schedule's slots, rooms and recipes can still be loaded.
+     */
+    public List<ScheduleRow> prepareRows(DailySchedule schedule) {
+        return prepareRows(schedule, slot -> true);
+    }
+    
+    /**
+     * Resolves the rows of the non-cancelled slots of a schedule that match the filter.
+     */
+    public List<ScheduleRow> prepareRows(DailySchedule schedule, Predicate<InfusionSlot> filter) {
+        return schedule.getSlots().stream()
+                .filter(slot -> !slot.getCancelled())
+                .filter(filter)
+                .map(this::toRow)
+                .toList();
+    }
+    
+    /**
+     * Content hash of a rendered schedule: identical rows on the same date produce the same document.
+     * Used as cache key and ETag.
+     */
+    public String scheduleVersion(LocalDate date, List<ScheduleRow> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, LAYOUT_VERSION);
+            update(digest, date.toString());
+            for (ScheduleRow row : rows) {
+                update(digest, row.timeRange());
+                update(digest, row.location());
+                update(digest, row.theme());
+                update(digest, getIntensityIndicator(row.heatIntensity()));
+                update(digest, row.scentInfo());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Writes the schedule PDF to the given stream, served from the PDF cache if this version has
+     * been rendered before. Otherwise the document is rendered into the stream and the cache at once.
+     * 
+     * @param version The version from {@link #scheduleVersion(LocalDate, List)}
+     */
+    public void writeCachedDailySchedulePdf(LocalDate date, List<ScheduleRow> rows, String version, OutputStream out)
+            throws IOException {
+        Optional<InputStream> cached = pdfCache.open(version);
+        if (cached.isPresent()) {
+            cacheHits.increment();
+            try (InputStream in = cached.get()) {
+                in.transferTo(out);
+            }
+            return;
+        }
+        cacheMisses.increment();
+        pdfCache.write(version, out, target -> render(date, rows, target));
+    }
+    
+    /**
+     * Renders the schedule PDF into the cache unless this version is already cached.
+     * 
+     * @return Whether the document had to be rendered
+     */
+    public boolean cacheDailySchedulePdf(LocalDate date, List<ScheduleRow> rows, String version) throws IOException {
+        if (pdfCache.contains(version)) {
+            return false;
+        }
+        pdfCache.put(version, out -> render(date, rows, out));
+        return true;
+    }
+    
+    /**
+     * Renders the PDF of a published schedule into the cache in the background,
+     * so the first download after publishing does not have to wait for OpenPDF.
+     * Does nothing for unpublished or unknown dates, or if the current version is already cached.
+     * At most one pre-render per date waits for the executor; it reads the slots when it starts,
+     * so requests made while it waits are covered by it.
+     */
+    public CompletableFuture<Void> prerenderDailySchedulePdf(LocalDate date) {
+        if (!pendingPrerenders.add(date)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                pendingPrerenders.remove(date);
+                prerender(date);
+            }, executor).exceptionally(e -> {
+                log.warn("Could not pre-render PDF for schedule on {}", date, e);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            pendingPrerenders.remove(date);
+            throw e;
+        }
+    }
+    
+    private void prerender(LocalDate date) {
+        // Drafts change often; an existence query spares loading them
+        if (!scheduleRepository.existsByDateAndPublishedTrue(date)) {
+            return;
+        }
+        List<ScheduleRow> rows = readOnlyTransaction.execute(status ->
+                findScheduleWithRecipes(date)
+                        .filter(schedule -> Boolean.TRUE.equals(schedule.getPublished()))
+                        .map(this::prepareRows)
+                        .orElse(null));
+        if (rows == null) {
+            return;
+        }
+        
+        try {
+            if (cacheDailySchedulePdf(date, rows, scheduleVersion(date, rows))) {
+                log.info("Pre-rendered PDF for published schedule on {}", date);
+            }
+        } catch (IOException e) {
+            log.warn("Could not pre-render PDF for schedule on {}", date, e);
+        }
+    }
+    
+    /**
+     * Keeps the cached PDF of a published schedule current when its slots change.
+     * A batch of changes to one day queues a single pre-render, which skips draft days
+     * with an existence query before loading anything.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        try {
+            prerenderDailySchedulePdf(event.getDate());
+        } catch (RejectedExecutionException e) {
+            // The document is rendered on the next download instead
+            log.debug("Skipped pre-rendering PDF for {}: executor saturated", event.getDate());
+        }
+    }
+    
+    /**
+     * Writes the schedule PDF directly to the given stream.
+     * The table is flushed in chunks of {@value #ROWS_PER_CHUNK} rows, so the finished pages are
+     * written out while the remaining rows are added and memory use does not grow with the slot count.
+     * The stream is not closed.
+     * 
+     * @param date The schedule date shown in the title
+     * @param rows Rows prepared by {@link #prepareRows(DailySchedule)}
+     * @param out The stream to write to, e.g. the servlet response
+     */
+    public void writeDailySchedulePdf(LocalDate date, List<ScheduleRow> rows, OutputStream out) throws DocumentException {
+        long started = System.nanoTime();
+        OutputStreamCounter counter = new OutputStreamCounter(out);
         Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-        PdfWriter.getInstance(document, baos);
+        PdfWriter writer = PdfWriter.getInstance(document, counter);
+        writer.setCloseStream(false);
         
         document.open();
         
         // Add title
-        addTitle(document, schedule);
+        addTitle(document, date);
         
         // Add schedule table
-        addScheduleTable(document, schedule);
+        addScheduleTable(document, rows);
         
         // Add footer
         addFooter(document);
         
         document.close();
-        
+        renderTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        documentSize.record(counter.getCounter());
+    }
+    
+    private void render(LocalDate date, List<ScheduleRow> rows, OutputStream out) throws IOException {
+        try {
+            writeDailySchedulePdf(date, rows, out);
+        } catch (DocumentException e) {
+            throw new IOException("Error generating PDF for schedule on " + date, e);
+        }
+    }
+    
+    private static Counter cacheRequests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("thermaflow.cache.requests")
+                .description("Downloads of schedule PDFs served from or rendered into the PDF cache")
+                .tags("cache", "pdf", "result", result)
+                .register(meterRegistry);
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+    
+    /**
+     * Creates the PDF document.
+     */
+    private byte[] createPdf(DailySchedule schedule) throws DocumentException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDailySchedulePdf(schedule.getDate(), prepareRows(schedule), baos);
         return baos.toByteArray();
     }
     
     /**
      * Adds the title section to the PDF.
      */
-    private void addTitle(Document document, DailySchedule schedule) throws DocumentException {
-        Font titleFont = new Font(Font.HELVETICA, 24, Font.BOLD);
-        Font dateFont = new Font(Font.HELVETICA, 14, Font.NORMAL, java.awt.Color.GRAY);
-        
-        Paragraph title = new Paragraph("ThermaFlow Daily Infusion Schedule", titleFont);
+    private void addTitle(Document document, LocalDate scheduleDate) throws DocumentException {
+        Paragraph title = new Paragraph("ThermaFlow Daily Infusion Schedule", TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         title.setSpacingAfter(10);
         document.add(title);
         
-        Paragraph date = new Paragraph(schedule.getDate().format(DATE_FORMATTER), dateFont);
+        Paragraph date = new Paragraph(scheduleDate.format(DATE_FORMATTER), DATE_FONT);
         date.setAlignment(Element.ALIGN_CENTER);
         date.setSpacingAfter(20);
         document.add(date);
@@ -92,25 +395,42 @@ public class PdfExportService {
     
     /**
      * Adds the schedule table to the PDF.
+     * The table is marked incomplete and added every {@value #ROWS_PER_CHUNK} rows, which lays out
+     * and releases the rows added so far; the header row is repeated on every page.
+     * Cells that are the same in every row are built once per document and copied by the table.
      */
-    private void addScheduleTable(Document document, DailySchedule schedule) throws DocumentException {
+    private void addScheduleTable(Document document, List<ScheduleRow> rows) throws DocumentException {
         // Create table with 6 columns: Time, Location, Theme, Intensity, Scent, QR Code
         PdfPTable table = new PdfPTable(6);
         table.setWidthPercentage(100);
         table.setWidths(new float[]{1.2f, 1.5f, 2f, 1f, 1.5f, 1f});
         table.setSpacingBefore(10);
         table.setSpacingAfter(10);
+        table.setHeaderRows(1);
+        table.setComplete(false);
         
         // Add header row
         addTableHeader(table);
         
         // Add data rows
-        for (InfusionSlot slot : schedule.getSlots()) {
-            if (!slot.getCancelled()) {
-                addSlotRow(table, slot);
+        PdfPCell[] intensityCells = new PdfPCell[INTENSITY_INDICATORS.length];
+        for (int level = 0; level < intensityCells.length; level++) {
+            intensityCells[level] = createCell(INTENSITY_INDICATORS[level], NORMAL_FONT);
+            intensityCells[level].setHorizontalAlignment(Element.ALIGN_CENTER);
+        }
+        PdfPCell qrCell = createCell("[QR]", NORMAL_FONT);
+        qrCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        
+        int rowsInChunk = 0;
+        for (ScheduleRow row : rows) {
+            addSlotRow(table, row, intensityCells, qrCell);
+            if (++rowsInChunk == ROWS_PER_CHUNK) {
+                document.add(table);
+                rowsInChunk = 0;
             }
         }
         
+        table.setComplete(true);
         document.add(table);
     }
     
@@ -118,14 +438,9 @@ public class PdfExportService {
      * Adds the header row to the table.
      */
     private void addTableHeader(PdfPTable table) {
-        Font headerFont = new Font(Font.HELVETICA, 10, Font.BOLD, java.awt.Color.WHITE);
-        java.awt.Color headerColor = new java.awt.Color(41, 128, 185); // Blue
-        
-        String[] headers = {"Time", "Location", "Theme/Name", "Intensity", "Scent Info", "Rating"};
-        
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-            cell.setBackgroundColor(headerColor);
+        for (String header : HEADERS) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, HEADER_FONT));
+            cell.setBackgroundColor(HEADER_COLOR);
             cell.setHorizontalAlignment(Element.ALIGN_CENTER);
             cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
             cell.setPadding(8);
@@ -133,49 +448,51 @@ public class PdfExportService {
         }
     }
     
+    private ScheduleRow toRow(InfusionSlot slot) {
+        String timeRange = String.format("%s - %s",
+                slot.getStartTime().format(TIME_FORMATTER),
+                slot.getEndTime().format(TIME_FORMATTER));
+        String themeName = slot.getRecipe().getTheme() != null 
+                ? slot.getRecipe().getTheme() 
+                : slot.getRecipe().getName();
+        String scentInfo = getScentInfo(slot.getRecipe().getProfile());
+        return new ScheduleRow(timeRange, slot.getRoom().getName(), themeName, slot.getAverageHeatIntensity(), scentInfo);
+    }
+    
+    /**
+     * First two scent profiles of a recipe, e.g. "CITRUS, WOODY", or "N/A".
+     */
+    private String getScentInfo(RecipeProfile profile) {
+        return SCENT_INFO_BY_MASK.computeIfAbsent(profile.scentProfileMask(), mask -> profile.scentProfiles().stream()
+                .map(ScentProfile::toString)
+                .limit(2)
+                .reduce((a, b) -> a + ", " + b)
+                .orElse("N/A"));
+    }
+    
     /**
      * Adds a slot row to the table.
+     * 
+     * @param intensityCells Prepared intensity cells per level
+     * @param qrCell Prepared QR code placeholder cell
      */
-    private void addSlotRow(PdfPTable table, InfusionSlot slot) {
-        Font normalFont = new Font(Font.HELVETICA, 9, Font.NORMAL);
-        Font boldFont = new Font(Font.HELVETICA, 9, Font.BOLD);
-        
+    private void addSlotRow(PdfPTable table, ScheduleRow row, PdfPCell[] intensityCells, PdfPCell qrCell) {
         // Time
-        String timeRange = String.format("%s - %s",
-                slot.getStartTime().format(TIME_FORMATTER),
-                slot.getEndTime().format(TIME_FORMATTER));
-        table.addCell(createCell(timeRange, normalFont));
+        table.addCell(createCell(row.timeRange(), NORMAL_FONT));
         
         // Location
-        table.addCell(createCell(slot.getRoom().getName(), boldFont));
+        table.addCell(createCell(row.location(), BOLD_FONT));
         
         // Theme/Name
-        String themeName = slot.getRecipe().getTheme() != null 
-                ? slot.getRecipe().getTheme() 
-                : slot.getRecipe().getName();
-        table.addCell(createCell(themeName, normalFont));
+        table.addCell(createCell(row.theme(), NORMAL_FONT));
         
         // Intensity (visual indicator)
-        String intensityIndicator = getIntensityIndicator(slot.getAverageHeatIntensity());
-        PdfPCell intensityCell = createCell(intensityIndicator, normalFont);
-        intensityCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        table.addCell(intensityCell);
+        table.addCell(intensityCells[getIntensityLevel(row.heatIntensity())]);
         
         // Scent Info
-        String scentInfo = slot.getRecipe().getSteps().stream()
-                .filter(step -> step.getIngredient() != null)
-                .map(step -> step.getIngredient().getScentProfile().toString())
-                .distinct()
-                .limit(2)
-                .reduce((a, b) -> a + ", " + b)
-                .orElse("N/A");
-        table.addCell(createCell(scentInfo, normalFont));
+        table.addCell(createCell(row.scentInfo(), NORMAL_FONT));
         
         // QR Code placeholder
-        PdfPCell qrCell = new PdfPCell(new Phrase("[QR]", normalFont));
-        qrCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-        qrCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
-        qrCell.setPadding(5);
         table.addCell(qrCell);
     }
     
@@ -198,12 +515,16 @@ public class PdfExportService {
      * Returns flame emojis/symbols representing intensity (1-3).
      */
     private String getIntensityIndicator(double averageIntensity) {
+        return INTENSITY_INDICATORS[getIntensityLevel(averageIntensity)];
+    }
+    
+    private int getIntensityLevel(double averageIntensity) {
         if (averageIntensity <= LOW_INTENSITY_THRESHOLD) {
-            return "🔥";  // Low intensity
+            return 0;
         } else if (averageIntensity <= MEDIUM_INTENSITY_THRESHOLD) {
-            return "🔥🔥";  // Medium intensity
+            return 1;
         } else {
-            return "🔥🔥🔥";  // High intensity
+            return 2;
         }
     }
     
@@ -211,14 +532,20 @@ public class PdfExportService {
      * Adds footer to the PDF.
      */
     private void addFooter(Document document) throws DocumentException {
-        Font footerFont = new Font(Font.HELVETICA, 8, Font.ITALIC, java.awt.Color.GRAY);
-        
         Paragraph footer = new Paragraph(
                 "Scan the QR codes to rate your experience and provide feedback. Enjoy your wellness journey!",
-                footerFont
+                FOOTER_FONT
         );
         footer.setAlignment(Element.ALIGN_CENTER);
         footer.setSpacingBefore(20);
         document.add(footer);
     }
+    
+    private static BaseFont standardFont(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("Standard font " + name + " not available", e);
+        }
+    }
 }
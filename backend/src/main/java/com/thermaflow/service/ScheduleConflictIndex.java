@@ -0,0 +1,179 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.model.RecipeProfile;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory conflict index of all non-cancelled slots of a single day.
+ * 
+ * Keeps one {@link IntervalTree} per room, holding cool-down-extended intervals, and one per
+ * employee, holding the plain infusion intervals. Overlap queries cost O(log n + k) instead of
+ * a scan over the whole day, and slots are added or removed incrementally as they change.
+ * Safe for concurrent readers and writers.
+ */
+final class ScheduleConflictIndex {
+    
+    /**
+     * Precomputed time boundaries of a slot (seconds of day) plus the values needed for messages.
+     * Seconds are not wrapped at midnight, so late slots still compare correctly.
+     */
+    record Booking(
+            Long slotId,
+            Long roomId,
+            String roomName,
+            int requiredCoolDownMin,
+            Long employeeId,
+            String employeeName,
+            LocalTime startTime,
+            LocalTime endTime,
+            LocalTime endTimeWithCoolDown,
+            int startSecond,
+            int endSecond,
+            int coolDownEndSecond) {
+        
+        static Booking of(InfusionSlot slot) {
+            return of(slot, slot.getRecipe().getProfile());
+        }
+        
+        /**
+         * Books the slot with the given profile of its recipe, e.g. compiled from separately loaded steps.
+         */
+        static Booking of(InfusionSlot slot, RecipeProfile profile) {
+            int duration = profile.totalDurationSeconds();
+            int coolDownMin = slot.getRoom().getRequiredCoolDownMin();
+            LocalTime endTime = slot.getStartTime().plusSeconds(duration);
+            int startSecond = slot.getStartTime().toSecondOfDay();
+            return new Booking(
+                    slot.getId(),
+                    slot.getRoom().getId(),
+                    slot.getRoom().getName(),
+                    coolDownMin,
+                    slot.getEmployee().getId(),
+                    slot.getEmployee().getFullName(),
+                    slot.getStartTime(),
+                    endTime,
+                    endTime.plusMinutes(coolDownMin),
+                    startSecond,
+                    startSecond + duration,
+                    startSecond + duration + coolDownMin * 60);
+        }
+    }
+    
+    private final Map<Long, IntervalTree<Booking>> byRoom = new HashMap<>();
+    private final Map<Long, IntervalTree<Booking>> byEmployee = new HashMap<>();
+    private final Map<Long, Booking> bySlotId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Builds the index from the slots of a day.
+     */
+    static ScheduleConflictIndex of(List<InfusionSlot> slots) {
+        ScheduleConflictIndex index = new ScheduleConflictIndex();
+        slots.forEach(slot -> index.add(Booking.of(slot)));
+        return index;
+    }
+    
+    int size() {
+        lock.readLock().lock();
+        try {
+            return bySlotId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds a slot, replacing a previous entry with the same id.
+     */
+    void add(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(booking.slotId());
+            bySlotId.put(booking.slotId(), booking);
+            byRoom.computeIfAbsent(booking.roomId(), id -> new IntervalTree<>())
+                    .insert(booking.startSecond(), booking.coolDownEndSecond(), booking.slotId(), booking);
+            byEmployee.computeIfAbsent(booking.employeeId(), id -> new IntervalTree<>())
+                    .insert(booking.startSecond(), booking.endSecond(), booking.slotId(), booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    void remove(Long slotId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(slotId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Number of slots the employee has on this day, in O(1).
+     */
+    int countForEmployee(Long employeeId) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Booking> tree = byEmployee.get(employeeId);
+            return tree == null ? 0 : tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Number of slots the employee has on this day besides the given one, e.g. a saved slot being
+     * validated again.
+     */
+    int countForEmployeeExcept(Long employeeId, Long slotId) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Booking> tree = byEmployee.get(employeeId);
+            int count = tree == null ? 0 : tree.size();
+            Booking own = slotId == null ? null : bySlotId.get(slotId);
+            return own != null && own.employeeId().equals(employeeId) ? count - 1 : count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Slots of the employee whose infusion overlaps {@code [from, to)}.
+     */
+    List<Booking> findEmployeeOverlaps(Long employeeId, int from, int to) {
+        return findOverlaps(byEmployee, employeeId, from, to);
+    }
+    
+    /**
+     * Slots in the room whose infusion plus cool-down overlaps {@code [from, to)}.
+     */
+    List<Booking> findRoomOverlaps(Long roomId, int from, int to) {
+        return findOverlaps(byRoom, roomId, from, to);
+    }
+    
+    private List<Booking> findOverlaps(Map<Long, IntervalTree<Booking>> trees, Long key, int from, int to) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Booking> tree = trees.get(key);
+            return tree == null ? List.of() : tree.findOverlapping(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void removeUnlocked(Long slotId) {
+        Booking booking = bySlotId.remove(slotId);
+        if (booking == null) {
+            return;
+        }
+        byRoom.get(booking.roomId()).remove(booking.startSecond(), slotId);
+        byEmployee.get(booking.employeeId()).remove(booking.startSecond(), slotId);
+    }
+}
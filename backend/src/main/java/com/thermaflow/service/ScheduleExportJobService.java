@@ -0,0 +1,415 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.ScheduleExportJobDTO;
+import com.thermaflow.dto.ScheduleExportJobDTO.ExportFormat;
+import com.thermaflow.dto.ScheduleExportJobDTO.JobPriority;
+import com.thermaflow.dto.ScheduleExportJobDTO.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background schedule exports with a bounded, fair queue.
+ * 
+ * A job holds only its range and locations until a worker picks it up, which then loads the
+ * schedules with {@link ScheduleExportService#prepare}. Submitted jobs wait in a {@link FairJobQueue} ordered by priority and round-robin across tenants,
+ * and a fixed number of worker threads runs them. When the queue or the tenant's share of it is full,
+ * the submission is rejected with an estimate of when to retry instead of tying up an executor thread
+ * or an HTTP request. Clients poll the job or subscribe to its progress events.
+ * 
+ * Queue depth, running jobs, wait and run times and rejections are published as metrics.
+ */
+@Service
+@Slf4j
+public class ScheduleExportJobService {
+    
+    static final String PROGRESS_EVENT = "progress";
+    
+    public static final String DEFAULT_TENANT = "default";
+    
+    // Finished jobs and their files are kept this long for download
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+    private static final long EVENTS_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    
+    // Retry estimate until the first job has finished, and its upper bound
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(10);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
+    
+    /**
+     * Thrown when a job cannot be queued; carries when the client should try again.
+     */
+    @Getter
+    public static class QueueFullException extends IllegalStateException {
+        
+        private final Duration retryAfter;
+        
+        public QueueFullException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+    }
+    
+    private final ScheduleExportService exportService;
+    private final int workers;
+    
+    // Guards the queue and the running count
+    private final Object lock = new Object();
+    private final FairJobQueue<Job> queue;
+    private int running;
+    
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService workerPool;
+    
+    private final Timer waitTimer;
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+    private final Counter queueFullRejections;
+    private final Counter tenantLimitRejections;
+    
+    public ScheduleExportJobService(
+            ScheduleExportService exportService,
+            MeterRegistry meterRegistry,
+            @Value("${thermaflow.pdf.export.jobs.workers:2}") int workers,
+            @Value("${thermaflow.pdf.export.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${thermaflow.pdf.export.jobs.max-queued-per-tenant:10}") int maxQueuedPerTenant) {
+        this.exportService = exportService;
+        this.workers = workers;
+        this.queue = new FairJobQueue<>(JobPriority.values().length, queueCapacity, maxQueuedPerTenant);
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        Gauge.builder("thermaflow.export.queue.depth", this, ScheduleExportJobService::getQueueDepth)
+                .description("Export jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("thermaflow.export.jobs.running", this, ScheduleExportJobService::getRunningJobs)
+                .description("Export jobs being rendered")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("thermaflow.export.job.wait")
+                .description("Time export jobs spend in the queue")
+                .register(meterRegistry);
+        this.completedTimer = runTimer(meterRegistry, "completed");
+        this.failedTimer = runTimer(meterRegistry, "failed");
+        this.queueFullRejections = rejectionCounter(meterRegistry, "queue-full");
+        this.tenantLimitRejections = rejectionCounter(meterRegistry, "tenant-limit");
+    }
+    
+    /**
+     * Queues a background export of the schedules of a range.
+     * 
+     * @param locations Room locations to include; all if null or empty
+     * @param tenant The client the job is scheduled fairly for; {@link #DEFAULT_TENANT} if blank
+     * @throws QueueFullException If the queue or the tenant's share of it is full
+     */
+    public ScheduleExportJobDTO submit(LocalDate from, LocalDate to, ExportFormat format,
+                                       List<String> locations, String tenant, JobPriority priority) {
+        String jobTenant = tenant == null || tenant.isBlank() ? DEFAULT_TENANT : tenant;
+        Job job = new Job(UUID.randomUUID().toString(), from, to, format, locations, jobTenant, priority);
+        
+        synchronized (lock) {
+            switch (queue.offer(jobTenant, priority.ordinal(), job)) {
+                case QUEUE_FULL -> {
+                    queueFullRejections.increment();
+                    throw new QueueFullException("Too many exports are queued, please retry later", retryAfter());
+                }
+                case TENANT_LIMIT -> {
+                    tenantLimitRejections.increment();
+                    throw new QueueFullException(
+                            "Too many exports are queued for " + jobTenant + ", please retry later", retryAfter());
+                }
+                case ACCEPTED -> jobs.put(job.id, job);
+            }
+        }
+        log.debug("Export {} of {} to {} queued for {} with priority {}", job.id, from, to, jobTenant, priority);
+        
+        dispatch();
+        return toDTO(job);
+    }
+    
+    public Optional<ScheduleExportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toDTO);
+    }
+    
+    /**
+     * The file of a completed job.
+     */
+    public Optional<Path> getJobFile(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.status == JobStatus.COMPLETED)
+                .map(job -> job.file);
+    }
+    
+    /**
+     * Subscribes to the progress of a job. The current state is sent right away, then one
+     * event per rendered day; the stream completes when the job has finished.
+     * 
+     * @return The emitter, or empty if the job does not exist
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MS);
+        emitter.onCompletion(() -> job.subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> job.subscribers.remove(emitter));
+        
+        job.subscribers.add(emitter);
+        send(emitter, toDTO(job));
+        // The job may have finished before the subscriber was added
+        if (job.isFinished()) {
+            job.subscribers.remove(emitter);
+            emitter.complete();
+        }
+        return Optional.of(emitter);
+    }
+    
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+    
+    public int getRunningJobs() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+    
+    /**
+     * Removes finished jobs and their files after the retention time.
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void removeExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.completedAt.isAfter(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+        jobs.values().forEach(job -> job.subscribers.forEach(SseEmitter::complete));
+    }
+    
+    /**
+     * Hands queued jobs to idle workers.
+     */
+    private void dispatch() {
+        synchronized (lock) {
+            while (running < workers && !queue.isEmpty()) {
+                Job job = queue.poll();
+                running++;
+                workerPool.execute(() -> run(job));
+            }
+        }
+    }
+    
+    private void run(Job job) {
+        long startNanos = System.nanoTime();
+        waitTimer.record(startNanos - job.queuedNanos, TimeUnit.NANOSECONDS);
+        job.start();
+        publish(job);
+        
+        try {
+            List<ScheduleExportService.DayExport> days = exportService.prepare(job.from, job.to, job.locations);
+            job.totalDays = days.size();
+            publish(job);
+            job.file = Files.createTempFile("thermaflow-export-" + job.id, job.format == ExportFormat.ZIP ? ".zip" : ".pdf");
+            try (OutputStream out = Files.newOutputStream(job.file)) {
+                exportService.export(days, job.format, out, written -> {
+                    job.renderedDays.set(written);
+                    publish(job);
+                });
+            }
+            completedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            job.complete(JobStatus.COMPLETED, null);
+            log.info("Export {} of {} to {} completed", job.id, job.from, job.to);
+        } catch (Exception e) {
+            log.error("Export {} of {} to {} failed", job.id, job.from, job.to, e);
+            deleteQuietly(job.file);
+            failedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            job.complete(JobStatus.FAILED, e.getMessage());
+        } finally {
+            synchronized (lock) {
+                running--;
+            }
+            publish(job);
+            dispatch();
+        }
+    }
+    
+    /**
+     * Estimates when a worker becomes free from the average run time of finished jobs.
+     */
+    private Duration retryAfter() {
+        if (completedTimer.count() == 0) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        long seconds = (long) Math.ceil(completedTimer.mean(TimeUnit.SECONDS) / workers);
+        return Duration.ofSeconds(Math.min(Math.max(seconds, 1), MAX_RETRY_AFTER.toSeconds()));
+    }
+    
+    /**
+     * Sends the job's state to its subscribers and closes their streams once it has finished.
+     */
+    private void publish(Job job) {
+        if (job.subscribers.isEmpty()) {
+            return;
+        }
+        
+        ScheduleExportJobDTO state = toDTO(job);
+        for (SseEmitter emitter : job.subscribers) {
+            if (send(emitter, state) && job.isFinished()) {
+                emitter.complete();
+            }
+        }
+    }
+    
+    private boolean send(SseEmitter emitter, ScheduleExportJobDTO state) {
+        try {
+            emitter.send(SseEmitter.event().name(PROGRESS_EVENT).data(state));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Disconnected or already completed
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+    
+    private ScheduleExportJobDTO toDTO(Job job) {
+        Integer queuePosition = null;
+        if (job.status == JobStatus.QUEUED) {
+            synchronized (lock) {
+                int position = queue.positionOf(job);
+                queuePosition = position >= 0 ? position : null;
+            }
+        }
+        
+        return ScheduleExportJobDTO.builder()
+                .id(job.id)
+                .from(job.from)
+                .to(job.to)
+                .format(job.format)
+                .priority(job.priority)
+                .tenant(job.tenant)
+                .status(job.status)
+                .queuePosition(queuePosition)
+                .totalDays(job.totalDays)
+                .renderedDays(job.renderedDays.get())
+                .error(job.error)
+                .createdAt(job.createdAt)
+                .startedAt(job.startedAt)
+                .completedAt(job.completedAt)
+                .build();
+    }
+    
+    private static Timer runTimer(MeterRegistry meterRegistry, String status) {
+        return Timer.builder("thermaflow.export.job.run")
+                .description("Time export jobs take to render")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+    
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("thermaflow.export.jobs.rejected")
+                .description("Export jobs rejected because the queue was full")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+    
+    private static final class Job {
+        
+        private final String id;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final ExportFormat format;
+        private final List<String> locations;
+        private final String tenant;
+        private final JobPriority priority;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final long queuedNanos = System.nanoTime();
+        private final AtomicInteger renderedDays = new AtomicInteger();
+        private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile Path file;
+        private volatile Integer totalDays; // Known once the schedules are loaded
+        
+        Job(String id, LocalDate from, LocalDate to, ExportFormat format,
+            List<String> locations, String tenant, JobPriority priority) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.format = format;
+            this.locations = locations == null ? List.of() : List.copyOf(locations);
+            this.tenant = tenant;
+            this.priority = priority;
+        }
+        
+        void start() {
+            this.startedAt = LocalDateTime.now();
+            this.status = JobStatus.RUNNING;
+        }
+        
+        void complete(JobStatus status, String error) {
+            this.error = error;
+            this.completedAt = LocalDateTime.now();
+            this.status = status;
+        }
+        
+        boolean isFinished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.thermaflow.service;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import com.thermaflow.dto.ScheduleExportJobDTO.ExportFormat;
+import com.thermaflow.model.DailySchedule;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for exporting the schedules of a date range, either as a ZIP with one PDF per day
+ * or as a single merged PDF.
+ * 
+ * All schedules of the range are loaded with one fetch-join query. Days are rendered in parallel
+ * on the async executor, at most {@code max-parallel} at a time, into the {@link SchedulePdfCache}
+ * and then written to the output in date order, so memory use stays bounded by a few days.
+ * Exports can run directly into an HTTP response or as a background job
+ * (see {@link ScheduleExportJobService}).
+ */
+@Service
+public class ScheduleExportService {
+    
+    /**
+     * A day to export, resolved while the schedule's entities are attached.
+     */
+    public record DayExport(LocalDate date, List<PdfExportService.ScheduleRow> rows, String version) {
+    }
+    
+    private final DailyScheduleRepository scheduleRepository;
+    private final InfusionRecipeRepository recipeRepository;
+    private final PdfExportService pdfExportService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor executor;
+    private final int maxParallel;
+    private final int maxDays;
+    
+    public ScheduleExportService(
+            DailyScheduleRepository scheduleRepository,
+            InfusionRecipeRepository recipeRepository,
+            PdfExportService pdfExportService,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("virtualThreadExecutor") Executor executor,
+            @Value("${thermaflow.pdf.export.max-parallel:4}") int maxParallel,
+            @Value("${thermaflow.pdf.export.max-days:62}") int maxDays) {
+        this.scheduleRepository = scheduleRepository;
+        this.recipeRepository = recipeRepository;
+        this.pdfExportService = pdfExportService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = executor;
+        this.maxParallel = maxParallel;
+        this.maxDays = maxDays;
+    }
+    
+    /**
+     * Loads all schedules of the range and resolves their rows.
+     * 
+     * @param locations Room locations to include; all if null or empty
+     * @return One entry per existing schedule, in date order
+     * @throws IllegalArgumentException If the range is invalid, too long or has no schedules
+     */
+    public List<DayExport> prepare(LocalDate from, LocalDate to, Collection<String> locations) {
+        validateRange(from, to);
+        
+        List<DayExport> days = readOnlyTransaction.execute(status -> {
+            List<DailySchedule> schedules = scheduleRepository.findByDateBetweenWithSlots(from, to);
+            
+            // Load the steps of all recipes at once instead of once per recipe
+            recipeRepository.fetchSteps(schedules.stream()
+                    .flatMap(schedule -> schedule.getSlots().stream())
+                    .toList());
+            
+            return schedules.stream()
+                    .map(schedule -> {
+                        List<PdfExportService.ScheduleRow> rows = pdfExportService.prepareRows(
+                                schedule, slot -> isAtLocation(slot, locations));
+                        return new DayExport(
+                                schedule.getDate(), rows, pdfExportService.scheduleVersion(schedule.getDate(), rows));
+                    })
+                    .toList();
+        });
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("No schedules found between " + from + " and " + to);
+        }
+        return days;
+    }
+    
+    /**
+     * Checks that a range can be exported, without loading anything.
+     * 
+     * @throws IllegalArgumentException If the range is invalid or too long
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date " + to + " is before start date " + from);
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Exports are limited to " + maxDays + " days");
+        }
+    }
+    
+    /**
+     * Renders the given days and writes them to the stream in the given format.
+     * The stream is not closed.
+     * 
+     * @param onDayWritten Called with the number of days written so far
+     */
+    public void export(List<DayExport> days, ExportFormat format, OutputStream out, IntConsumer onDayWritten)
+            throws IOException {
+        switch (format) {
+            case ZIP -> writeZip(days, out, onDayWritten);
+            case MERGED -> writeMerged(days, out, onDayWritten);
+        }
+    }
+    
+    private void writeZip(List<DayExport> days, OutputStream out, IntConsumer onDayWritten) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        renderInOrder(days, day -> {
+            zip.putNextEntry(new ZipEntry("schedule-" + day.date() + ".pdf"));
+            pdfExportService.writeCachedDailySchedulePdf(day.date(), day.rows(), day.version(), zip);
+            zip.closeEntry();
+        }, onDayWritten);
+        zip.finish();
+    }
+    
+    private void writeMerged(List<DayExport> days, OutputStream out, IntConsumer onDayWritten) throws IOException {
+        Document document = new Document();
+        try {
+            PdfCopy copy = new PdfCopy(document, out);
+            copy.setCloseStream(false);
+            document.open();
+            
+            renderInOrder(days, day -> {
+                // One day at a time: pages are copied and the reader is released before the next day
+                ByteArrayOutputStream dayPdf = new ByteArrayOutputStream();
+                pdfExportService.writeCachedDailySchedulePdf(day.date(), day.rows(), day.version(), dayPdf);
+                PdfReader reader = new PdfReader(dayPdf.toByteArray());
+                try {
+                    for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                        copy.addPage(copy.getImportedPage(reader, page));
+                    }
+                    copy.freeReader(reader);
+                } finally {
+                    reader.close();
+                }
+            }, onDayWritten);
+        } catch (DocumentException e) {
+            throw new IOException("Error merging schedule PDFs", e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface DayWriter {
+        void write(DayExport day) throws IOException;
+    }
+    
+    /**
+     * Renders days into the PDF cache with at most {@code maxParallel} in flight and hands them to
+     * the writer in date order. A day whose render task has not started yet is rendered by the
+     * calling thread, so the export never waits for a task queued behind itself on the executor.
+     */
+    private void renderInOrder(List<DayExport> days, DayWriter writer, IntConsumer onDayWritten) throws IOException {
+        Deque<RenderTask> inFlight = new ArrayDeque<>();
+        int written = 0;
+        for (int i = 0; i < days.size() || !inFlight.isEmpty(); ) {
+            if (i < days.size() && inFlight.size() < maxParallel) {
+                inFlight.add(submit(days.get(i++)));
+                continue;
+            }
+            RenderTask next = inFlight.poll();
+            next.awaitOrRunInline();
+            writer.write(next.day);
+            onDayWritten.accept(++written);
+        }
+    }
+    
+    private RenderTask submit(DayExport day) {
+        RenderTask task = new RenderTask(day);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Executor saturated; the day is rendered inline when it is due
+        }
+        return task;
+    }
+    
+    private final class RenderTask implements Runnable {
+        
+        private final DayExport day;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        RenderTask(DayExport day) {
+            this.day = day;
+        }
+        
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                pdfExportService.cacheDailySchedulePdf(day.date(), day.rows(), day.version());
+                done.complete(null);
+            } catch (Exception e) {
+                done.completeExceptionally(e);
+            }
+        }
+        
+        void awaitOrRunInline() throws IOException {
+            run();
+            try {
+                done.join();
+            } catch (CompletionException e) {
+                throw new IOException("Error rendering schedule of " + day.date(), e.getCause());
+            }
+        }
+    }
+    
+    private static boolean isAtLocation(InfusionSlot slot, Collection<String> locations) {
+        return locations == null || locations.isEmpty() || locations.contains(slot.getRoom().getLocation());
+    }
+}
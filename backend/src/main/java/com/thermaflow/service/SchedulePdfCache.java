@@ -0,0 +1,247 @@
+package com.thermaflow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed LRU cache of rendered schedule PDFs.
+ * 
+ * Entries are keyed by content hash (see {@link PdfExportService#scheduleVersion}), so a changed
+ * schedule simply gets a new key and outdated documents age out once the size limit is reached.
+ * Files are written to a temporary file first and moved into place when complete, so readers
+ * never see a partial document.
+ */
+@Service
+@Slf4j
+public class SchedulePdfCache {
+    
+    private static final String SUFFIX = ".pdf";
+    
+    /**
+     * Writes a document to the given stream.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+    
+    private final Path directory;
+    private final long maxSizeBytes;
+    
+    // Access-ordered: the eldest entry is the least recently used one. Guarded by this.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSizeBytes;
+    
+    public SchedulePdfCache(
+            @Value("${thermaflow.pdf.cache.directory:${java.io.tmpdir}/thermaflow-pdf-cache}") Path directory,
+            @Value("${thermaflow.pdf.cache.max-size-mb:256}") long maxSizeMb) throws IOException {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        Files.createDirectories(directory);
+        loadExistingEntries();
+    }
+    
+    /**
+     * Opens a cached document and marks it as recently used.
+     * 
+     * @return The document, or empty if it is not cached
+     */
+    public Optional<InputStream> open(String key) throws IOException {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return Optional.empty();
+            }
+        }
+        try {
+            return Optional.of(Files.newInputStream(path(key)));
+        } catch (NoSuchFileException e) {
+            // Evicted or removed from disk in the meantime
+            forget(key);
+            return Optional.empty();
+        }
+    }
+    
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+    
+    /**
+     * Renders a document into the cache.
+     */
+    public void put(String key, Renderer renderer) throws IOException {
+        write(key, null, renderer);
+    }
+    
+    /**
+     * Renders a document into the given stream and the cache at the same time.
+     * The entry is only added if rendering completes.
+     * 
+     * @param out The stream to write to, e.g. the HTTP response; may be null
+     */
+    public void write(String key, OutputStream out, Renderer renderer) throws IOException {
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        boolean complete = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.render(out == null ? file : new TeeOutputStream(out, file));
+            }
+            Files.move(temp, path(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        added(key, Files.size(path(key))).forEach(this::deleteEvicted);
+    }
+    
+    public synchronized long getTotalSizeBytes() {
+        return totalSizeBytes;
+    }
+    
+    /**
+     * @return The keys evicted to make room; their files are deleted by the caller outside the lock
+     */
+    private synchronized List<String> added(String key, long size) {
+        Long previous = entries.put(key, size);
+        totalSizeBytes += size - (previous != null ? previous : 0);
+        return evict();
+    }
+    
+    private synchronized void forget(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalSizeBytes -= size;
+        }
+    }
+    
+    /**
+     * Removes least recently used documents until the cache fits its size limit.
+     * The newest entry is always kept, even if it alone exceeds the limit.
+     */
+    private List<String> evict() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSizeBytes > maxSizeBytes && entries.size() > 1) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalSizeBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+        }
+        return evicted;
+    }
+    
+    private void deleteEvicted(String key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException e) {
+            log.warn("Could not delete evicted PDF {}", key, e);
+        }
+    }
+    
+    /**
+     * Picks up documents from a previous run, oldest first, and removes unfinished writes.
+     * Runs once in the constructor, before the cache is shared.
+     */
+    private void loadExistingEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        try {
+            files.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(".tmp"))
+                    .forEach(this::deleteQuietly);
+            files.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(this::lastModified))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        added(name.substring(0, name.length() - SUFFIX.length()), size(file))
+                                .forEach(this::deleteEvicted);
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("PDF cache at {} holds {} documents ({} bytes)", directory, entries.size(), totalSizeBytes);
+    }
+    
+    private Path path(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+    
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+    
+    /**
+     * Writes everything to both streams; closing it closes neither.
+     */
+    private static final class TeeOutputStream extends OutputStream {
+        
+        private final OutputStream first;
+        private final OutputStream second;
+        
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
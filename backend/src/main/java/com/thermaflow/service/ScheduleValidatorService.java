@@ -1,82 +1,289 @@
 package com.thermaflow.service;
 
 import com.thermaflow.dto.Conflict;
+import com.thermaflow.event.SlotChangedEvent;
 import com.thermaflow.model.Employee;
+import com.thermaflow.model.EmployeeSkill;
+import com.thermaflow.model.Ingredient;
+import com.thermaflow.model.InfusionRecipe;
 import com.thermaflow.model.InfusionSlot;
 import com.thermaflow.model.InfusionStep;
+import com.thermaflow.model.RecipeProfile;
+import com.thermaflow.model.ShiftPlan;
+import com.thermaflow.repository.EmployeeRepository;
 import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
 import com.thermaflow.repository.InfusionSlotRepository;
-import lombok.RequiredArgsConstructor;
+import com.thermaflow.repository.ShiftPlanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalTime;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Service for validating infusion slot schedules.
- * Checks for conflicts including staff availability, room availability, and cool-down rules.
+ * Checks for conflicts including staff availability, shifts, daily maximum, skills, room availability,
+ * and cool-down rules.
+ * Bookings of a day are loaded once into a {@link ScheduleConflictIndex} and kept up to date
+ * incrementally, instead of scanning all slots of the day on every check. Shifts are precomputed per
+ * day as minute bitsets ({@link DailyShifts}) and the slots per employee are counted by the index,
+ * so the employee rules cost no query per slot either.
+ * 
+ * Validation time is recorded as {@code thermaflow.validation} (by operation and whether conflicts
+ * were found) and the conflicts found as {@code thermaflow.validation.conflicts} per conflict type.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ScheduleValidatorService {
     
     private final InfusionSlotRepository slotRepository;
     private final IngredientRepository ingredientRepository;
+    private final InfusionRecipeRepository recipeRepository;
+    private final ShiftPlanRepository shiftPlanRepository;
+    private final EmployeeRepository employeeRepository;
+    
+    // Validation runs outside a transaction; index loading initializes the recipes of the loaded slots in one
+    private final TransactionTemplate readOnlyTransaction;
+    
+    // Per-day interval indexes of room and employee bookings, maintained via SlotChangedEvent
+    private final DailyCache<ScheduleConflictIndex> conflictIndexes = new DailyCache<>();
+    
+    // Per-day shift availability; shift plans are not edited through the API, so days are reloaded periodically
+    private final DailyCache<DailyShifts> dailyShifts = new DailyCache<>();
+    
+    // Registered up front, so recording a validation is a few atomic increments
+    private final Timer validSlotTimer;
+    private final Timer conflictingSlotTimer;
+    private final Timer validBatchTimer;
+    private final Timer conflictingBatchTimer;
+    private final Map<Conflict.ConflictType, Counter> conflictCounters = new EnumMap<>(Conflict.ConflictType.class);
+    
+    public ScheduleValidatorService(
+            InfusionSlotRepository slotRepository,
+            IngredientRepository ingredientRepository,
+            InfusionRecipeRepository recipeRepository,
+            ShiftPlanRepository shiftPlanRepository,
+            EmployeeRepository employeeRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.slotRepository = slotRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeRepository = recipeRepository;
+        this.shiftPlanRepository = shiftPlanRepository;
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        
+        this.validSlotTimer = validationTimer(meterRegistry, "slot", "valid");
+        this.conflictingSlotTimer = validationTimer(meterRegistry, "slot", "conflicts");
+        this.validBatchTimer = validationTimer(meterRegistry, "batch", "valid");
+        this.conflictingBatchTimer = validationTimer(meterRegistry, "batch", "conflicts");
+        for (Conflict.ConflictType type : Conflict.ConflictType.values()) {
+            conflictCounters.put(type, Counter.builder("thermaflow.validation.conflicts")
+                    .description("Conflicts found by validation")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        conflictIndexes.bindTo(meterRegistry, "conflict-index");
+        dailyShifts.bindTo(meterRegistry, "shifts");
+    }
+    
+    /**
+     * A slot of a batch under validation, with its position in the request and its conflicts.
+     */
+    private record Candidate(
+            int position,
+            LocalDate date,
+            InfusionSlot slot,
+            ScheduleConflictIndex.Booking booking,
+            List<Conflict> conflicts) {
+    }
     
     /**
      * Validates a new infusion slot and returns a list of conflicts.
-     * Uses Java Streams for efficient conflict detection.
+     * A slot that is already saved, e.g. when it is confirmed, is not checked against itself.
+     * Staff and room checks are answered by the day's conflict index in O(log n + k),
+     * shift, daily maximum and skill checks in O(1).
      * 
      * @param newSlot The slot to validate
      * @return List of conflicts found (empty if no conflicts)
      */
     public List<Conflict> validate(InfusionSlot newSlot) {
+        long started = System.nanoTime();
         List<Conflict> conflicts = new ArrayList<>();
         
-        // Get existing slots for the same date
-        List<InfusionSlot> existingSlots = slotRepository.findByScheduleDateAndNotCancelled(
-                newSlot.getSchedule().getDate()
-        );
-        
-        // Calculate new slot time boundaries
-        LocalTime newSlotStart = newSlot.getStartTime();
-        LocalTime newSlotEnd = newSlot.getEndTime();
+        // Get the conflict index of the same date and the new slot's time boundaries
+        LocalDate date = newSlot.getSchedule().getDate();
+        ScheduleConflictIndex index = indexFor(date);
+        ScheduleConflictIndex.Booking candidate = booking(newSlot);
         
         // Check employee availability
-        conflicts.addAll(validateEmployeeAvailability(newSlot, existingSlots, newSlotStart, newSlotEnd));
+        conflicts.addAll(validateEmployeeAvailability(candidate, index));
+        
+        // Check shift, daily maximum and skills
+        conflicts.addAll(validateEmployeeRules(
+                newSlot, candidate, shiftsFor(date),
+                index.countForEmployeeExcept(candidate.employeeId(), candidate.slotId())));
         
         // Check room availability with cool-down
-        conflicts.addAll(validateRoomAvailability(newSlot, existingSlots, newSlotStart, newSlotEnd));
+        conflicts.addAll(validateRoomAvailability(candidate, index));
         
         // Check inventory
         conflicts.addAll(validateInventory(newSlot));
         
+        (conflicts.isEmpty() ? validSlotTimer : conflictingSlotTimer)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        countConflicts(conflicts);
         return conflicts;
     }
     
+    /**
+     * Validates a plan of candidate slots for a single day in one pass.
+     * 
+     * @param date The day the candidates are planned for
+     * @param candidates Candidate slots (not yet persisted)
+     * @return One list of conflicts per candidate, in input order
+     */
+    public List<List<Conflict>> validateBatch(LocalDate date, List<InfusionSlot> candidates) {
+        return validateBatch(Map.of(date, candidates)).get(date);
+    }
+    
+    /**
+     * Validates a plan of candidate slots spanning several days in one pass.
+     * 
+     * Candidates are checked against existing slots through the conflict indexes, which are loaded
+     * with a single query for all missing dates. Conflicts among the candidates themselves are found
+     * with a sweep line over their start times, and ingredient demand is accumulated over the plan
+     * in chronological order, just like the infusions per employee for the daily maximum.
+     * Runs in O(n log n + k) instead of one day query per candidate.
+     * 
+     * @param candidatesByDate Candidate slots (not yet persisted) per date
+     * @return Per date, one list of conflicts per candidate in input order
+     */
+    public Map<LocalDate, List<List<Conflict>>> validateBatch(Map<LocalDate, List<InfusionSlot>> candidatesByDate) {
+        long started = System.nanoTime();
+        preloadIndexes(candidatesByDate.keySet());
+        
+        Map<LocalDate, List<List<Conflict>>> results = new HashMap<>();
+        List<Candidate> plan = new ArrayList<>();
+        candidatesByDate.forEach((date, slots) -> {
+            ScheduleConflictIndex index = indexFor(date);
+            DailyShifts shifts = shiftsFor(date);
+            List<Candidate> candidates = new ArrayList<>(slots.size());
+            for (int i = 0; i < slots.size(); i++) {
+                Candidate candidate = new Candidate(
+                        i, date, slots.get(i), booking(slots.get(i)), new ArrayList<>());
+                
+                // Check against existing slots
+                candidate.conflicts().addAll(validateEmployeeAvailability(candidate.booking(), index));
+                candidate.conflicts().addAll(validateRoomAvailability(candidate.booking(), index));
+                candidates.add(candidate);
+            }
+            
+            // Check candidates against each other
+            sweepCandidates(candidates);
+            
+            // Check shifts, daily maximum and skills, counting the earlier candidates of each employee
+            validatePlanEmployeeRules(candidates, index, shifts);
+            
+            plan.addAll(candidates);
+            results.put(date, candidates.stream().map(Candidate::conflicts).toList());
+        });
+        
+        // Check inventory for the plan as a whole
+        validatePlanInventory(plan);
+        
+        boolean valid = plan.stream().allMatch(candidate -> candidate.conflicts().isEmpty());
+        (valid ? validBatchTimer : conflictingBatchTimer)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        plan.forEach(candidate -> countConflicts(candidate.conflicts()));
+        return results;
+    }
+    
+    private void countConflicts(List<Conflict> conflicts) {
+        for (Conflict conflict : conflicts) {
+            conflictCounters.get(conflict.getType()).increment();
+        }
+    }
+    
+    /**
+     * Keeps loaded conflict indexes in step with committed slot changes.
+     * Runs before commit so the slot is still in the persistence context and no query is needed.
+     * Until {@link #onSlotChangeCompleted} the change is pending, so an index another transaction
+     * loads meanwhile, without this slot, is not cached.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSlotChanged(SlotChangedEvent event) {
+        conflictIndexes.beginChange(event.getDate());
+        ScheduleConflictIndex index = conflictIndexes.getIfLoaded(event.getDate());
+        if (index == null) {
+            // A load in progress may not see this change
+            conflictIndexes.invalidate(event.getDate());
+            return;
+        }
+        
+        try {
+            switch (event.getChangeType()) {
+                case CREATED, REASSIGNED -> slotRepository.findById(event.getSlotId())
+                        .map(ScheduleConflictIndex.Booking::of)
+                        .ifPresent(index::add);
+                case CANCELLED -> index.remove(event.getSlotId());
+                case CONFIRMED -> {
+                    // Confirmation does not move a slot in time
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update conflict index for {}, reloading on next validation", event.getDate(), e);
+            conflictIndexes.invalidate(event.getDate());
+        }
+    }
+    
+    /**
+     * Drops the day's index if a change was applied to it but its transaction rolled back.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onSlotChangeRolledBack(SlotChangedEvent event) {
+        conflictIndexes.invalidate(event.getDate());
+    }
+    
+    /**
+     * Ends the pending change begun in {@link #onSlotChanged}, once it is visible to other transactions.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onSlotChangeCompleted(SlotChangedEvent event) {
+        conflictIndexes.endChange(event.getDate());
+    }
+    
     /**
      * Validates employee availability and constraints.
      */
     private List<Conflict> validateEmployeeAvailability(
-            InfusionSlot newSlot, 
-            List<InfusionSlot> existingSlots,
-            LocalTime newSlotStart,
-            LocalTime newSlotEnd) {
-        
-        return existingSlots.stream()
-                .filter(slot -> slot.getEmployee().getId().equals(newSlot.getEmployee().getId()))
-                .filter(slot -> timesOverlap(slot.getStartTime(), slot.getEndTime(), newSlotStart, newSlotEnd))
-                .map(slot -> new Conflict(
-                        Conflict.ConflictType.EMPLOYEE_UNAVAILABLE,
-                        String.format("Employee %s is already scheduled from %s to %s",
-                                slot.getEmployee().getFullName(),
-                                slot.getStartTime(),
-                                slot.getEndTime()),
-                        slot.getId(),
-                        slot.getEmployee().getFullName()
-                ))
+            ScheduleConflictIndex.Booking newSlot,
+            ScheduleConflictIndex index) {
+        
+        return index.findEmployeeOverlaps(newSlot.employeeId(), newSlot.startSecond(), newSlot.endSecond()).stream()
+                .filter(slot -> !slot.slotId().equals(newSlot.slotId()))
+                .map(this::employeeConflict)
                 .collect(Collectors.toList());
     }
     
@@ -84,121 +291,412 @@ public class ScheduleValidatorService {
      * Validates room availability including cool-down periods.
      */
     private List<Conflict> validateRoomAvailability(
-            InfusionSlot newSlot,
-            List<InfusionSlot> existingSlots,
-            LocalTime newSlotStart,
-            LocalTime newSlotEnd) {
+            ScheduleConflictIndex.Booking newSlot,
+            ScheduleConflictIndex index) {
         
         List<Conflict> conflicts = new ArrayList<>();
         
-        // Calculate new slot end time with cool-down
-        LocalTime newSlotEndWithCoolDown = newSlot.getEndTimeWithCoolDown();
-        
-        // Find room conflicts
-        existingSlots.stream()
-                .filter(slot -> slot.getRoom().getId().equals(newSlot.getRoom().getId()))
-                .forEach(slot -> {
-                    LocalTime existingStart = slot.getStartTime();
-                    LocalTime existingEnd = slot.getEndTime();
-                    LocalTime existingEndWithCoolDown = slot.getEndTimeWithCoolDown();
-                    
-                    // Check if new slot overlaps with existing slot (including cool-down)
-                    if (timesOverlap(existingStart, existingEndWithCoolDown, newSlotStart, newSlotEndWithCoolDown)) {
-                        // Determine conflict type
-                        if (timesOverlap(existingStart, existingEnd, newSlotStart, newSlotEnd)) {
-                            // Direct overlap
-                            conflicts.add(new Conflict(
-                                    Conflict.ConflictType.ROOM_OCCUPIED,
-                                    String.format("Room %s is occupied from %s to %s",
-                                            slot.getRoom().getName(),
-                                            existingStart,
-                                            existingEnd),
-                                    slot.getId(),
-                                    slot.getRoom().getName()
-                            ));
-                        } else {
-                            // Cool-down violation
-                            conflicts.add(new Conflict(
-                                    Conflict.ConflictType.ROOM_COOLDOWN_VIOLATION,
-                                    String.format("Room %s requires cool-down until %s (previous session ends at %s, %d min cool-down required)",
-                                            slot.getRoom().getName(),
-                                            existingEndWithCoolDown,
-                                            existingEnd,
-                                            slot.getRoom().getRequiredCoolDownMin()),
-                                    slot.getId(),
-                                    slot.getRoom().getName()
-                            ));
-                        }
-                    }
-                });
+        // Find slots whose interval including cool-down overlaps the new one including cool-down
+        index.findRoomOverlaps(newSlot.roomId(), newSlot.startSecond(), newSlot.coolDownEndSecond()).stream()
+                .filter(slot -> !slot.slotId().equals(newSlot.slotId()))
+                .forEach(slot -> conflicts.add(roomConflict(slot, newSlot)));
         
         return conflicts;
     }
     
+    /**
+     * Conflict for an employee who is already busy with the given slot.
+     */
+    private Conflict employeeConflict(ScheduleConflictIndex.Booking slot) {
+        return new Conflict(
+                Conflict.ConflictType.EMPLOYEE_UNAVAILABLE,
+                String.format("Employee %s is already scheduled from %s to %s",
+                        slot.employeeName(),
+                        slot.startTime(),
+                        slot.endTime()),
+                slot.slotId(),
+                slot.employeeName()
+        );
+    }
+    
+    /**
+     * Conflict for a room whose slot, including cool-down, overlaps the new slot.
+     */
+    private Conflict roomConflict(ScheduleConflictIndex.Booking slot, ScheduleConflictIndex.Booking newSlot) {
+        // Determine conflict type
+        if (timesOverlap(slot.startSecond(), slot.endSecond(), newSlot.startSecond(), newSlot.endSecond())) {
+            // Direct overlap
+            return new Conflict(
+                    Conflict.ConflictType.ROOM_OCCUPIED,
+                    String.format("Room %s is occupied from %s to %s",
+                            slot.roomName(),
+                            slot.startTime(),
+                            slot.endTime()),
+                    slot.slotId(),
+                    slot.roomName()
+            );
+        }
+        
+        // Cool-down violation
+        return new Conflict(
+                Conflict.ConflictType.ROOM_COOLDOWN_VIOLATION,
+                String.format("Room %s requires cool-down until %s (previous session ends at %s, %d min cool-down required)",
+                        slot.roomName(),
+                        slot.endTimeWithCoolDown(),
+                        slot.endTime(),
+                        slot.requiredCoolDownMin()),
+                slot.slotId(),
+                slot.roomName()
+        );
+    }
+    
+    /**
+     * Sweep line over the candidates of one day: in start order, each candidate is compared only
+     * with the earlier candidates of the same room or employee whose interval is still open.
+     */
+    private void sweepCandidates(List<Candidate> candidates) {
+        List<Candidate> byStart = new ArrayList<>(candidates);
+        byStart.sort(Comparator.comparingInt(candidate -> candidate.booking().startSecond()));
+        
+        Map<Long, PriorityQueue<Candidate>> openInRoom = new HashMap<>();
+        Map<Long, PriorityQueue<Candidate>> openForEmployee = new HashMap<>();
+        for (Candidate candidate : byStart) {
+            ScheduleConflictIndex.Booking booking = candidate.booking();
+            
+            // Room intervals stay open until the cool-down is over
+            PriorityQueue<Candidate> inRoom = openInRoom.computeIfAbsent(booking.roomId(),
+                    id -> new PriorityQueue<>(Comparator.comparingInt(open -> open.booking().coolDownEndSecond())));
+            while (!inRoom.isEmpty() && inRoom.peek().booking().coolDownEndSecond() <= booking.startSecond()) {
+                inRoom.poll();
+            }
+            for (Candidate other : inRoom) {
+                candidate.conflicts().add(batchConflict(roomConflict(other.booking(), booking), other));
+                other.conflicts().add(batchConflict(roomConflict(booking, other.booking()), candidate));
+            }
+            inRoom.add(candidate);
+            
+            // Employee intervals stay open until the infusion ends
+            PriorityQueue<Candidate> forEmployee = openForEmployee.computeIfAbsent(booking.employeeId(),
+                    id -> new PriorityQueue<>(Comparator.comparingInt(open -> open.booking().endSecond())));
+            while (!forEmployee.isEmpty() && forEmployee.peek().booking().endSecond() <= booking.startSecond()) {
+                forEmployee.poll();
+            }
+            for (Candidate other : forEmployee) {
+                candidate.conflicts().add(batchConflict(employeeConflict(other.booking()), other));
+                other.conflicts().add(batchConflict(employeeConflict(booking), candidate));
+            }
+            forEmployee.add(candidate);
+        }
+    }
+    
+    /**
+     * Marks a conflict as caused by another candidate of the same batch, which has no slot id yet.
+     */
+    private Conflict batchConflict(Conflict conflict, Candidate cause) {
+        conflict.setMessage(conflict.getMessage() + " (batch entry " + cause.position() + ")");
+        return conflict;
+    }
+    
+    /**
+     * Validates ingredient inventory per candidate, then accumulates the demand of the whole plan
+     * in chronological order and flags the candidates from which the stock no longer suffices.
+     */
+    private void validatePlanInventory(List<Candidate> plan) {
+        plan.forEach(candidate -> candidate.conflicts().addAll(validateInventory(candidate.slot())));
+        
+        List<Candidate> chronological = new ArrayList<>(plan);
+        chronological.sort(Comparator.comparing(Candidate::date)
+                .thenComparingInt(candidate -> candidate.booking().startSecond()));
+        
+        Map<Long, Integer> plannedDemand = new HashMap<>();
+        for (Candidate candidate : chronological) {
+            requiredIngredients(candidate.slot()).forEach((ingredient, requiredAmount) -> {
+                int totalAmount = plannedDemand.merge(ingredient.getId(), requiredAmount, Integer::sum);
+                // A candidate short on its own is already reported above
+                if (requiredAmount <= ingredient.getStockLevel() && totalAmount > ingredient.getStockLevel()) {
+                    candidate.conflicts().add(new Conflict(
+                            Conflict.ConflictType.INSUFFICIENT_INVENTORY,
+                            String.format("Insufficient inventory for ingredient %s across the plan: required %d ml up to this slot, available %d ml",
+                                    ingredient.getName(),
+                                    totalAmount,
+                                    ingredient.getStockLevel()),
+                            null,
+                            ingredient.getName()
+                    ));
+                }
+            });
+        }
+    }
+    
     /**
      * Validates ingredient inventory levels.
      */
     private List<Conflict> validateInventory(InfusionSlot newSlot) {
         List<Conflict> conflicts = new ArrayList<>();
         
-        newSlot.getRecipe().getSteps().stream()
+        requiredIngredients(newSlot).forEach((ingredient, requiredAmount) -> {
+            if (ingredient.getStockLevel() < requiredAmount) {
+                conflicts.add(new Conflict(
+                        Conflict.ConflictType.INSUFFICIENT_INVENTORY,
+                        String.format("Insufficient inventory for ingredient %s: required %d ml, available %d ml",
+                                ingredient.getName(),
+                                requiredAmount,
+                                ingredient.getStockLevel()),
+                        null,
+                        ingredient.getName()
+                ));
+            }
+        });
+        
+        return conflicts;
+    }
+    
+    /**
+     * Sums the scent dosage of a slot's recipe per ingredient.
+     */
+    private Map<Ingredient, Integer> requiredIngredients(InfusionSlot slot) {
+        return steps(slot.getRecipe()).stream()
                 .filter(step -> step.getIngredient() != null)
                 .collect(Collectors.groupingBy(
                         InfusionStep::getIngredient,
                         Collectors.summingInt(InfusionStep::getScentDosageMl)
-                ))
-                .forEach((ingredient, requiredAmount) -> {
-                    if (ingredient.getStockLevel() < requiredAmount) {
-                        conflicts.add(new Conflict(
-                                Conflict.ConflictType.INSUFFICIENT_INVENTORY,
-                                String.format("Insufficient inventory for ingredient %s: required %d ml, available %d ml",
-                                        ingredient.getName(),
-                                        requiredAmount,
-                                        ingredient.getStockLevel()),
-                                null,
-                                ingredient.getName()
-                        ));
-                    }
-                });
-        
-        return conflicts;
+                ));
     }
     
     /**
-     * Checks if employee exceeds daily maximum infusions.
+     * Validates the shift, daily maximum and skills of the slot's employee.
+     * 
+     * @param booked Infusions the employee already has on the day
      */
-    public List<Conflict> checkEmployeeHealthConstraints(Employee employee, List<InfusionSlot> dailySlots) {
-        long employeeSlotCount = dailySlots.stream()
-                .filter(slot -> slot.getEmployee().getId().equals(employee.getId()))
-                .count();
+    private List<Conflict> validateEmployeeRules(
+            InfusionSlot slot,
+            ScheduleConflictIndex.Booking booking,
+            DailyShifts shifts,
+            int booked) {
+        
+        List<Conflict> conflicts = new ArrayList<>();
+        Employee employee = slot.getEmployee();
+        
+        if (!shifts.availabilityOf(employee.getId()).covers(booking.startSecond(), booking.endSecond())) {
+            conflicts.add(new Conflict(
+                    Conflict.ConflictType.EMPLOYEE_UNAVAILABLE,
+                    String.format("Employee %s is not on shift from %s to %s",
+                            booking.employeeName(),
+                            booking.startTime(),
+                            booking.endTime()),
+                    null,
+                    booking.employeeName()
+            ));
+        }
         
-        if (employeeSlotCount >= employee.getDailyMaxInfusions()) {
-            return List.of(new Conflict(
+        Integer dailyMax = employee.getDailyMaxInfusions();
+        if (dailyMax != null && booked >= dailyMax) {
+            conflicts.add(new Conflict(
                     Conflict.ConflictType.EMPLOYEE_MAX_INFUSIONS_EXCEEDED,
-                    String.format("Employee %s has reached or exceeded daily maximum of %d infusions (current: %d)",
-                            employee.getFullName(),
-                            employee.getDailyMaxInfusions(),
-                            employeeSlotCount),
+                    String.format("Employee %s has reached the daily maximum of %d infusions (current: %d)",
+                            booking.employeeName(),
+                            dailyMax,
+                            booked),
+                    null,
+                    booking.employeeName()
+            ));
+        }
+        
+        Set<EmployeeSkill> missing = EnumSet.noneOf(EmployeeSkill.class);
+        missing.addAll(requiredSkills(slot.getRecipe()));
+        missing.removeAll(skills(employee));
+        if (!missing.isEmpty()) {
+            conflicts.add(new Conflict(
+                    Conflict.ConflictType.EMPLOYEE_SKILL_MISSING,
+                    String.format("Employee %s lacks %s required by recipe %s",
+                            booking.employeeName(),
+                            missing,
+                            slot.getRecipe().getName()),
                     null,
-                    employee.getFullName()
+                    booking.employeeName()
             ));
         }
         
-        return List.of();
+        return conflicts;
     }
     
     /**
-     * Helper method to check if two time ranges overlap.
-     * Uses proper interval comparison: two intervals overlap if 
-     * start1 < end2 AND start2 < end1
+     * Books a candidate slot, whose recipe may have been passed in detached without its steps.
+     */
+    private ScheduleConflictIndex.Booking booking(InfusionSlot slot) {
+        InfusionRecipe recipe = slot.getRecipe();
+        RecipeProfile profile = Hibernate.isInitialized(recipe.getSteps())
+                ? recipe.getProfile()
+                : RecipeProfile.of(steps(recipe));
+        return ScheduleConflictIndex.Booking.of(slot, profile);
+    }
+    
+    /**
+     * Steps of the recipe, with their ingredients fetched by the cached step query if not yet loaded.
+     */
+    private List<InfusionStep> steps(InfusionRecipe recipe) {
+        if (Hibernate.isInitialized(recipe.getSteps())) {
+            return recipe.getSteps();
+        }
+        return recipeRepository.findAllWithStepsByIdIn(List.of(recipe.getId())).stream()
+                .findFirst()
+                .map(InfusionRecipe::getSteps)
+                .orElse(List.of());
+    }
+    
+    /**
+     * Skills of the employee. Validation runs outside a transaction, so skills that are not yet
+     * loaded, e.g. of a slot passed in detached, are fetched together with the employee; the query
+     * and both skill sets are cached, so this costs no query in the common case.
      */
-    private boolean timesOverlap(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        // Validate inputs
-        if (start1 == null || end1 == null || start2 == null || end2 == null) {
-            throw new IllegalArgumentException("Time values cannot be null");
+    private Set<EmployeeSkill> skills(Employee employee) {
+        if (Hibernate.isInitialized(employee.getSkills())) {
+            return employee.getSkills();
+        }
+        return employeeRepository.findWithSkillsById(employee.getId()).map(Employee::getSkills).orElse(Set.of());
+    }
+    
+    private Set<EmployeeSkill> requiredSkills(InfusionRecipe recipe) {
+        if (Hibernate.isInitialized(recipe.getRequiredSkills())) {
+            return recipe.getRequiredSkills();
         }
+        return recipeRepository.findWithRequiredSkillsById(recipe.getId())
+                .map(InfusionRecipe::getRequiredSkills)
+                .orElse(Set.of());
+    }
+    
+    /**
+     * Validates the employee rules of the candidates of one day in chronological order, so that each
+     * candidate counts towards the daily maximum of the candidates after it.
+     */
+    private void validatePlanEmployeeRules(List<Candidate> candidates, ScheduleConflictIndex index, DailyShifts shifts) {
+        List<Candidate> chronological = new ArrayList<>(candidates);
+        chronological.sort(Comparator.comparingInt(candidate -> candidate.booking().startSecond()));
         
+        Map<Long, Integer> planned = new HashMap<>();
+        for (Candidate candidate : chronological) {
+            Long employeeId = candidate.booking().employeeId();
+            int booked = planned.computeIfAbsent(employeeId, index::countForEmployee);
+            candidate.conflicts().addAll(validateEmployeeRules(candidate.slot(), candidate.booking(), shifts, booked));
+            planned.put(employeeId, booked + 1);
+        }
+    }
+    
+    /**
+     * Returns the conflict index of a date, loading it from the database on first use.
+     * Shared with services of this package that plan against the day's bookings.
+     */
+    ScheduleConflictIndex indexFor(LocalDate date) {
+        evictPastIndexes();
+        return conflictIndexes.get(date, day -> ScheduleConflictIndex.of(findSlotsWithRecipes(day)));
+    }
+    
+    /**
+     * Returns the precomputed shifts of a date, loading them from the database on first use.
+     */
+    DailyShifts shiftsFor(LocalDate date) {
+        return dailyShifts.get(date, day -> DailyShifts.of(shiftPlanRepository.findByDate(day)),
+                shifts -> isCacheable(date, shifts));
+    }
+    
+    /**
+     * No shifts means no restriction. For days still ahead the plan may just not be entered yet,
+     * so an empty plan is only cached once the day is past.
+     */
+    private static boolean isCacheable(LocalDate date, DailyShifts shifts) {
+        return !shifts.isEmpty() || date.isBefore(LocalDate.now());
+    }
+    
+    /**
+     * Drops all cached shifts, so changes to shift plans made outside the API are picked up
+     * by validation and absence repair within the refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${thermaflow.validation.shifts-refresh-ms:300000}")
+    public void refreshShifts() {
+        dailyShifts.invalidateAll();
+    }
+    
+    /**
+     * Loads the non-cancelled slots of a date with everything the conflict index reads.
+     */
+    private List<InfusionSlot> findSlotsWithRecipes(LocalDate date) {
+        return readOnlyTransaction.execute(status -> {
+            List<InfusionSlot> slots = slotRepository.findByScheduleDateAndNotCancelled(date);
+            recipeRepository.fetchSteps(slots);
+            return slots;
+        });
+    }
+    
+    /**
+     * Loads the indexes and shifts of all given dates that are not cached yet with a single range query each.
+     * A single missing day is loaded on first use.
+     */
+    private void preloadIndexes(Set<LocalDate> dates) {
+        evictPastIndexes();
+        List<LocalDate> missing = missingDates(dates, conflictIndexes);
+        if (missing.size() > 1) {
+            Map<LocalDate, Long> stamps = changeStamps(missing, conflictIndexes);
+            List<InfusionSlot> slots = readOnlyTransaction.execute(status -> {
+                List<InfusionSlot> range = slotRepository
+                        .findByScheduleDateBetweenAndNotCancelled(missing.get(0), missing.get(missing.size() - 1));
+                recipeRepository.fetchSteps(range);
+                return range;
+            });
+            Map<LocalDate, List<InfusionSlot>> slotsByDate = slots.stream()
+                    .collect(Collectors.groupingBy(slot -> slot.getSchedule().getDate()));
+            missing.forEach(date -> conflictIndexes.putIfAbsent(date,
+                    ScheduleConflictIndex.of(slotsByDate.getOrDefault(date, List.of())), stamps.get(date)));
+        }
+        
+        List<LocalDate> missingShifts = missingDates(dates, dailyShifts);
+        if (missingShifts.size() > 1) {
+            Map<LocalDate, Long> stamps = changeStamps(missingShifts, dailyShifts);
+            Map<LocalDate, List<ShiftPlan>> shiftsByDate = shiftPlanRepository
+                    .findByDateBetween(missingShifts.get(0), missingShifts.get(missingShifts.size() - 1)).stream()
+                    .collect(Collectors.groupingBy(ShiftPlan::getDate));
+            for (LocalDate date : missingShifts) {
+                DailyShifts shifts = DailyShifts.of(shiftsByDate.getOrDefault(date, List.of()));
+                if (isCacheable(date, shifts)) {
+                    dailyShifts.putIfAbsent(date, shifts, stamps.get(date));
+                }
+            }
+        }
+    }
+    
+    private static List<LocalDate> missingDates(Set<LocalDate> dates, DailyCache<?> cache) {
+        return dates.stream()
+                .filter(date -> !cache.contains(date))
+                .sorted()
+                .toList();
+    }
+    
+    private static Map<LocalDate, Long> changeStamps(List<LocalDate> dates, DailyCache<?> cache) {
+        return dates.stream().collect(Collectors.toMap(date -> date, cache::changeStamp));
+    }
+    
+    /**
+     * Past days are no longer planned, so their indexes and shifts are dropped.
+     */
+    private void evictPastIndexes() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        conflictIndexes.evictBefore(yesterday);
+        dailyShifts.evictBefore(yesterday);
+    }
+    
+    private static Timer validationTimer(MeterRegistry meterRegistry, String operation, String result) {
+        return Timer.builder("thermaflow.validation")
+                .description("Time to validate a slot or a batch of slots")
+                .tags("operation", operation, "result", result)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Helper method to check if two time ranges (seconds of day) overlap.
+     * Uses proper interval comparison: two intervals overlap if 
+     * start1 < end2 AND start2 < end1
+     */
+    private boolean timesOverlap(int start1, int end1, int start2, int end2) {
         // Two intervals overlap if: start1 < end2 AND start2 < end1
-        return start1.isBefore(end2) && start2.isBefore(end1);
+        return start1 < end2 && start2 < end1;
     }
 }
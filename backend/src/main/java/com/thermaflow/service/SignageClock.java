@@ -0,0 +1,206 @@
+package com.thermaflow.service;
+
+import com.thermaflow.event.SlotChangedEvent;
+import com.thermaflow.event.SlotTransitionEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background clock that drives the "currently running" state of today's infusions.
+ * 
+ * The start and end boundaries of all slots of the day are kept in a priority queue.
+ * A single timer is armed for the earliest pending boundary; when it fires, the running set
+ * is updated and a {@link SlotTransitionEvent} is published. Signage reads and push channels
+ * consume that state instead of comparing the wall clock per request and per slot.
+ * 
+ * The queue is rebuilt on startup, after committed slot changes of today and at midnight.
+ * Changes committed while a rebuild is still pending share that rebuild, so a batch of slots
+ * causes one snapshot read, not one per slot.
+ */
+@Component
+@Slf4j
+public class SignageClock {
+    
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final long RETRY_DELAY_MS = 5000;
+    
+    /**
+     * A point in time (second of day) at which a slot starts or ends.
+     */
+    private record Boundary(int second, Long slotId, boolean start) {
+    }
+    
+    private final DigitalSignageService signageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "signage-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Only touched on the clock thread
+    private final PriorityQueue<Boundary> pending = new PriorityQueue<>(Comparator.comparingInt(Boundary::second));
+    private LocalDate date;
+    private ScheduledFuture<?> nextTick;
+    
+    private volatile Set<Long> runningSlotIds = Set.of();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    
+    public SignageClock(
+            DigitalSignageService signageService,
+            ApplicationEventPublisher eventPublisher) {
+        this.signageService = signageService;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.execute(this::rebuild);
+    }
+    
+    /**
+     * Rebuilds today's boundaries once a slot change has been committed.
+     * Runs after the signage snapshot was invalidated, so the rebuild sees the new schedule.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onSlotChanged(SlotChangedEvent event) {
+        if (event.getDate().equals(LocalDate.now()) && rebuildPending.compareAndSet(false, true)) {
+            scheduler.execute(this::rebuildPending);
+        }
+    }
+    
+    /**
+     * Ids of the infusions running right now.
+     */
+    public Set<Long> getRunningSlotIds() {
+        return runningSlotIds;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Clears the flag before reading, so a change committed during the read queues another rebuild.
+     */
+    private void rebuildPending() {
+        rebuildPending.set(false);
+        rebuild();
+    }
+    
+    /**
+     * Loads today's timeline, derives the running set and queues all future boundaries.
+     */
+    private void rebuild() {
+        try {
+            LocalDate today = LocalDate.now();
+            int now = LocalTime.now().toSecondOfDay();
+            List<SignageSnapshot.Entry> timeline = signageService.getTimeline(today);
+            
+            pending.clear();
+            Set<Long> running = new HashSet<>();
+            for (SignageSnapshot.Entry entry : timeline) {
+                Long slotId = entry.display().getSlotId();
+                if (entry.startSecond() > now) {
+                    pending.add(new Boundary(entry.startSecond(), slotId, true));
+                } else if (entry.endSecond() > now) {
+                    running.add(slotId);
+                }
+                if (entry.endSecond() > now) {
+                    pending.add(new Boundary(entry.endSecond(), slotId, false));
+                }
+            }
+            
+            Set<Long> before = today.equals(date) ? runningSlotIds : Set.of();
+            date = today;
+            log.debug("Signage clock rebuilt for {}: {} running, {} boundaries pending",
+                    today, running.size(), pending.size());
+            publish(today, before, Set.copyOf(running));
+            scheduleNext();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild signage clock, retrying in {} ms", RETRY_DELAY_MS, e);
+            schedule(this::rebuild, RETRY_DELAY_MS);
+        }
+    }
+    
+    /**
+     * Applies every boundary that has been reached and re-arms the timer.
+     */
+    private void tick() {
+        if (!LocalDate.now().equals(date)) {
+            rebuild();
+            return;
+        }
+        
+        try {
+            int now = LocalTime.now().toSecondOfDay();
+            Set<Long> running = new HashSet<>(runningSlotIds);
+            while (!pending.isEmpty() && pending.peek().second() <= now) {
+                Boundary boundary = pending.poll();
+                if (boundary.start()) {
+                    running.add(boundary.slotId());
+                } else {
+                    running.remove(boundary.slotId());
+                }
+            }
+            
+            if (!running.equals(runningSlotIds)) {
+                publish(date, runningSlotIds, Set.copyOf(running));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to publish signage transition", e);
+        }
+        scheduleNext();
+    }
+    
+    private void publish(LocalDate day, Set<Long> before, Set<Long> after) {
+        Set<Long> started = new HashSet<>(after);
+        started.removeAll(before);
+        Set<Long> ended = new HashSet<>(before);
+        ended.removeAll(after);
+        
+        runningSlotIds = after;
+        eventPublisher.publishEvent(new SlotTransitionEvent(
+                day, Set.copyOf(started), Set.copyOf(ended), after));
+    }
+    
+    /**
+     * Arms the timer for the next boundary, or for midnight if nothing is left today.
+     */
+    private void scheduleNext() {
+        long targetMillis = pending.isEmpty()
+                ? MILLIS_PER_DAY
+                : Math.min(pending.peek().second() * 1000L, MILLIS_PER_DAY);
+        long nowMillis = LocalTime.now().toNanoOfDay() / 1_000_000;
+        schedule(this::tick, Math.max(targetMillis - nowMillis, 0));
+    }
+    
+    private void schedule(Runnable task, long delayMillis) {
+        if (nextTick != null) {
+            nextTick.cancel(false);
+        }
+        nextTick = scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
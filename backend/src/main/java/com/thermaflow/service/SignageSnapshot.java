@@ -0,0 +1,164 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.SignageDisplayDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, precomputed signage view of a single day.
+ * Slots are sorted by start time and their boundaries are kept as seconds of day,
+ * so "next" and "current" lookups are answered with a binary search instead of a DB query.
+ * 
+ * Read methods take the set of running slot ids maintained by {@link SignageClock}; when it is
+ * {@code null} (no clock state for the day) running slots are derived from the given second.
+ */
+final class SignageSnapshot {
+    
+    /**
+     * A precomputed display row together with its time boundaries.
+     */
+    record Entry(SignageDisplayDTO display, int startSecond, int endSecond) {
+    }
+    
+    private final SignageDisplayDTO[] displays;
+    private final int[] startSeconds;
+    private final int[] endSeconds;
+    private final int[] maxEndPrefix; // maxEndPrefix[i] = max(endSeconds[0..i]), non-decreasing
+    private final Map<Long, Integer> indexBySlotId;
+    
+    private SignageSnapshot(List<Entry> sortedEntries) {
+        int size = sortedEntries.size();
+        this.displays = new SignageDisplayDTO[size];
+        this.startSeconds = new int[size];
+        this.endSeconds = new int[size];
+        this.maxEndPrefix = new int[size];
+        this.indexBySlotId = new HashMap<>(size * 2);
+        
+        int maxEnd = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            Entry entry = sortedEntries.get(i);
+            displays[i] = entry.display();
+            startSeconds[i] = entry.startSecond();
+            endSeconds[i] = entry.endSecond();
+            maxEnd = Math.max(maxEnd, entry.endSecond());
+            maxEndPrefix[i] = maxEnd;
+            indexBySlotId.put(entry.display().getSlotId(), i);
+        }
+    }
+    
+    /**
+     * Builds a snapshot from unsorted entries.
+     */
+    static SignageSnapshot of(List<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingInt(Entry::startSecond));
+        return new SignageSnapshot(sorted);
+    }
+    
+    int size() {
+        return displays.length;
+    }
+    
+    /**
+     * All entries in start order, e.g. to derive the day's start and end boundaries.
+     */
+    List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(displays.length);
+        for (int i = 0; i < displays.length; i++) {
+            entries.add(new Entry(displays[i], startSeconds[i], endSeconds[i]));
+        }
+        return entries;
+    }
+    
+    /**
+     * All slots of the day, flagged relative to the given second of day.
+     */
+    List<SignageDisplayDTO> all(int nowSecond, Set<Long> running) {
+        List<SignageDisplayDTO> result = new ArrayList<>(displays.length);
+        for (int i = 0; i < displays.length; i++) {
+            result.add(render(i, nowSecond, running));
+        }
+        return result;
+    }
+    
+    /**
+     * Up to {@code limit} slots starting strictly after the given second of day.
+     */
+    List<SignageDisplayDTO> upcoming(int nowSecond, int limit, Set<Long> running) {
+        int from = firstStartAfter(nowSecond);
+        int to = Math.min(displays.length, from + Math.max(limit, 0));
+        
+        List<SignageDisplayDTO> result = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            result.add(render(i, nowSecond, running));
+        }
+        return result;
+    }
+    
+    /**
+     * The earliest-starting slot that is running at the given second of day, if any.
+     */
+    Optional<SignageDisplayDTO> current(int nowSecond, Set<Long> running) {
+        if (running != null) {
+            // Clock state: only the few running slots need to be looked at
+            return running.stream()
+                    .map(indexBySlotId::get)
+                    .filter(Objects::nonNull)
+                    .min(Integer::compare)
+                    .map(index -> render(index, nowSecond, running));
+        }
+        
+        // Slots [0, started) have already started; the first one whose end lies after now
+        // is also the first index where the prefix maximum of end times exceeds now.
+        int started = firstStartAfter(nowSecond);
+        int firstRunning = firstMaxEndAfter(nowSecond);
+        if (firstRunning < started) {
+            return Optional.of(render(firstRunning, nowSecond, null));
+        }
+        return Optional.empty();
+    }
+    
+    private SignageDisplayDTO render(int index, int nowSecond, Set<Long> running) {
+        boolean isRunning = running != null
+                ? running.contains(displays[index].getSlotId())
+                : nowSecond >= startSeconds[index] && nowSecond < endSeconds[index];
+        return displays[index].toBuilder()
+                .isCurrentlyRunning(isRunning)
+                .build();
+    }
+    
+    /**
+     * Index of the first slot with a start strictly after the given second (upper bound).
+     */
+    private int firstStartAfter(int second) {
+        return upperBound(startSeconds, second);
+    }
+    
+    /**
+     * Index of the first slot whose prefix maximum end lies strictly after the given second.
+     */
+    private int firstMaxEndAfter(int second) {
+        return upperBound(maxEndPrefix, second);
+    }
+    
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,367 @@
+package com.thermaflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thermaflow.dto.SignageDiffDTO;
+import com.thermaflow.dto.SignageDisplayDTO;
+import com.thermaflow.event.SlotChangedEvent;
+import com.thermaflow.event.SlotTransitionEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out for digital signage screens.
+ * 
+ * Screens subscribe once and receive a full "snapshot" event followed by "diff" events
+ * whenever a slot of today changes or an infusion starts or ends. Every event is computed and
+ * serialized once on a single fan-out thread, so the number of screens never multiplies database
+ * queries. The frames are then queued per screen and written by the dedicated signage writer executor
+ * (see {@code AsyncConfig}), one writer per screen at a time. That executor never blocks the fan-out
+ * thread or rejects a write, so a stalled screen only delays itself. A screen that falls
+ * {@value #MAX_QUEUED_FRAMES} frames behind is disconnected and catches up on reconnect.
+ * Idle connections are parked as servlet async requests and do not hold a request thread.
+ * 
+ * Clients that reconnect with a {@code Last-Event-ID} header get the missed events replayed
+ * from a bounded buffer, or a fresh snapshot if the gap is too large.
+ */
+@Service
+@Slf4j
+public class SignageStreamService {
+    
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String DIFF_EVENT = "diff";
+    
+    private static final int REPLAY_BUFFER_SIZE = 256;
+    private static final long RECONNECT_DELAY_MS = 3000;
+    static final int MAX_QUEUED_FRAMES = 64;
+    
+    /**
+     * A serialized event, ready to be written to any number of subscribers.
+     */
+    private record StreamEvent(long id, Set<DataWithMediaType> frame) {
+    }
+    
+    /**
+     * A subscribed screen with its own queue of frames. At most one writer task drains the queue
+     * at a time, so frames arrive in order without blocking the fan-out thread.
+     */
+    private final class Screen {
+        
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> frames = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        Screen(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void enqueue(Set<DataWithMediaType> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (queued.incrementAndGet() > MAX_QUEUED_FRAMES) {
+                log.info("Disconnecting signage screen that is {} frames behind", MAX_QUEUED_FRAMES);
+                close(null);
+                return;
+            }
+            frames.add(frame);
+            scheduleWrite();
+        }
+        
+        private void scheduleWrite() {
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writer.execute(this::drain);
+                } catch (TaskRejectedException e) {
+                    writing.set(false);
+                    close(e);
+                }
+            }
+        }
+        
+        private void drain() {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed.get() && (frame = frames.poll()) != null) {
+                    queued.decrementAndGet();
+                    emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+            } finally {
+                writing.set(false);
+            }
+            // A frame may have been queued after the last poll but before the flag was cleared
+            if (!closed.get() && !frames.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+        
+        /**
+         * Drops the screen from the fan-out. Completing the emitter waits for a write in progress,
+         * so it runs on the writer rather than on the caller's thread.
+         */
+        void close(Throwable error) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            frames.clear();
+            Runnable complete = error != null ? () -> emitter.completeWithError(error) : emitter::complete;
+            try {
+                writer.execute(complete);
+            } catch (TaskRejectedException e) {
+                complete.run();
+            }
+        }
+    }
+    
+    private final DigitalSignageService signageService;
+    private final ObjectMapper objectMapper;
+    private final Executor writer;
+    private final long emitterTimeoutMs;
+    
+    private final Set<Screen> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "signage-fan-out");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Seeded from the clock so event ids keep increasing across restarts
+    private final AtomicLong eventSequence = new AtomicLong(System.currentTimeMillis());
+    private volatile LocalDate publishedDate;
+    
+    // Only touched on the fan-out thread
+    private final Deque<StreamEvent> replayBuffer = new ArrayDeque<>();
+    private Map<Long, SignageDisplayDTO> published = Map.of();
+    
+    public SignageStreamService(
+            DigitalSignageService signageService,
+            ObjectMapper objectMapper,
+            @Qualifier("signageWriterExecutor") Executor writer,
+            @Value("${thermaflow.signage.stream.timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.signageService = signageService;
+        this.objectMapper = objectMapper;
+        this.writer = writer;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+    
+    /**
+     * Registers a new signage screen.
+     * 
+     * @param lastEventId The last event id the client has seen, or null on first connect
+     * @return The emitter bound to the HTTP response
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(emitterTimeoutMs), lastEventId);
+    }
+    
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Screen screen = new Screen(emitter);
+        emitter.onCompletion(() -> subscribers.remove(screen));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(screen));
+        
+        onFanOut(() -> register(screen, lastEventId));
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    /**
+     * Pushes a diff to all screens once a slot change of today has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onSlotChanged(SlotChangedEvent event) {
+        // Without screens there is nobody to tell; the next subscriber catches up on registration
+        if (!subscribers.isEmpty() && event.getDate().equals(LocalDate.now())) {
+            onFanOut(this::publishChanges);
+        }
+    }
+    
+    /**
+     * Pushes a diff when the {@link SignageClock} reports infusions starting or ending,
+     * and a fresh snapshot when the day rolls over.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onSlotTransition(SlotTransitionEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        if (event.isBoundary() || !event.getDate().equals(publishedDate)) {
+            onFanOut(this::publishChanges);
+        }
+    }
+    
+    /**
+     * Keeps idle connections open through proxies and detects disconnected screens.
+     */
+    @Scheduled(fixedRateString = "${thermaflow.signage.stream.heartbeat-ms:15000}")
+    public void sendHeartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        onFanOut(() -> subscribers.forEach(screen -> screen.enqueue(heartbeat)));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        subscribers.forEach(screen -> screen.emitter.complete());
+        subscribers.clear();
+    }
+    
+    /**
+     * Runs a task on the fan-out thread; a failure is logged and the next event tries again.
+     */
+    private void onFanOut(Runnable task) {
+        fanOut.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Signage fan-out failed", e);
+            }
+        });
+    }
+    
+    /**
+     * Adds the screen to the fan-out and queues the missed events or a full snapshot for it.
+     * Runs on the fan-out thread, so no broadcast can interleave.
+     */
+    private void register(Screen screen, Long lastEventId) {
+        // Transitions are not tracked while nobody listens, so catch up before answering
+        publishChanges();
+        
+        subscribers.add(screen);
+        if (canReplayFrom(lastEventId)) {
+            replayBuffer.stream()
+                    .filter(event -> event.id() > lastEventId)
+                    .forEach(event -> screen.enqueue(event.frame()));
+        } else {
+            screen.enqueue(snapshotFrame(eventSequence.get()));
+        }
+        log.debug("Signage screen subscribed ({} active)", subscribers.size());
+    }
+    
+    /**
+     * Whether the events after the given id are all buffered and few enough to be queued for one screen.
+     */
+    private boolean canReplayFrom(Long lastEventId) {
+        return lastEventId != null
+                && !replayBuffer.isEmpty()
+                && lastEventId >= replayBuffer.peekFirst().id() - 1
+                && lastEventId <= replayBuffer.peekLast().id()
+                && replayBuffer.peekLast().id() - lastEventId <= MAX_QUEUED_FRAMES;
+    }
+    
+    /**
+     * Compares today's schedule with the last published state and broadcasts the difference.
+     * Reads come from the shared signage snapshot, never per subscriber.
+     */
+    private void publishChanges() {
+        LocalDate today = LocalDate.now();
+        List<SignageDisplayDTO> schedule = signageService.getTodaySchedule();
+        Map<Long, SignageDisplayDTO> current = new LinkedHashMap<>();
+        schedule.forEach(display -> current.put(display.getSlotId(), display));
+        
+        if (!today.equals(publishedDate)) {
+            publishedDate = today;
+            published = current;
+            broadcast(SNAPSHOT_EVENT, schedule);
+        } else {
+            SignageDiffDTO diff = diff(published, current);
+            published = current;
+            if (!diff.isEmpty()) {
+                broadcast(DIFF_EVENT, diff);
+            }
+        }
+    }
+    
+    private SignageDiffDTO diff(Map<Long, SignageDisplayDTO> before, Map<Long, SignageDisplayDTO> after) {
+        SignageDiffDTO diff = new SignageDiffDTO();
+        after.forEach((slotId, display) -> {
+            SignageDisplayDTO previous = before.get(slotId);
+            if (previous == null) {
+                diff.getAdded().add(display);
+            } else if (!Objects.equals(previous, display)) {
+                diff.getUpdated().add(display);
+            }
+        });
+        before.keySet().stream()
+                .filter(slotId -> !after.containsKey(slotId))
+                .forEach(diff.getRemoved()::add);
+        return diff;
+    }
+    
+    private void broadcast(String name, Object payload) {
+        long id = eventSequence.incrementAndGet();
+        StreamEvent event = new StreamEvent(id, frame(id, name, payload));
+        
+        replayBuffer.addLast(event);
+        while (replayBuffer.size() > REPLAY_BUFFER_SIZE) {
+            replayBuffer.removeFirst();
+        }
+        
+        subscribers.forEach(screen -> screen.enqueue(event.frame()));
+        log.debug("Pushed signage {} event {} to {} screens", name, id, subscribers.size());
+    }
+    
+    private Set<DataWithMediaType> snapshotFrame(long id) {
+        return frame(id, SNAPSHOT_EVENT, published.values());
+    }
+    
+    private Set<DataWithMediaType> frame(long id, String name, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(id))
+                    .name(name)
+                    .reconnectTime(RECONNECT_DELAY_MS)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize signage event " + name, e);
+        }
+    }
+
+}
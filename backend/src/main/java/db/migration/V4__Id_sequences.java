@@ -0,0 +1,47 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * V4: Sequences for the entity keys, so Hibernate can batch inserts.
+ * 
+ * Identity columns make Hibernate insert each row on its own to read back its key.
+ * The sequences hand out blocks of 50 keys to Hibernate's pooled optimizer instead,
+ * which fills the key range that ends at the returned value. Each sequence therefore
+ * starts one block above the highest existing key, so existing databases keep their rows.
+ * The identity columns stay for rows inserted with plain SQL.
+ */
+public class V4__Id_sequences extends BaseJavaMigration {
+    
+    private static final int ALLOCATION_SIZE = 50;
+    
+    private static final List<String> TABLES = List.of(
+            "ingredients",
+            "infusion_recipes",
+            "infusion_steps",
+            "sauna_rooms",
+            "employees",
+            "shift_plans",
+            "daily_schedules",
+            "infusion_slots");
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long maxId;
+                try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                    result.next();
+                    maxId = result.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + (maxId + ALLOCATION_SIZE)
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
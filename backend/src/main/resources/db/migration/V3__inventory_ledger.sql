@@ -0,0 +1,29 @@
+-- V3: Append-only inventory ledger with compacted snapshots
+
+-- Every stock change (slot deduction, cancellation restore, manual adjustment)
+CREATE TABLE inventory_movements (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ingredient_id BIGINT NOT NULL,
+    slot_id BIGINT,
+    kind VARCHAR(20) NOT NULL,
+    delta INT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (ingredient_id) REFERENCES ingredients(id) ON DELETE CASCADE,
+    -- A slot deducts and restores each ingredient at most once; makes restores idempotent
+    CONSTRAINT uk_inventory_movements_slot UNIQUE (slot_id, ingredient_id, kind)
+);
+
+-- Stock per ingredient after all movements up to last_movement_id
+CREATE TABLE inventory_snapshots (
+    ingredient_id BIGINT PRIMARY KEY,
+    stock_level INT NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (ingredient_id) REFERENCES ingredients(id) ON DELETE CASCADE
+);
+
+-- Existing stock becomes the opening snapshot
+INSERT INTO inventory_snapshots (ingredient_id, stock_level, last_movement_id, taken_at)
+SELECT id, stock_level, 0, CURRENT_TIMESTAMP FROM ingredients;
+
+CREATE INDEX idx_inventory_movements_ingredient ON inventory_movements(ingredient_id, id);
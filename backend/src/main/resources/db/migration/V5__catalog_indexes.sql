@@ -0,0 +1,9 @@
+-- V5: Indexes for the keyset-paginated recipe and ingredient listings
+
+-- Listing order (name, id); also serves name prefix filters
+CREATE INDEX idx_infusion_recipes_name_id ON infusion_recipes(name, id);
+CREATE INDEX idx_infusion_recipes_theme_name_id ON infusion_recipes(theme, name, id);
+CREATE INDEX idx_ingredients_scent_profile_name ON ingredients(scent_profile, name);
+
+-- Scent filter of recipes: steps by ingredient
+CREATE INDEX idx_infusion_steps_ingredient_recipe ON infusion_steps(ingredient_id, recipe_id);
@@ -0,0 +1,8 @@
+-- V6: Skills an employee needs to perform a recipe, matched against employee_skills by the day planner
+
+CREATE TABLE recipe_required_skills (
+    recipe_id BIGINT NOT NULL,
+    skill VARCHAR(50) NOT NULL,
+    FOREIGN KEY (recipe_id) REFERENCES infusion_recipes(id) ON DELETE CASCADE,
+    PRIMARY KEY (recipe_id, skill)
+);
@@ -0,0 +1,190 @@
+package com.thermaflow.controller;
+
+import com.thermaflow.dto.InfusionRecipeDTO;
+import com.thermaflow.dto.KeysetPageDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the keyset-paginated recipe and ingredient listings and their filters.
+ * Every test lists only its own rows through a unique name prefix.
+ */
+@SpringBootTest
+class CatalogPaginationTest {
+    
+    @Autowired
+    private RecipeController recipeController;
+    
+    @Autowired
+    private IngredientController ingredientController;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private String prefix;
+    private Ingredient citrus;
+    private Ingredient woody;
+    
+    @BeforeEach
+    void setUp() {
+        prefix = "Page " + UUID.randomUUID() + " ";
+        citrus = ingredientRepository.save(ingredient(prefix + "Citrus", ScentProfile.CITRUS));
+        woody = ingredientRepository.save(ingredient(prefix + "Woody", ScentProfile.WOODY));
+        
+        // Two recipes share a name; the id orders them
+        recipeRepository.save(recipe(prefix + "Alpha", "Nordic", citrus, 2, 4));
+        recipeRepository.save(recipe(prefix + "Bravo", "Forest", woody, 7, 9));
+        recipeRepository.save(recipe(prefix + "Bravo", "Nordic", woody, 5, 5));
+        recipeRepository.save(recipe(prefix + "Charlie", "Nordic", citrus, 8, 10));
+        recipeRepository.save(recipe(prefix + "Delta", "Forest", citrus, 1, 1));
+    }
+    
+    @Test
+    void testRecipePagesCoverAllRecipesOnceInNameOrder() {
+        // Arrange
+        List<InfusionRecipeDTO> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        
+        // Act
+        do {
+            KeysetPageDTO<InfusionRecipeDTO> page = recipePage(null, null, null, null, cursor, 2, false);
+            listed.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(List.of("Alpha", "Bravo", "Bravo", "Charlie", "Delta"), names(listed));
+        assertTrue(listed.get(1).getId() < listed.get(2).getId());
+        assertEquals(2, listed.get(0).getSteps().size());
+        assertEquals(600, listed.get(0).getTotalDuration());
+    }
+    
+    @Test
+    void testRecipeFiltersCombine() {
+        // Act
+        List<InfusionRecipeDTO> nordic = recipePage("Nordic", null, null, null, null, 50, false).getItems();
+        List<InfusionRecipeDTO> citrusNordic = recipePage("Nordic", ScentProfile.CITRUS, null, null, null, 50, false).getItems();
+        List<InfusionRecipeDTO> intense = recipePage(null, null, 5.0, null, null, 50, false).getItems();
+        List<InfusionRecipeDTO> mild = recipePage(null, ScentProfile.CITRUS, null, 3.0, null, 50, false).getItems();
+        
+        // Assert
+        assertEquals(List.of("Alpha", "Bravo", "Charlie"), names(nordic));
+        assertEquals(List.of("Alpha", "Charlie"), names(citrusNordic));
+        assertEquals(List.of("Bravo", "Bravo", "Charlie"), names(intense));
+        assertEquals(List.of("Alpha", "Delta"), names(mild));
+    }
+    
+    @Test
+    void testSummaryPageLeavesOutSteps() {
+        // Act
+        KeysetPageDTO<InfusionRecipeDTO> page = recipePage(null, null, null, null, null, 50, true);
+        
+        // Assert
+        assertEquals(5, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getItems().stream().allMatch(recipe -> recipe.getSteps() == null && recipe.getTotalDuration() == null));
+        assertEquals("Nordic", page.getItems().get(0).getTheme());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngredientPagesFilterByScent() {
+        // Arrange
+        ingredientRepository.save(ingredient(prefix + "Lemon", ScentProfile.CITRUS));
+        
+        // Act
+        KeysetPageDTO<Ingredient> first = (KeysetPageDTO<Ingredient>) ingredientController
+                .getIngredientPage(ScentProfile.CITRUS, prefix, null, 1).getBody();
+        KeysetPageDTO<Ingredient> second = (KeysetPageDTO<Ingredient>) ingredientController
+                .getIngredientPage(ScentProfile.CITRUS, prefix, first.getNextCursor(), 1).getBody();
+        
+        // Assert
+        assertEquals(citrus.getId(), first.getItems().get(0).getId());
+        assertEquals(prefix + "Lemon", second.getItems().get(0).getName());
+        assertNull(second.getNextCursor());
+    }
+    
+    @Test
+    void testInvalidCursorAndLimitAreRejected() {
+        // Act
+        ResponseEntity<?> badCursor = recipeController.getRecipePage(null, null, null, null, prefix, "%%%", 10, false);
+        ResponseEntity<?> badLimit = ingredientController.getIngredientPage(null, prefix, null, 0);
+        
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, badCursor.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, badLimit.getStatusCode());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private KeysetPageDTO<InfusionRecipeDTO> recipePage(String theme, ScentProfile scentProfile, Double minIntensity,
+                                                         Double maxIntensity, String after, int limit, boolean summary) {
+        return inTransaction(() -> (KeysetPageDTO<InfusionRecipeDTO>) recipeController.getRecipePage(
+                theme, scentProfile, minIntensity, maxIntensity, prefix, after, limit, summary).getBody());
+    }
+    
+    private List<String> names(List<InfusionRecipeDTO> recipes) {
+        return recipes.stream()
+                .map(recipe -> recipe.getName().substring(prefix.length()))
+                .toList();
+    }
+    
+    private static Ingredient ingredient(String name, ScentProfile scentProfile) {
+        return Ingredient.builder()
+                .name(name)
+                .viscosity(20)
+                .scentProfile(scentProfile)
+                .stockLevel(1000)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build();
+    }
+    
+    private static InfusionRecipe recipe(String name, String theme, Ingredient ingredient, int... intensities) {
+        InfusionRecipe recipe = InfusionRecipe.builder()
+                .name(name)
+                .theme(theme)
+                .build();
+        for (int intensity : intensities) {
+            recipe.addStep(InfusionStep.builder()
+                    .name("Round " + intensity)
+                    .durationSeconds(300)
+                    .heatIntensity(intensity)
+                    .scentDosageMl(10)
+                    .ingredient(ingredient)
+                    .build());
+        }
+        return recipe;
+    }
+    
+    /**
+     * Runs like a request with an open persistence context.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
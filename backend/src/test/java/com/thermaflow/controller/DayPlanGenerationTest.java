@@ -0,0 +1,225 @@
+package com.thermaflow.controller;
+
+import com.thermaflow.dto.DayPlanDTO;
+import com.thermaflow.dto.DayPlanRequestDTO;
+import com.thermaflow.dto.InfusionSlotDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for generating a day plan through ScheduleController
+ * and saving it through the batch endpoint, which validates it again.
+ */
+@SpringBootTest
+class DayPlanGenerationTest {
+    
+    @Autowired
+    private ScheduleController scheduleController;
+    
+    @Autowired
+    private SaunaRoomRepository roomRepository;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private ShiftPlanRepository shiftPlanRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private DailyScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private InfusionSlotRepository slotRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private LocalDate date;
+    private List<SaunaRoom> rooms;
+    private Employee allDay;
+    private Employee heatMaster;
+    private Employee partTime;
+    private InfusionRecipe classic;
+    private InfusionRecipe intense;
+    private InfusionRecipe rare;
+    
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        // A far-away date keeps these slots out of today's signage
+        date = LocalDate.of(2099, 1, 1).plusDays(Math.floorMod(suffix.hashCode(), 3000));
+        
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rooms.add(roomRepository.save(SaunaRoom.builder()
+                    .name("Plan Room " + i + " " + suffix)
+                    .capacity(20)
+                    .type(SaunaType.FINNISH)
+                    .hasSoundSystem(false)
+                    .requiredCoolDownMin(10)
+                    .build()));
+        }
+        allDay = saveEmployee("All Day", suffix, 5, Set.of(EmployeeSkill.WENIK));
+        heatMaster = saveEmployee("Heat Master", suffix, 5, Set.of(EmployeeSkill.HIGH_HEAT));
+        partTime = saveEmployee("Part Time", suffix, 2, Set.of(EmployeeSkill.WENIK));
+        saveShift(heatMaster, LocalTime.of(10, 0), LocalTime.of(12, 0));
+        saveShift(partTime, LocalTime.of(11, 0), LocalTime.of(14, 0));
+        
+        Ingredient common = saveIngredient("Plan Oil " + suffix, 1000);
+        Ingredient scarce = saveIngredient("Plan Rare Oil " + suffix, 20);
+        classic = saveRecipe("Plan Classic " + suffix, 1200, common, Set.of());
+        intense = saveRecipe("Plan Intense " + suffix, 900, common, Set.of(EmployeeSkill.HIGH_HEAT));
+        rare = saveRecipe("Plan Rare " + suffix, 1500, scarce, Set.of());
+        
+        DailySchedule schedule = scheduleRepository.save(DailySchedule.builder().date(date).build());
+        slotRepository.save(InfusionSlot.builder()
+                .schedule(schedule)
+                .room(rooms.get(0))
+                .recipe(classic)
+                .employee(allDay)
+                .startTime(LocalTime.of(10, 0))
+                .confirmed(false)
+                .cancelled(false)
+                .build());
+    }
+    
+    @Test
+    void testGeneratedPlanRespectsShiftsSkillsLimitsAndStock() {
+        // Arrange
+        DayPlanRequestDTO request = new DayPlanRequestDTO();
+        request.setOpenFrom(LocalTime.of(10, 0));
+        request.setOpenUntil(LocalTime.of(14, 0));
+        request.setCadenceMinutes(60);
+        request.setRoomIds(rooms.stream().map(SaunaRoom::getId).toList());
+        request.setRecipeIds(List.of(classic.getId(), intense.getId(), rare.getId()));
+        request.setEmployeeIds(List.of(allDay.getId(), heatMaster.getId(), partTime.getId()));
+        request.setTimeLimitSeconds(2);
+        
+        // Act
+        ResponseEntity<?> response = inTransaction(() -> scheduleController.generatePlan(date, request));
+        
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        DayPlanDTO plan = (DayPlanDTO) response.getBody();
+        assertNotNull(plan);
+        List<InfusionSlotDTO> slots = plan.getSlots();
+        assertEquals(12, slots.size() + plan.getOpenSlots().size());
+        // 10:00 heat master; 11:00 all three; 12:00 and 13:00 all-day plus the part-timer's second infusion
+        assertEquals(7, slots.size(), "As many infusions as shifts and limits allow");
+        assertTrue(plan.getOpenSlots().stream().anyMatch(open -> open.getRoomId().equals(rooms.get(0).getId())
+                && open.getStartTime().equals(LocalTime.of(10, 0))), "The booked slot stays open");
+        for (InfusionSlotDTO slot : slots) {
+            if (slot.getRecipeId().equals(intense.getId())) {
+                assertEquals(heatMaster.getId(), slot.getEmployeeId(), "Only the heat master has HIGH_HEAT");
+            }
+            if (slot.getEmployeeId().equals(heatMaster.getId())) {
+                assertFalse(slot.getEndTime().isAfter(LocalTime.of(12, 0)), "Within the heat master's shift");
+            }
+            if (slot.getEmployeeId().equals(partTime.getId())) {
+                assertFalse(slot.getStartTime().isBefore(LocalTime.of(11, 0)), "Within the part-timer's shift");
+            }
+            if (slot.getEmployeeId().equals(allDay.getId())) {
+                assertNotEquals(LocalTime.of(10, 0), slot.getStartTime(), "Busy with the existing slot");
+            }
+        }
+        assertTrue(count(slots, slot -> slot.getEmployeeId().equals(allDay.getId())) <= 4, "One of five used already");
+        assertTrue(count(slots, slot -> slot.getEmployeeId().equals(partTime.getId())) <= 2);
+        assertTrue(count(slots, slot -> slot.getRecipeId().equals(rare.getId())) <= 2, "20 ml of the rare oil");
+        
+        ResponseEntity<?> saved = inTransaction(() -> scheduleController.createSlots(date, slots));
+        assertEquals(200, saved.getStatusCode().value(), () -> String.valueOf(saved.getBody()));
+        assertEquals(slots.size(), ((List<?>) saved.getBody()).size());
+    }
+    
+    @Test
+    void testRejectsOpeningHoursThatEndBeforeTheyStart() {
+        // Arrange
+        DayPlanRequestDTO request = new DayPlanRequestDTO();
+        request.setOpenFrom(LocalTime.of(14, 0));
+        request.setOpenUntil(LocalTime.of(10, 0));
+        
+        // Act
+        ResponseEntity<?> response = scheduleController.generatePlan(date, request);
+        
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+    }
+    
+    private Employee saveEmployee(String firstName, String suffix, int dailyMax, Set<EmployeeSkill> skills) {
+        return employeeRepository.save(Employee.builder()
+                .firstName(firstName)
+                .lastName(suffix)
+                .certificationLevel(3)
+                .dailyMaxInfusions(dailyMax)
+                .skills(skills)
+                .active(true)
+                .build());
+    }
+    
+    private void saveShift(Employee employee, LocalTime start, LocalTime end) {
+        shiftPlanRepository.save(ShiftPlan.builder()
+                .employee(employee)
+                .date(date)
+                .startTime(start)
+                .endTime(end)
+                .build());
+    }
+    
+    private Ingredient saveIngredient(String name, int stock) {
+        return ingredientRepository.save(Ingredient.builder()
+                .name(name)
+                .viscosity(20)
+                .scentProfile(ScentProfile.WOODY)
+                .stockLevel(stock)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build());
+    }
+    
+    private InfusionRecipe saveRecipe(String name, int durationSeconds, Ingredient ingredient, Set<EmployeeSkill> skills) {
+        InfusionRecipe recipe = InfusionRecipe.builder()
+                .name(name)
+                .requiredSkills(skills)
+                .build();
+        recipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(durationSeconds)
+                .heatIntensity(5)
+                .scentDosageMl(10)
+                .ingredient(ingredient)
+                .build());
+        return recipeRepository.save(recipe);
+    }
+    
+    private static long count(List<InfusionSlotDTO> slots, Predicate<InfusionSlotDTO> filter) {
+        return slots.stream().filter(filter).count();
+    }
+    
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
@@ -2,6 +2,7 @@ package com.thermaflow.controller;
 
 import com.thermaflow.dto.SignageDisplayDTO;
 import com.thermaflow.service.DigitalSignageService;
+import com.thermaflow.service.SignageStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -18,9 +20,11 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(DigitalSignageController.class)
 class DigitalSignageControllerTest {
@@ -31,6 +35,9 @@ class DigitalSignageControllerTest {
     @MockBean
     private DigitalSignageService signageService;
     
+    @MockBean
+    private SignageStreamService streamService;
+    
     private SignageDisplayDTO testDisplay;
     
     @BeforeEach
@@ -214,4 +221,19 @@ class DigitalSignageControllerTest {
                 .andExpect(jsonPath("$[2].intensity", is("Intensiv")))
                 .andExpect(jsonPath("$[2].intensityIcon", is("🔥🔥🔥")));
     }
+    
+    @Test
+    void testStreamSchedule_ResumesFromLastEventId() throws Exception {
+        // Arrange
+        when(streamService.subscribe(42L)).thenReturn(new SseEmitter());
+        
+        // Act & Assert
+        mockMvc.perform(get("/api/signage/stream")
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        
+        verify(streamService).subscribe(42L);
+    }
 }
@@ -0,0 +1,169 @@
+package com.thermaflow.controller;
+
+import com.thermaflow.dto.InfusionRecipeDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the second-level and query cache of reference data
+ * and its invalidation by writes through RecipeController and IngredientController.
+ */
+@SpringBootTest
+class ReferenceDataCacheTest {
+    
+    @Autowired
+    private RecipeController recipeController;
+    
+    @Autowired
+    private IngredientController ingredientController;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Statistics statistics;
+    private Ingredient ingredient;
+    private InfusionRecipe recipe;
+    private String suffix;
+    
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString();
+        ingredient = ingredientRepository.save(Ingredient.builder()
+                .name("Cache Oil " + suffix)
+                .viscosity(20)
+                .scentProfile(ScentProfile.WOODY)
+                .stockLevel(1000)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build());
+        recipe = InfusionRecipe.builder()
+                .name("Cache Recipe " + suffix)
+                .build();
+        recipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(300)
+                .heatIntensity(5)
+                .scentDosageMl(10)
+                .ingredient(ingredient)
+                .build());
+        recipe = recipeRepository.save(recipe);
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void testRecipeWithStepsAndIngredientsIsServedFromTheCache() {
+        // Arrange
+        BigDecimal expectedCost = inTransaction(this::recipeCost);
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+        
+        // Act
+        BigDecimal cost = inTransaction(this::recipeCost);
+        
+        // Assert
+        assertEquals(expectedCost, cost);
+        assertEquals(statements, statistics.getPrepareStatementCount(), "Recipe, steps and ingredient were cached");
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= hits + 3);
+        FunctionCounter recipeHits = meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", InfusionRecipe.class.getName())
+                .tag("result", "hit")
+                .functionCounter();
+        assertNotNull(recipeHits);
+        assertTrue(recipeHits.count() > 0);
+    }
+    
+    @Test
+    void testIngredientUpdateThroughControllerRefreshesCachedRecipes() {
+        // Arrange
+        inTransaction(this::recipeCost);
+        Ingredient changed = inTransaction(() -> ingredientController.getIngredientById(ingredient.getId()).getBody());
+        changed.setCostPerMl(BigDecimal.valueOf(0.50));
+        
+        // Act
+        inTransaction(() -> ingredientController.updateIngredient(ingredient.getId(), changed));
+        
+        // Assert
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(inTransaction(this::recipeCost)));
+    }
+    
+    @Test
+    void testStockDeductionEvictsCachedIngredient() {
+        // Arrange
+        inTransaction(() -> ingredientRepository.findById(ingredient.getId()).orElseThrow());
+        
+        // Act
+        inTransaction(() -> ingredientRepository.deductStock(ingredient.getId(), 30));
+        
+        // Assert
+        assertEquals(970, inTransaction(() -> ingredientRepository.findById(ingredient.getId()).orElseThrow().getStockLevel()));
+    }
+    
+    @Test
+    void testRecipeListQueryCacheFollowsCreateAndDelete() {
+        // Arrange
+        inTransaction(recipeController::getAllRecipes);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(containsRecipe(inTransaction(recipeController::getAllRecipes), recipe.getName()));
+        assertEquals(statements, statistics.getPrepareStatementCount(), "Second listing came from the query cache");
+        
+        InfusionRecipeDTO newRecipe = new InfusionRecipeDTO();
+        newRecipe.setName("Cache Recipe New " + suffix);
+        
+        // Act
+        InfusionRecipeDTO created = inTransaction(() -> recipeController.createRecipe(newRecipe));
+        List<InfusionRecipeDTO> afterCreate = inTransaction(recipeController::getAllRecipes);
+        inTransaction(() -> recipeController.deleteRecipe(recipe.getId()));
+        List<InfusionRecipeDTO> afterDelete = inTransaction(recipeController::getAllRecipes);
+        
+        // Assert
+        assertTrue(containsRecipe(afterCreate, created.getName()));
+        assertFalse(containsRecipe(afterDelete, recipe.getName()));
+        assertTrue(inTransaction(() -> recipeRepository.findById(recipe.getId())).isEmpty());
+    }
+    
+    private BigDecimal recipeCost() {
+        return recipeRepository.findById(recipe.getId()).orElseThrow().calculateTotalCost();
+    }
+    
+    private static boolean containsRecipe(List<InfusionRecipeDTO> recipes, String name) {
+        return recipes.stream().anyMatch(listed -> listed.getName().equals(name));
+    }
+    
+    /**
+     * Runs like a request with an open persistence context, in a new session each time.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
@@ -0,0 +1,60 @@
+package com.thermaflow.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RecipeProfile and its caching on InfusionRecipe
+ */
+class RecipeProfileTest {
+    
+    @Test
+    void testProfileAggregatesStepsAndIsRecompiledAfterStepChanges() {
+        // Arrange
+        Ingredient citrus = ingredient(ScentProfile.CITRUS, "0.20");
+        Ingredient woody = ingredient(ScentProfile.WOODY, "0.10");
+        InfusionRecipe recipe = InfusionRecipe.builder().name("Test Recipe").build();
+        recipe.addStep(step(300, 4, 50, woody));
+        recipe.addStep(step(600, 8, 20, citrus));
+        
+        // Act
+        RecipeProfile profile = recipe.getProfile();
+        
+        // Assert
+        assertSame(profile, recipe.getProfile(), "Profile should be compiled once");
+        assertEquals(900, profile.totalDurationSeconds());
+        assertEquals(0, new BigDecimal("9.00").compareTo(profile.totalCost()));
+        assertEquals(6.0, profile.averageHeatIntensity());
+        assertEquals(List.of(ScentProfile.CITRUS, ScentProfile.WOODY), profile.scentProfiles());
+        assertFalse(profile.hasScentProfile(ScentProfile.FLORAL));
+        
+        // Act: changing the steps drops the cached profile
+        recipe.addStep(step(100, 10, 0, null));
+        
+        // Assert
+        assertEquals(1000, recipe.calculateTotalDuration());
+        assertEquals(22.0 / 3, recipe.getProfile().averageHeatIntensity(), 1e-9);
+    }
+    
+    private Ingredient ingredient(ScentProfile scentProfile, String costPerMl) {
+        return Ingredient.builder()
+                .name(scentProfile.name())
+                .scentProfile(scentProfile)
+                .costPerMl(new BigDecimal(costPerMl))
+                .build();
+    }
+    
+    private InfusionStep step(int durationSeconds, int heatIntensity, int scentDosageMl, Ingredient ingredient) {
+        return InfusionStep.builder()
+                .name("Round")
+                .durationSeconds(durationSeconds)
+                .heatIntensity(heatIntensity)
+                .scentDosageMl(scentDosageMl)
+                .ingredient(ingredient)
+                .build();
+    }
+}
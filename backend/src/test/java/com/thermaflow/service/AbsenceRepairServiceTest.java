@@ -0,0 +1,248 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.AbsenceRepairDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for AbsenceRepairService: the absent employee's slots go to colleagues on shift
+ * with the required skills, freeing a colleague by passing on one of their slots where needed.
+ */
+@SpringBootTest
+class AbsenceRepairServiceTest {
+    
+    @Autowired
+    private AbsenceRepairService repairService;
+    
+    @Autowired
+    private ScheduleValidatorService validatorService;
+    
+    @Autowired
+    private SaunaRoomRepository roomRepository;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private ShiftPlanRepository shiftPlanRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private DailyScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private InfusionSlotRepository slotRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private LocalDate date;
+    private DailySchedule schedule;
+    private List<SaunaRoom> rooms;
+    private Employee absent;
+    private Employee helper;
+    private Employee heatMaster;
+    private InfusionRecipe classic;
+    private InfusionRecipe intense;
+    
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        // A far-away date keeps these slots out of today's signage
+        date = LocalDate.of(2099, 1, 1).plusDays(Math.floorMod(suffix.hashCode(), 3000));
+        
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rooms.add(roomRepository.save(SaunaRoom.builder()
+                    .name("Repair Room " + i + " " + suffix)
+                    .capacity(20)
+                    .type(SaunaType.FINNISH)
+                    .hasSoundSystem(false)
+                    .requiredCoolDownMin(10)
+                    .build()));
+        }
+        absent = saveEmployee("Absent", suffix, Set.of(EmployeeSkill.WENIK, EmployeeSkill.HIGH_HEAT));
+        helper = saveEmployee("Helper", suffix, Set.of(EmployeeSkill.WENIK));
+        heatMaster = saveEmployee("Heat Master", suffix, Set.of(EmployeeSkill.HIGH_HEAT));
+        // With shift plans for the day, only employees on shift are asked to step in
+        for (Employee employee : List.of(absent, helper, heatMaster)) {
+            shiftPlanRepository.save(ShiftPlan.builder()
+                    .employee(employee)
+                    .date(date)
+                    .startTime(LocalTime.of(10, 0))
+                    .endTime(LocalTime.of(18, 0))
+                    .build());
+        }
+        
+        Ingredient oil = ingredientRepository.save(Ingredient.builder()
+                .name("Repair Oil " + suffix)
+                .viscosity(20)
+                .scentProfile(ScentProfile.WOODY)
+                .stockLevel(1000)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build());
+        classic = saveRecipe("Repair Classic " + suffix, 1200, oil, Set.of());
+        intense = saveRecipe("Repair Intense " + suffix, 900, oil, Set.of(EmployeeSkill.HIGH_HEAT));
+        schedule = scheduleRepository.save(DailySchedule.builder().date(date).build());
+    }
+    
+    @Test
+    void testHandsSlotsWithinTheAbsenceToQualifiedColleagues() {
+        // Arrange
+        InfusionSlot beforeAbsence = saveSlot(0, classic, absent, LocalTime.of(10, 0));
+        InfusionSlot open = saveSlot(0, classic, absent, LocalTime.of(12, 0));
+        InfusionSlot hot = saveSlot(1, intense, absent, LocalTime.of(12, 10));
+        
+        // Act
+        long started = System.nanoTime();
+        AbsenceRepairDTO result = repairService.repair(date, absent.getId(), LocalTime.of(11, 0), null, false);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        
+        // Assert
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, "Repaired in " + elapsed);
+        assertTrue(result.getApplied());
+        assertTrue(result.getUnresolved().isEmpty());
+        Map<Long, AbsenceRepairDTO.Reassignment> reassignments = bySlot(result);
+        assertEquals(2, reassignments.size());
+        assertEquals(heatMaster.getId(), reassignments.get(hot.getId()).getEmployeeId(), "Only one with HIGH_HEAT");
+        assertEquals(helper.getId(), reassignments.get(open.getId()).getEmployeeId(), "Heat master is busy at 12:10");
+        assertEquals(absent.getId(), reassignments.get(open.getId()).getPreviousEmployeeId());
+        
+        assertEquals(absent.getId(), employeeOf(beforeAbsence), "Before the absence");
+        assertEquals(helper.getId(), employeeOf(open));
+        assertEquals(heatMaster.getId(), employeeOf(hot));
+        ScheduleConflictIndex index = validatorService.indexFor(date);
+        assertEquals(1, index.countForEmployee(absent.getId()));
+        assertEquals(1, index.countForEmployee(helper.getId()));
+        assertEquals(1, index.countForEmployee(heatMaster.getId()));
+    }
+    
+    @Test
+    void testFreesTheOnlyQualifiedColleagueByPassingOnTheirSlot() {
+        // Arrange
+        InfusionSlot hot = saveSlot(0, intense, absent, LocalTime.of(12, 0));
+        InfusionSlot heatMastersOwn = saveSlot(1, classic, heatMaster, LocalTime.of(12, 0));
+        
+        // Act
+        AbsenceRepairDTO result = repairService.repair(date, absent.getId(), null, null, false);
+        
+        // Assert
+        assertTrue(result.getUnresolved().isEmpty());
+        Map<Long, AbsenceRepairDTO.Reassignment> reassignments = bySlot(result);
+        assertEquals(2, reassignments.size(), "The slot and the one passed on");
+        assertEquals(heatMaster.getId(), reassignments.get(hot.getId()).getEmployeeId());
+        assertEquals(helper.getId(), reassignments.get(heatMastersOwn.getId()).getEmployeeId());
+        assertEquals(heatMaster.getId(), reassignments.get(heatMastersOwn.getId()).getPreviousEmployeeId());
+        assertEquals(heatMaster.getId(), employeeOf(hot));
+        assertEquals(helper.getId(), employeeOf(heatMastersOwn));
+        ScheduleConflictIndex index = validatorService.indexFor(date);
+        int noon = LocalTime.of(12, 0).toSecondOfDay();
+        assertEquals(List.of(hot.getId()), index.findEmployeeOverlaps(heatMaster.getId(), noon, noon + 1200).stream()
+                .map(ScheduleConflictIndex.Booking::slotId)
+                .toList(), "The heat master no longer overlaps their own slot");
+    }
+    
+    @Test
+    void testDryRunReportsSlotsNobodyCanTakeWithoutSavingAnything() {
+        // Arrange
+        InfusionSlot hot = saveSlot(0, intense, absent, LocalTime.of(12, 0));
+        // The heat master's own slot needs HIGH_HEAT as well, so nobody can take it over
+        saveSlot(1, intense, heatMaster, LocalTime.of(12, 0));
+        InfusionSlot open = saveSlot(2, classic, absent, LocalTime.of(14, 0));
+        
+        // Act
+        AbsenceRepairDTO result = repairService.repair(date, absent.getId(), null, null, true);
+        
+        // Assert
+        assertFalse(result.getApplied());
+        assertEquals(List.of(open.getId()), List.copyOf(bySlot(result).keySet()));
+        assertEquals(helper.getId(), bySlot(result).get(open.getId()).getEmployeeId());
+        assertEquals(1, result.getUnresolved().size());
+        assertEquals(hot.getId(), result.getUnresolved().get(0).getId());
+        assertEquals(absent.getId(), employeeOf(open), "Dry runs save nothing");
+        assertEquals(2, validatorService.indexFor(date).countForEmployee(absent.getId()));
+    }
+    
+    @Test
+    void testRejectsAnAbsenceEndingBeforeItStarts() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> repairService.repair(
+                date, absent.getId(), LocalTime.of(14, 0), LocalTime.of(12, 0), false));
+    }
+    
+    private Employee saveEmployee(String firstName, String suffix, Set<EmployeeSkill> skills) {
+        return employeeRepository.save(Employee.builder()
+                .firstName(firstName)
+                .lastName(suffix)
+                .certificationLevel(3)
+                .dailyMaxInfusions(5)
+                .skills(skills)
+                .active(true)
+                .build());
+    }
+    
+    private InfusionRecipe saveRecipe(String name, int durationSeconds, Ingredient ingredient, Set<EmployeeSkill> skills) {
+        InfusionRecipe recipe = InfusionRecipe.builder()
+                .name(name)
+                .requiredSkills(skills)
+                .build();
+        recipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(durationSeconds)
+                .heatIntensity(5)
+                .scentDosageMl(10)
+                .ingredient(ingredient)
+                .build());
+        return recipeRepository.save(recipe);
+    }
+    
+    private InfusionSlot saveSlot(int room, InfusionRecipe recipe, Employee employee, LocalTime start) {
+        return slotRepository.save(InfusionSlot.builder()
+                .schedule(schedule)
+                .room(rooms.get(room))
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(start)
+                .confirmed(false)
+                .cancelled(false)
+                .build());
+    }
+    
+    private Long employeeOf(InfusionSlot slot) {
+        return inTransaction(() -> slotRepository.findById(slot.getId()).orElseThrow().getEmployee().getId());
+    }
+    
+    private static Map<Long, AbsenceRepairDTO.Reassignment> bySlot(AbsenceRepairDTO result) {
+        return result.getReassignments().stream()
+                .collect(Collectors.toMap(AbsenceRepairDTO.Reassignment::getSlotId, reassignment -> reassignment));
+    }
+    
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
@@ -0,0 +1,189 @@
+package com.thermaflow.service;
+
+import com.thermaflow.controller.RecipeController;
+import com.thermaflow.dto.InfusionRecipeDTO;
+import com.thermaflow.dto.InfusionStepDTO;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for batched inserts: keys come from pooled sequences,
+ * so the rows of a recipe import or a bulk slot import are sent in JDBC batches.
+ */
+@SpringBootTest
+class BatchInsertTest {
+    
+    private static final int STEPS = 40;
+    private static final int SLOTS = 40;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private RecipeController recipeController;
+    
+    @Autowired
+    private InfusionSlotService slotService;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private SaunaRoomRepository roomRepository;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private DailyScheduleRepository scheduleRepository;
+    
+    private JdbcCounter jdbc;
+    private String suffix;
+    
+    /**
+     * Counts the JDBC work of one session, unaffected by background tasks in other sessions.
+     */
+    private static class JdbcCounter extends BaseSessionEventListener {
+        int statements;
+        int batches;
+        
+        @Override
+        public void jdbcPrepareStatementEnd() {
+            statements++;
+        }
+        
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            batches++;
+        }
+    }
+    
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString();
+        jdbc = new JdbcCounter();
+    }
+    
+    @Test
+    void testRecipeWithManyStepsIsInsertedInBatches() {
+        // Arrange
+        Ingredient ingredient = ingredientRepository.save(Ingredient.builder()
+                .name("Batch Oil " + suffix)
+                .viscosity(20)
+                .scentProfile(ScentProfile.CITRUS)
+                .stockLevel(1000)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build());
+        InfusionRecipeDTO recipeDTO = new InfusionRecipeDTO();
+        recipeDTO.setName("Batch Recipe " + suffix);
+        recipeDTO.setSteps(IntStream.range(0, STEPS)
+                .mapToObj(i -> {
+                    InfusionStepDTO step = new InfusionStepDTO();
+                    step.setName("Round " + i);
+                    step.setDurationSeconds(60);
+                    step.setHeatIntensity(1 + i % 10);
+                    step.setScentDosageMl(10);
+                    step.setIngredientId(ingredient.getId());
+                    return step;
+                })
+                .toList());
+        
+        // Act
+        InfusionRecipeDTO created = counted(() -> recipeController.createRecipe(recipeDTO));
+        
+        // Assert
+        assertEquals(STEPS, created.getSteps().size());
+        assertEquals(STEPS * 60, created.getTotalDuration());
+        assertTrue(jdbc.statements <= 5, "Ingredients, sequences, recipe and steps, was " + jdbc.statements);
+        assertEquals(2, jdbc.batches, "One batch for the recipe, one for all steps");
+        List<InfusionStep> steps = recipeRepository.findAllWithStepsByIdIn(Set.of(created.getId())).get(0).getSteps();
+        assertEquals(STEPS, steps.size());
+        assertEquals(STEPS - 1, steps.get(STEPS - 1).getStepOrder());
+        assertEquals(ingredient.getId(), steps.get(0).getIngredient().getId());
+    }
+    
+    @Test
+    void testBulkSlotImportIsInsertedInBatches() {
+        // Arrange
+        SaunaRoom room = roomRepository.save(SaunaRoom.builder()
+                .name("Batch Room " + suffix)
+                .capacity(20)
+                .type(SaunaType.FINNISH)
+                .hasSoundSystem(false)
+                .requiredCoolDownMin(0)
+                .build());
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Batch")
+                .lastName(suffix)
+                .certificationLevel(3)
+                .dailyMaxInfusions(SLOTS)
+                .active(true)
+                .build());
+        InfusionRecipe recipe = InfusionRecipe.builder().name("Batch Slot Recipe " + suffix).build();
+        recipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(600)
+                .heatIntensity(5)
+                .scentDosageMl(0)
+                .build());
+        recipe = recipeRepository.save(recipe);
+        // A far-away date keeps these slots out of today's signage
+        LocalDate date = LocalDate.of(2099, 1, 1).plusDays(Math.floorMod(suffix.hashCode(), 3000));
+        DailySchedule schedule = scheduleRepository.save(DailySchedule.builder().date(date).build());
+        List<InfusionSlot> slots = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(InfusionSlot.builder()
+                    .schedule(schedule)
+                    .room(room)
+                    .recipe(recipe)
+                    .employee(employee)
+                    .startTime(LocalTime.of(0, 0).plusMinutes(i * 20L))
+                    .confirmed(false)
+                    .cancelled(false)
+                    .build());
+        }
+        
+        // Act
+        List<InfusionSlot> created = counted(() -> slotService.createAndConfirmSlots(slots));
+        
+        // Assert
+        assertEquals(SLOTS, created.size());
+        assertTrue(created.stream().allMatch(slot -> slot.getId() != null));
+        assertTrue(jdbc.statements < 10, "Validation queries, sequence and slots, was " + jdbc.statements);
+        assertEquals(1, jdbc.batches, "One batch for all slots");
+    }
+    
+    private <T> T counted(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            entityManager.unwrap(Session.class).addEventListeners(jdbc);
+            return work.get();
+        });
+    }
+}
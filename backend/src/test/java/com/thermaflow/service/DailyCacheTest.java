@@ -0,0 +1,137 @@
+package com.thermaflow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DailyCache
+ */
+class DailyCacheTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+    
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange
+        DailyCache<String> cache = new DailyCache<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(MONDAY, date -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "snapshot";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        
+        // Act
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get(MONDAY, date -> {
+            loads.incrementAndGet();
+            return "duplicate";
+        }));
+        assertNull(cache.getIfLoaded(MONDAY), "Still loading");
+        release.countDown();
+        
+        // Assert
+        assertEquals("snapshot", first.get(5, TimeUnit.SECONDS));
+        assertEquals("snapshot", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals("snapshot", cache.getIfLoaded(MONDAY));
+    }
+    
+    @Test
+    void testInvalidationDuringLoadDiscardsTheLoadedValue() throws Exception {
+        // Arrange
+        DailyCache<String> cache = new DailyCache<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get(MONDAY, date -> {
+            loading.countDown();
+            await(release);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        
+        // Act
+        cache.invalidate(MONDAY);
+        release.countDown();
+        
+        // Assert
+        assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getIfLoaded(MONDAY));
+        assertEquals("fresh", cache.get(MONDAY, date -> "fresh"));
+    }
+    
+    @Test
+    void testLoadOverlappingAPendingChangeIsNotCached() throws Exception {
+        // Arrange - a change of the day is flushed but not committed
+        DailyCache<String> cache = new DailyCache<>();
+        cache.beginChange(MONDAY);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get(MONDAY, date -> {
+            loading.countDown();
+            await(release);
+            return "without change";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        
+        // Act
+        cache.endChange(MONDAY);
+        release.countDown();
+        
+        // Assert
+        assertEquals("without change", stale.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getIfLoaded(MONDAY));
+        assertEquals("with change", cache.get(MONDAY, date -> "with change"));
+        assertEquals("with change", cache.getIfLoaded(MONDAY));
+    }
+    
+    @Test
+    void testPreloadedValueIsNotCachedIfTheDayChangedMeanwhile() {
+        // Arrange
+        DailyCache<String> cache = new DailyCache<>();
+        long stamp = cache.changeStamp(MONDAY);
+        
+        // Act
+        cache.beginChange(MONDAY);
+        cache.putIfAbsent(MONDAY, "without change", stamp);
+        
+        // Assert
+        assertFalse(cache.contains(MONDAY));
+        cache.endChange(MONDAY);
+        cache.putIfAbsent(MONDAY, "with change", cache.changeStamp(MONDAY));
+        assertEquals("with change", cache.getIfLoaded(MONDAY));
+    }
+    
+    @Test
+    void testFailedLoadIsRetried() {
+        // Arrange
+        DailyCache<String> cache = new DailyCache<>();
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> cache.get(MONDAY, date -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertFalse(cache.contains(MONDAY));
+        assertEquals("snapshot", cache.get(MONDAY, date -> "snapshot"));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.EmployeeSkill;
+import com.thermaflow.model.ShiftPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DayPlanSolver
+ */
+class DayPlanSolverTest {
+    
+    private static final int ROOMS = 20;
+    private static final int SLOTS_PER_ROOM = 10;
+    private static final int RECIPES = 12;
+    private static final int EMPLOYEES = 30;
+    private static final int INGREDIENTS = 6;
+    private static final int COOL_DOWN_SECONDS = 600;
+    private static final int CLOSING_SECOND = 22 * 3600;
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testPlansABusyDayWithoutViolationsWithinSeconds() {
+        // Arrange
+        List<DayPlanSolver.Room> rooms = new ArrayList<>();
+        List<DayPlanSolver.Slot> slots = new ArrayList<>();
+        for (int room = 0; room < ROOMS; room++) {
+            // Room 0 is booked at noon, so its 12:00 slot cannot be planned
+            rooms.add(new DayPlanSolver.Room(COOL_DOWN_SECONDS, room == 0
+                    ? List.of(new DayPlanSolver.Interval(12 * 3600, 12 * 3600 + 40 * 60))
+                    : List.of()));
+            for (int i = 0; i < SLOTS_PER_ROOM; i++) {
+                slots.add(new DayPlanSolver.Slot(room, (10 + i) * 3600 + (room % 3) * 20 * 60));
+            }
+        }
+        List<DayPlanSolver.Recipe> recipes = new ArrayList<>();
+        for (int recipe = 0; recipe < RECIPES; recipe++) {
+            Set<EmployeeSkill> skills = recipe < 3 ? Set.of(EmployeeSkill.HIGH_HEAT)
+                    : recipe < 5 ? Set.of(EmployeeSkill.AROMATHERAPY)
+                    : Set.of();
+            recipes.add(new DayPlanSolver.Recipe(900 + (recipe % 4) * 300, skills,
+                    new int[]{recipe % INGREDIENTS, (recipe + 1) % INGREDIENTS}, new int[]{20, 20}));
+        }
+        List<DayPlanSolver.Employee> employees = new ArrayList<>();
+        for (int employee = 0; employee < EMPLOYEES; employee++) {
+            Set<EmployeeSkill> skills = EnumSet.of(EmployeeSkill.WENIK);
+            if (employee % 3 == 0) {
+                skills.add(EmployeeSkill.HIGH_HEAT);
+            }
+            if (employee % 4 == 0) {
+                skills.add(EmployeeSkill.AROMATHERAPY);
+            }
+            employees.add(new DayPlanSolver.Employee(skills, 9, EmployeeAvailability.of(List.of(employee % 2 == 0
+                    ? shift(LocalTime.of(9, 0), LocalTime.of(16, 30))
+                    : shift(LocalTime.of(14, 0), LocalTime.of(22, 0))))));
+        }
+        // Ingredient 5 suffices for five recipes only
+        int[] stock = {10_000, 10_000, 10_000, 10_000, 10_000, 100};
+        DayPlanSolver.Problem problem = new DayPlanSolver.Problem(rooms, recipes, employees, stock, slots, CLOSING_SECOND);
+        
+        // Act
+        long started = System.nanoTime();
+        DayPlanSolver.Plan plan = new DayPlanSolver(problem).solve(4, Duration.ofSeconds(3), executor, 42);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        
+        // Assert
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "Solved in " + elapsed);
+        assertTrue(plan.score().feasible());
+        assertEquals(1, plan.score().empty(), "Only the booked noon slot of room 0 stays open");
+        assertEquals(-1, plan.recipes()[2]);
+        assertNoViolations(problem, plan);
+    }
+    
+    @Test
+    void testLeavesSlotsOpenWhenStockRunsOut() {
+        // Arrange
+        List<DayPlanSolver.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            slots.add(new DayPlanSolver.Slot(0, (10 + i) * 3600));
+        }
+        DayPlanSolver.Problem problem = new DayPlanSolver.Problem(
+                List.of(new DayPlanSolver.Room(COOL_DOWN_SECONDS, List.of())),
+                List.of(new DayPlanSolver.Recipe(900, Set.of(), new int[]{0}, new int[]{50})),
+                List.of(new DayPlanSolver.Employee(Set.of(), 10, EmployeeAvailability.unrestricted())),
+                new int[]{120},
+                slots,
+                CLOSING_SECOND);
+        
+        // Act
+        DayPlanSolver.Plan plan = new DayPlanSolver(problem).solve(2, Duration.ofSeconds(1), executor, 7);
+        
+        // Assert
+        assertTrue(plan.score().feasible());
+        assertEquals(3, plan.score().empty(), "120 ml suffice for two infusions of 50 ml");
+        assertNoViolations(problem, plan);
+    }
+    
+    @Test
+    void testKeepsEachEmployeeWithinDailyMaximum() {
+        // Arrange
+        List<DayPlanSolver.Slot> slots = new ArrayList<>();
+        for (int room = 0; room < 2; room++) {
+            for (int i = 0; i < 6; i++) {
+                slots.add(new DayPlanSolver.Slot(room, (10 + i) * 3600 + room * 1800));
+            }
+        }
+        DayPlanSolver.Problem problem = new DayPlanSolver.Problem(
+                List.of(new DayPlanSolver.Room(COOL_DOWN_SECONDS, List.of()),
+                        new DayPlanSolver.Room(COOL_DOWN_SECONDS, List.of())),
+                List.of(new DayPlanSolver.Recipe(900, Set.of(), new int[0], new int[0])),
+                List.of(new DayPlanSolver.Employee(Set.of(), 4, EmployeeAvailability.unrestricted()),
+                        new DayPlanSolver.Employee(Set.of(), 5, EmployeeAvailability.unrestricted())),
+                new int[0],
+                slots,
+                CLOSING_SECOND);
+        
+        // Act
+        DayPlanSolver.Plan plan = new DayPlanSolver(problem).solve(2, Duration.ofSeconds(1), executor, 11);
+        
+        // Assert
+        assertEquals(3, plan.score().empty(), "Twelve slots, nine infusions allowed");
+        assertNoViolations(problem, plan);
+    }
+    
+    /**
+     * Checks every constraint of the problem directly on the plan.
+     */
+    private static void assertNoViolations(DayPlanSolver.Problem problem, DayPlanSolver.Plan plan) {
+        List<DayPlanSolver.Slot> slots = problem.slots();
+        int[] load = new int[problem.employees().size()];
+        int[] demand = new int[problem.stock().length];
+        for (int i = 0; i < slots.size(); i++) {
+            int recipeIndex = plan.recipes()[i];
+            if (recipeIndex < 0) {
+                assertEquals(-1, plan.employees()[i]);
+                continue;
+            }
+            DayPlanSolver.Recipe recipe = problem.recipes().get(recipeIndex);
+            DayPlanSolver.Employee employee = problem.employees().get(plan.employees()[i]);
+            DayPlanSolver.Room room = problem.rooms().get(slots.get(i).room());
+            int start = slots.get(i).startSecond();
+            int end = start + recipe.durationSeconds();
+            int coolDownEnd = end + room.coolDownSeconds();
+            
+            assertTrue(end <= problem.closingSecond(), "Slot " + i + " ends before closing");
+            assertTrue(employee.skills().containsAll(recipe.requiredSkills()), "Slot " + i + " skills");
+            assertTrue(employee.availability().covers(start, end), "Slot " + i + " within shift");
+            assertTrue(room.booked().stream()
+                    .noneMatch(booked -> booked.startSecond() < coolDownEnd && start < booked.endSecond()),
+                    "Slot " + i + " clear of the room's bookings");
+            load[plan.employees()[i]]++;
+            for (int k = 0; k < recipe.ingredients().length; k++) {
+                demand[recipe.ingredients()[k]] += recipe.amounts()[k];
+            }
+            
+            for (int j = i + 1; j < slots.size(); j++) {
+                if (plan.recipes()[j] < 0) {
+                    continue;
+                }
+                int otherStart = slots.get(j).startSecond();
+                int otherEnd = otherStart + problem.recipes().get(plan.recipes()[j]).durationSeconds();
+                if (slots.get(j).room() == slots.get(i).room()) {
+                    int otherCoolDownEnd = otherEnd + room.coolDownSeconds();
+                    assertFalse(start < otherCoolDownEnd && otherStart < coolDownEnd,
+                            "Slots " + i + " and " + j + " overlap in their room");
+                }
+                if (plan.employees()[j] == plan.employees()[i]) {
+                    assertFalse(start < otherEnd && otherStart < end,
+                            "Slots " + i + " and " + j + " overlap for their employee");
+                }
+            }
+        }
+        for (int employee = 0; employee < load.length; employee++) {
+            assertTrue(load[employee] <= problem.employees().get(employee).maxInfusions(), "Employee " + employee + " load");
+        }
+        for (int ingredient = 0; ingredient < demand.length; ingredient++) {
+            assertTrue(demand[ingredient] <= problem.stock()[ingredient], "Ingredient " + ingredient + " stock");
+        }
+    }
+    
+    private static ShiftPlan shift(LocalTime start, LocalTime end) {
+        return ShiftPlan.builder().startTime(start).endTime(end).build();
+    }
+}
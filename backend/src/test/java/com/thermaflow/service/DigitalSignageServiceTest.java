@@ -1,13 +1,19 @@
 package com.thermaflow.service;
 
 import com.thermaflow.dto.SignageDisplayDTO;
+import com.thermaflow.event.SlotChangedEvent;
 import com.thermaflow.model.*;
 import com.thermaflow.repository.InfusionSlotRepository;
+import com.thermaflow.repository.RecipeScentView;
+import com.thermaflow.repository.SignageSlotView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -19,6 +25,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +35,9 @@ class DigitalSignageServiceTest {
     @Mock
     private InfusionSlotRepository slotRepository;
     
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
     @InjectMocks
     private DigitalSignageService signageService;
     
@@ -129,8 +140,8 @@ class DigitalSignageServiceTest {
     @Test
     void testGetTodaySchedule() {
         // Arrange
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -147,8 +158,8 @@ class DigitalSignageServiceTest {
     void testGetScheduleForDate() {
         // Arrange
         LocalDate specificDate = LocalDate.of(2025, 12, 25);
-        when(slotRepository.findByScheduleDateAndNotCancelled(specificDate))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(specificDate))
+                .thenReturn(views(testSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getScheduleForDate(specificDate);
@@ -192,8 +203,8 @@ class DigitalSignageServiceTest {
                 .cancelled(false)
                 .build();
         
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(mildSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(mildSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -209,8 +220,8 @@ class DigitalSignageServiceTest {
     void testIntensityMapping_Mittel() {
         // testSlot has average intensity of (3 + 8 + 2) / 3 = 4.33
         // This should map to Mittel
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -256,8 +267,8 @@ class DigitalSignageServiceTest {
                 .cancelled(false)
                 .build();
         
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(intenseSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(intenseSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -272,8 +283,8 @@ class DigitalSignageServiceTest {
     @Test
     void testTimeFormatting() {
         // Arrange
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -289,8 +300,8 @@ class DigitalSignageServiceTest {
     @Test
     void testDurationFormatting() {
         // Arrange
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -305,8 +316,12 @@ class DigitalSignageServiceTest {
     @Test
     void testScentProfileExtraction() {
         // Arrange
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
+        when(slotRepository.findRecipeScentsByDate(any(LocalDate.class)))
+                .thenReturn(List.of(
+                        new RecipeScentView(testRecipe.getId(), ScentProfile.HERBAL),
+                        new RecipeScentView(99L, ScentProfile.CITRUS)));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getTodaySchedule();
@@ -322,8 +337,8 @@ class DigitalSignageServiceTest {
         // Arrange - slot runs from 14:00 to 14:20
         // We'll test at 14:10
         testSlot.setStartTime(LocalTime.now().minusMinutes(10));
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         Optional<SignageDisplayDTO> result = signageService.getCurrentInfusion();
@@ -337,8 +352,8 @@ class DigitalSignageServiceTest {
     void testGetCurrentInfusion_NotRunning() {
         // Arrange - slot will run in the future
         testSlot.setStartTime(LocalTime.now().plusHours(2));
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(List.of(testSlot));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(testSlot));
         
         // Act
         Optional<SignageDisplayDTO> result = signageService.getCurrentInfusion();
@@ -383,8 +398,8 @@ class DigitalSignageServiceTest {
                 .cancelled(false)
                 .build();
         
-        when(slotRepository.findByScheduleDateAndNotCancelled(any(LocalDate.class)))
-                .thenReturn(Arrays.asList(slot1, slot2, slot3));
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(slot1, slot2, slot3));
         
         // Act
         List<SignageDisplayDTO> result = signageService.getNextInfusions();
@@ -396,4 +411,84 @@ class DigitalSignageServiceTest {
         assertThat(result.get(1).getStartTime()).isNotNull();
         assertThat(result.get(2).getStartTime()).isNotNull();
     }
+    
+    @Test
+    void testSnapshotReusedUntilSlotChanges() {
+        // Arrange
+        LocalDate specificDate = LocalDate.of(2025, 12, 25);
+        when(slotRepository.findSignageViewsByDate(specificDate))
+                .thenReturn(views(testSlot));
+        
+        // Act - repeated reads are served from the snapshot
+        signageService.getScheduleForDate(specificDate);
+        signageService.getScheduleForDate(specificDate);
+        
+        // Assert
+        verify(slotRepository, times(1)).findSignageViewsByDate(specificDate);
+        
+        // Act - a slot change invalidates the day
+        signageService.onSlotChanged(new SlotChangedEvent(
+                specificDate, testSlot.getId(), SlotChangedEvent.ChangeType.CANCELLED));
+        signageService.getScheduleForDate(specificDate);
+        
+        // Assert
+        verify(slotRepository, times(2)).findSignageViewsByDate(specificDate);
+    }
+    
+    @Test
+    void testGetCurrentInfusion_PicksRunningSlotAmongOverlapping() {
+        // Arrange - a long slot started earlier and is still running,
+        // a short slot started later but has already ended
+        InfusionSlot longRunning = testSlot;
+        longRunning.setStartTime(LocalTime.now().minusMinutes(15));
+        
+        InfusionRecipe shortRecipe = InfusionRecipe.builder()
+                .id(4L)
+                .name("Quick Splash")
+                .steps(new ArrayList<>())
+                .build();
+        shortRecipe.getSteps().add(InfusionStep.builder()
+                .id(12L)
+                .name("Splash")
+                .durationSeconds(60)
+                .heatIntensity(4)
+                .scentDosageMl(5)
+                .recipe(shortRecipe)
+                .stepOrder(0)
+                .build());
+        
+        InfusionSlot finished = InfusionSlot.builder()
+                .id(4L)
+                .schedule(testSlot.getSchedule())
+                .room(testRoom)
+                .recipe(shortRecipe)
+                .employee(testEmployee)
+                .startTime(LocalTime.now().minusMinutes(10))
+                .confirmed(true)
+                .cancelled(false)
+                .build();
+        
+        when(slotRepository.findSignageViewsByDate(any(LocalDate.class)))
+                .thenReturn(views(finished, longRunning));
+        
+        // Act
+        Optional<SignageDisplayDTO> result = signageService.getCurrentInfusion();
+        
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(result.get().getRecipeName()).isEqualTo("Nordic Aurora");
+        assertThat(result.get().getIsCurrentlyRunning()).isTrue();
+    }
+    
+    /**
+     * Read models of the given slots as the signage query returns them.
+     */
+    private static List<SignageSlotView> views(InfusionSlot... slots) {
+        return Arrays.stream(slots)
+                .map(slot -> new SignageSlotView(slot.getId(), slot.getRoom().getName(), slot.getRecipe().getId(),
+                        slot.getRecipe().getName(), slot.getRecipe().getTheme(), slot.getStartTime(),
+                        (long) slot.getRecipe().getProfile().totalDurationSeconds(),
+                        slot.getRecipe().getProfile().averageHeatIntensity()))
+                .toList();
+    }
 }
@@ -0,0 +1,57 @@
+package com.thermaflow.service;
+
+import com.thermaflow.model.ShiftPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for EmployeeAvailability
+ */
+class EmployeeAvailabilityTest {
+    
+    @Test
+    void testCoversOnlyIntervalsWithinShifts() {
+        // Arrange
+        EmployeeAvailability availability = EmployeeAvailability.of(List.of(
+                shift(LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                shift(LocalTime.of(14, 0), LocalTime.of(18, 0))));
+        
+        // Act & Assert
+        assertTrue(availability.covers(seconds(9, 0), seconds(12, 0)));
+        assertTrue(availability.covers(seconds(14, 30), seconds(14, 55)));
+        assertFalse(availability.covers(seconds(11, 45), seconds(12, 10)), "Ends after the shift");
+        assertFalse(availability.covers(seconds(8, 59), seconds(9, 30)), "Starts before the shift");
+        assertFalse(availability.covers(seconds(11, 30), seconds(14, 30)), "Spans the break");
+    }
+    
+    @Test
+    void testShiftPastMidnightAndBookedTime() {
+        // Arrange
+        EmployeeAvailability availability = EmployeeAvailability.of(List.of(
+                shift(LocalTime.of(20, 0), LocalTime.of(1, 0))));
+        
+        // Act
+        EmployeeAvailability booked = availability.without(seconds(21, 0), seconds(21, 20) + 30);
+        
+        // Assert
+        assertTrue(availability.covers(seconds(23, 30), seconds(24, 30)));
+        assertFalse(availability.covers(seconds(24, 30), seconds(25, 30)));
+        assertFalse(booked.covers(seconds(21, 15), seconds(21, 30)));
+        assertFalse(booked.covers(seconds(21, 20), seconds(21, 40)), "The partly booked minute is taken");
+        assertTrue(booked.covers(seconds(21, 21), seconds(21, 40)));
+        assertTrue(availability.covers(seconds(21, 0), seconds(21, 20)), "Original is unchanged");
+        assertTrue(EmployeeAvailability.of(List.of()).covers(0, seconds(24, 0)));
+    }
+    
+    private static int seconds(int hours, int minutes) {
+        return hours * 3600 + minutes * 60;
+    }
+    
+    private static ShiftPlan shift(LocalTime start, LocalTime end) {
+        return ShiftPlan.builder().startTime(start).endTime(end).build();
+    }
+}
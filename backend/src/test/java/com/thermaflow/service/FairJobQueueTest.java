@@ -0,0 +1,75 @@
+package com.thermaflow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FairJobQueue
+ */
+class FairJobQueueTest {
+    
+    private static final int HIGH = 0;
+    private static final int NORMAL = 1;
+    
+    @Test
+    void testTenantsTakeTurnsWithinAPriority() {
+        // Arrange
+        FairJobQueue<String> queue = new FairJobQueue<>(2, 10, 10);
+        queue.offer("spa", NORMAL, "spa-1");
+        queue.offer("spa", NORMAL, "spa-2");
+        queue.offer("spa", NORMAL, "spa-3");
+        queue.offer("hotel", NORMAL, "hotel-1");
+        queue.offer("gym", NORMAL, "gym-1");
+        queue.offer("hotel", NORMAL, "hotel-2");
+        
+        // Act & Assert
+        assertEquals(3, queue.positionOf("spa-2"));
+        assertEquals(List.of("spa-1", "hotel-1", "gym-1", "spa-2", "hotel-2", "spa-3"), drain(queue));
+        assertTrue(queue.isEmpty());
+    }
+    
+    @Test
+    void testHigherPriorityIsServedFirst() {
+        // Arrange
+        FairJobQueue<String> queue = new FairJobQueue<>(2, 10, 10);
+        queue.offer("spa", NORMAL, "spa-normal");
+        queue.offer("hotel", HIGH, "hotel-high");
+        queue.offer("spa", HIGH, "spa-high");
+        
+        // Act & Assert
+        assertEquals(2, queue.positionOf("spa-normal"));
+        assertEquals(List.of("hotel-high", "spa-high", "spa-normal"), drain(queue));
+        assertEquals(-1, queue.positionOf("spa-normal"));
+    }
+    
+    @Test
+    void testCapacityAndTenantLimitAreEnforced() {
+        // Arrange
+        FairJobQueue<String> queue = new FairJobQueue<>(2, 3, 2);
+        
+        // Act & Assert
+        assertEquals(FairJobQueue.OfferResult.ACCEPTED, queue.offer("spa", NORMAL, "spa-1"));
+        assertEquals(FairJobQueue.OfferResult.ACCEPTED, queue.offer("spa", HIGH, "spa-2"));
+        assertEquals(FairJobQueue.OfferResult.TENANT_LIMIT, queue.offer("spa", NORMAL, "spa-3"),
+                "The limit applies across priorities");
+        assertEquals(FairJobQueue.OfferResult.ACCEPTED, queue.offer("hotel", NORMAL, "hotel-1"));
+        assertEquals(FairJobQueue.OfferResult.QUEUE_FULL, queue.offer("gym", NORMAL, "gym-1"));
+        
+        assertEquals("spa-2", queue.poll());
+        assertEquals(FairJobQueue.OfferResult.ACCEPTED, queue.offer("spa", NORMAL, "spa-3"),
+                "Taken items no longer count against the tenant");
+        assertEquals(3, queue.size());
+    }
+    
+    private List<String> drain(FairJobQueue<String> queue) {
+        List<String> items = new ArrayList<>();
+        for (String item = queue.poll(); item != null; item = queue.poll()) {
+            items.add(item);
+        }
+        return items;
+    }
+}
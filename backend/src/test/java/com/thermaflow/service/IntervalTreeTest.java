@@ -0,0 +1,64 @@
+package com.thermaflow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for IntervalTree
+ */
+class IntervalTreeTest {
+    
+    @Test
+    void testFindOverlappingUsesHalfOpenIntervals() {
+        // Arrange
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(100, 200, 1L, "a");
+        tree.insert(200, 300, 2L, "b");
+        tree.insert(50, 400, 3L, "c");
+        
+        // Act & Assert
+        assertEquals(List.of("c", "a"), tree.findOverlapping(150, 200));
+        assertEquals(List.of("c", "a", "b"), tree.findOverlapping(199, 201));
+        assertEquals(List.of(), tree.findOverlapping(400, 500));
+    }
+    
+    @Test
+    void testMatchesLinearScanAfterRandomInsertsAndRemoves() {
+        // Arrange
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        List<int[]> intervals = new ArrayList<>(); // {start, end, id}
+        
+        // Act
+        for (int id = 0; id < 2000; id++) {
+            int start = random.nextInt(86_400);
+            int end = start + 1 + random.nextInt(3_600);
+            tree.insert(start, end, id, (long) id);
+            intervals.add(new int[]{start, end, id});
+            
+            if (random.nextInt(3) == 0) {
+                int[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed[0], removed[2]));
+            }
+        }
+        
+        // Assert
+        assertEquals(intervals.size(), tree.size());
+        for (int query = 0; query < 500; query++) {
+            int from = random.nextInt(86_400);
+            int to = from + 1 + random.nextInt(1_800);
+            List<Long> expected = intervals.stream()
+                    .filter(interval -> interval[0] < to && from < interval[1])
+                    .sorted((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[2], b[2]))
+                    .map(interval -> (long) interval[2])
+                    .toList();
+            assertEquals(expected, tree.findOverlapping(from, to));
+        }
+        assertFalse(tree.remove(-1, -1L));
+    }
+}
@@ -0,0 +1,280 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.Conflict;
+import com.thermaflow.dto.InventoryMovementDTO;
+import com.thermaflow.dto.InventoryMovementDTO.MovementKind;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for inventory deduction under concurrent confirmations and for the inventory ledger.
+ */
+@SpringBootTest
+class InventoryConcurrencyTest {
+    
+    private static final int INITIAL_STOCK = 1000;
+    private static final int DOSAGE_ML = 30;
+    
+    @Autowired
+    private InfusionSlotService slotService;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private DailyScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private InfusionSlotRepository slotRepository;
+    
+    @Autowired
+    private SaunaRoomRepository roomRepository;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private InventoryLedgerService ledgerService;
+    
+    @Autowired
+    private IngredientService ingredientService;
+    
+    @Autowired
+    private ScheduleValidatorService validatorService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Ingredient ingredient;
+    private InfusionRecipe recipe;
+    private DailySchedule schedule;
+    
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        ingredient = ingredientRepository.save(Ingredient.builder()
+                .name("Stress Oil " + suffix)
+                .viscosity(20)
+                .scentProfile(ScentProfile.HERBAL)
+                .stockLevel(INITIAL_STOCK)
+                .costPerMl(BigDecimal.valueOf(0.10))
+                .build());
+        ledgerService.recordAdjustment(ingredient.getId(), INITIAL_STOCK);
+        
+        recipe = InfusionRecipe.builder()
+                .name("Stress Recipe " + suffix)
+                .build();
+        recipe.addStep(InfusionStep.builder()
+                .name("Round 1")
+                .durationSeconds(300)
+                .heatIntensity(5)
+                .scentDosageMl(DOSAGE_ML)
+                .ingredient(ingredient)
+                .build());
+        recipe = recipeRepository.save(recipe);
+        
+        // A far-away date keeps these slots out of today's signage
+        LocalDate date = LocalDate.of(2099, 1, 1).plusDays(Math.floorMod(suffix.hashCode(), 3000));
+        schedule = scheduleRepository.save(DailySchedule.builder().date(date).build());
+    }
+    
+    @Test
+    void testConcurrentConfirmationsNeverOversellStock() throws Exception {
+        // Arrange: more slots than the stock can serve
+        int slotCount = 40;
+        List<Long> slotIds = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++) {
+            slotIds.add(slotRepository.save(slot(LocalTime.of(6, 0).plusMinutes(i * 20L), false)).getId());
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long slotId : slotIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    slotService.confirmSlot(slotId);
+                    confirmed.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        
+        // Assert
+        int expectedConfirmed = INITIAL_STOCK / DOSAGE_ML;
+        assertEquals(expectedConfirmed, confirmed.get());
+        assertEquals(slotCount - expectedConfirmed, rejected.get());
+        int expectedStock = INITIAL_STOCK - expectedConfirmed * DOSAGE_ML;
+        assertEquals(expectedStock, ingredientRepository.findById(ingredient.getId()).orElseThrow().getStockLevel());
+        assertEquals(expectedStock, ledgerService.getLedgerStockLevel(ingredient.getId()));
+    }
+    
+    @Test
+    void testBatchCreationIsAllOrNothing() {
+        // Arrange: each slot fits, together they exceed the stock
+        int slotCount = INITIAL_STOCK / DOSAGE_ML + 1;
+        List<InfusionSlot> slots = new ArrayList<>();
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(slot(LocalTime.of(6, 0).plusMinutes(i * 20L), true));
+        }
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> slotService.createAndConfirmSlots(slots));
+        assertEquals(INITIAL_STOCK, ingredientRepository.findById(ingredient.getId()).orElseThrow().getStockLevel());
+        assertTrue(slotRepository.findByScheduleDateAndNotCancelled(schedule.getDate()).isEmpty());
+    }
+    
+    @Test
+    void testRejectedBatchDoesNotCreateTheSchedule() {
+        // Arrange: a day without a schedule yet
+        DailySchedule unsaved = DailySchedule.builder().date(schedule.getDate().plusYears(100)).build();
+        List<InfusionSlot> slots = new ArrayList<>();
+        for (int i = 0; i < INITIAL_STOCK / DOSAGE_ML + 1; i++) {
+            InfusionSlot slot = slot(LocalTime.of(6, 0).plusMinutes(i * 20L), true);
+            slot.setSchedule(unsaved);
+            slots.add(slot);
+        }
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> slotService.createAndConfirmSlots(slots));
+        assertTrue(scheduleRepository.findByDate(unsaved.getDate()).isEmpty());
+    }
+    
+    @Test
+    void testConfirmingASlotDoesNotConflictWithItself() {
+        // Arrange - the saved slot is already part of the day's conflict index
+        Long slotId = slotRepository.save(slot(LocalTime.of(6, 0), false)).getId();
+        slotService.createAndConfirmSlots(List.of(slot(LocalTime.of(8, 0), false)));
+        double conflictsBefore = conflictCount();
+        
+        // Act
+        InfusionSlot confirmed = slotService.confirmSlot(slotId);
+        
+        // Assert
+        assertTrue(confirmed.getConfirmed());
+        assertEquals(conflictsBefore, conflictCount(), "No conflicts counted for the slot itself");
+    }
+    
+    @Test
+    void testValidatingADetachedSlotLoadsItsSkills() {
+        // Arrange - loaded outside a transaction, so the skill sets are not initialized
+        recipe.getRequiredSkills().add(EmployeeSkill.WENIK);
+        recipe = recipeRepository.save(recipe);
+        slotRepository.save(slot(LocalTime.of(6, 0), false));
+        InfusionSlot detached = slotRepository
+                .findByScheduleDateBetweenAndNotCancelled(schedule.getDate(), schedule.getDate()).get(0);
+        
+        // Act
+        List<Conflict> conflicts = assertDoesNotThrow(() -> validatorService.validate(detached));
+        
+        // Assert
+        boolean qualified = employeeRepository.findActiveWithSkills().stream()
+                .filter(employee -> employee.getId().equals(detached.getEmployee().getId()))
+                .anyMatch(employee -> employee.hasSkill(EmployeeSkill.WENIK));
+        assertEquals(!qualified, conflicts.stream()
+                .anyMatch(conflict -> conflict.getType() == Conflict.ConflictType.EMPLOYEE_SKILL_MISSING));
+    }
+    
+    @Test
+    void testStockUpdateIsAppliedAsLedgerAdjustment() {
+        // Arrange - the edited copy was read before a slot deducted from the stock
+        Ingredient edited = ingredientRepository.findById(ingredient.getId()).orElseThrow();
+        slotService.confirmSlot(slotRepository.save(slot(LocalTime.of(6, 0), false)).getId());
+        edited.setDescription("Restocked");
+        edited.setStockLevel(INITIAL_STOCK + 500);
+        
+        // Act
+        Ingredient updated = ingredientService.updateIngredient(ingredient.getId(), edited).orElseThrow();
+        
+        // Assert
+        assertEquals(INITIAL_STOCK + 500, updated.getStockLevel());
+        assertEquals("Restocked", updated.getDescription());
+        assertEquals(INITIAL_STOCK + 500, ledgerService.getLedgerStockLevel(ingredient.getId()));
+        assertEquals(List.of(MovementKind.ADJUSTMENT, MovementKind.DEDUCTION, MovementKind.ADJUSTMENT),
+                ledgerService.getMovements(ingredient.getId(), 10).stream().map(InventoryMovementDTO::getKind).toList());
+        
+        edited.setName("Renamed");
+        edited.setStockLevel(-1);
+        assertThrows(IllegalStateException.class, () -> ingredientService.updateIngredient(ingredient.getId(), edited));
+        Ingredient unchanged = ingredientRepository.findById(ingredient.getId()).orElseThrow();
+        assertEquals(INITIAL_STOCK + 500, unchanged.getStockLevel());
+        assertEquals(ingredient.getName(), unchanged.getName(), "The whole update is rolled back");
+    }
+    
+    @Test
+    void testCancellationRestoresOnceAndCompactionKeepsLedgerStock() {
+        // Arrange
+        Long slotId = slotRepository.save(slot(LocalTime.of(6, 0), false)).getId();
+        slotService.confirmSlot(slotId);
+        
+        // Act
+        slotService.cancelSlot(slotId, true);
+        slotService.cancelSlot(slotId, true);
+        int snapshots = ledgerService.compactBefore(LocalDateTime.now().plusSeconds(1));
+        
+        // Assert
+        List<InventoryMovementDTO> movements = ledgerService.getMovements(ingredient.getId(), 10);
+        assertEquals(List.of(MovementKind.RESTORE, MovementKind.DEDUCTION, MovementKind.ADJUSTMENT),
+                movements.stream().map(InventoryMovementDTO::getKind).toList());
+        assertEquals(List.of(DOSAGE_ML, -DOSAGE_ML, INITIAL_STOCK),
+                movements.stream().map(InventoryMovementDTO::getDelta).toList());
+        assertTrue(snapshots > 0);
+        assertEquals(INITIAL_STOCK, ingredientRepository.findById(ingredient.getId()).orElseThrow().getStockLevel());
+        assertEquals(INITIAL_STOCK, ledgerService.getLedgerStockLevel(ingredient.getId()));
+    }
+    
+    private double conflictCount() {
+        return meterRegistry.find("thermaflow.validation.conflicts").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+    
+    private InfusionSlot slot(LocalTime startTime, boolean confirmed) {
+        return InfusionSlot.builder()
+                .schedule(schedule)
+                .room(roomRepository.findAll().get(0))
+                .recipe(recipe)
+                .employee(employeeRepository.findAll().get(0))
+                .startTime(startTime)
+                .confirmed(confirmed)
+                .cancelled(false)
+                .build();
+    }
+}
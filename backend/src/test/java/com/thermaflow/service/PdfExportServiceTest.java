@@ -0,0 +1,151 @@
+package com.thermaflow.service;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.thermaflow.event.SlotChangedEvent;
+import com.thermaflow.model.DailySchedule;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for PdfExportService
+ */
+class PdfExportServiceTest {
+    
+    private static final LocalDate DATE = LocalDate.of(2024, 1, 15);
+    
+    @TempDir
+    Path cacheDirectory;
+    
+    private final DailyScheduleRepository scheduleRepository = mock(DailyScheduleRepository.class);
+    
+    private SchedulePdfCache pdfCache;
+    private PdfExportService pdfExportService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfCache = new SchedulePdfCache(cacheDirectory, 16);
+        pdfExportService = new PdfExportService(
+                scheduleRepository, mock(InfusionRecipeRepository.class), pdfCache,
+                mock(PlatformTransactionManager.class), Runnable::run, new SimpleMeterRegistry());
+    }
+    
+    @Test
+    void testWriteDailySchedulePdfStreamsAllRowsInChunks() throws Exception {
+        // Arrange: more rows than fit into one chunk or on one page
+        List<PdfExportService.ScheduleRow> rows = IntStream.range(0, 180)
+                .mapToObj(i -> new PdfExportService.ScheduleRow(
+                        "10:00 - 10:15", "Room " + i, "Theme " + i, 5.0, "CITRUS"))
+                .toList();
+        TrackingOutputStream out = new TrackingOutputStream();
+        
+        // Act
+        pdfExportService.writeDailySchedulePdf(DATE, rows, out);
+        
+        // Assert
+        assertFalse(out.closed, "The caller's stream must stay open");
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            int pages = reader.getNumberOfPages();
+            assertTrue(pages > 1, "Rows should continue across pages");
+            
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            assertTrue(extractor.getTextFromPage(1).contains("Room 0"));
+            assertTrue(extractor.getTextFromPage(pages).contains("Room 179"));
+            assertTrue(extractor.getTextFromPage(pages).contains("Time"), "Header should repeat on every page");
+        } finally {
+            reader.close();
+        }
+    }
+    
+    @Test
+    void testCachedPdfIsServedAgainForTheSameVersion() throws Exception {
+        // Arrange
+        List<PdfExportService.ScheduleRow> rows = List.of(
+                new PdfExportService.ScheduleRow("10:00 - 10:15", "Finnish Sauna", "Nordic", 5.0, "WOODY"));
+        String version = pdfExportService.scheduleVersion(DATE, rows);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        
+        // Act
+        pdfExportService.writeCachedDailySchedulePdf(DATE, rows, version, first);
+        pdfExportService.writeCachedDailySchedulePdf(DATE, rows, version, second);
+        
+        // Assert
+        assertTrue(pdfCache.contains(version));
+        assertArrayEquals(first.toByteArray(), second.toByteArray(), "Second download should come from the cache");
+        assertEquals(version, pdfExportService.scheduleVersion(DATE, List.copyOf(rows)));
+        assertNotEquals(version, pdfExportService.scheduleVersion(DATE.plusDays(1), rows));
+        assertNotEquals(version, pdfExportService.scheduleVersion(DATE, List.of(
+                new PdfExportService.ScheduleRow("10:00 - 10:15", "Bio Sauna", "Nordic", 5.0, "WOODY"))));
+    }
+    
+    @Test
+    void testOnlyPublishedSchedulesArePrerendered() {
+        // Arrange
+        DailySchedule published = DailySchedule.builder().date(DATE.plusDays(1)).published(true).build();
+        when(scheduleRepository.existsByDateAndPublishedTrue(DATE)).thenReturn(false);
+        when(scheduleRepository.existsByDateAndPublishedTrue(DATE.plusDays(1))).thenReturn(true);
+        when(scheduleRepository.findByDateWithSlots(DATE.plusDays(1))).thenReturn(Optional.of(published));
+        
+        // Act
+        pdfExportService.prerenderDailySchedulePdf(DATE).join();
+        pdfExportService.prerenderDailySchedulePdf(DATE.plusDays(1)).join();
+        
+        // Assert
+        verify(scheduleRepository, never()).findByDateWithSlots(DATE);
+        assertFalse(pdfCache.contains(pdfExportService.scheduleVersion(DATE, List.of())));
+        assertTrue(pdfCache.contains(pdfExportService.scheduleVersion(DATE.plusDays(1), List.of())));
+    }
+    
+    @Test
+    void testPrerendersOfADayAreCoalesced() {
+        // Arrange - an executor that only queues, so pre-renders stay pending
+        List<Runnable> queued = new ArrayList<>();
+        PdfExportService queuingService = new PdfExportService(
+                scheduleRepository, mock(InfusionRecipeRepository.class), pdfCache,
+                mock(PlatformTransactionManager.class), queued::add, new SimpleMeterRegistry());
+        when(scheduleRepository.existsByDateAndPublishedTrue(DATE)).thenReturn(true);
+        when(scheduleRepository.findByDateWithSlots(DATE))
+                .thenReturn(Optional.of(DailySchedule.builder().date(DATE).published(true).build()));
+        
+        // Act
+        for (long slotId = 1; slotId <= 5; slotId++) {
+            queuingService.onSlotChanged(new SlotChangedEvent(DATE, slotId, SlotChangedEvent.ChangeType.CREATED));
+        }
+        
+        // Assert
+        assertEquals(1, queued.size(), "One pre-render for the whole batch");
+        verifyNoInteractions(scheduleRepository);
+        queued.remove(0).run();
+        assertTrue(pdfCache.contains(queuingService.scheduleVersion(DATE, List.of())));
+        queuingService.onSlotChanged(new SlotChangedEvent(DATE, 6L, SlotChangedEvent.ChangeType.CANCELLED));
+        assertEquals(1, queued.size(), "A change after the pre-render started queues another");
+    }
+    
+    private static class TrackingOutputStream extends ByteArrayOutputStream {
+        
+        private boolean closed;
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.ScheduleExportJobDTO;
+import com.thermaflow.dto.ScheduleExportJobDTO.ExportFormat;
+import com.thermaflow.dto.ScheduleExportJobDTO.JobPriority;
+import com.thermaflow.dto.ScheduleExportJobDTO.JobStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ScheduleExportJobService
+ */
+class ScheduleExportJobServiceTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+    private static final List<ScheduleExportService.DayExport> DAYS =
+            List.of(new ScheduleExportService.DayExport(MONDAY, List.of(), "v1"));
+    
+    private final ScheduleExportService exportService = mock(ScheduleExportService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch exportStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseExport = new CountDownLatch(1);
+    
+    private ScheduleExportJobService jobService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        // One worker, one queued job in total
+        jobService = new ScheduleExportJobService(exportService, meterRegistry, 1, 1, 1);
+        when(exportService.prepare(MONDAY, MONDAY, List.of())).thenReturn(DAYS);
+        
+        doAnswer(invocation -> {
+            exportStarted.countDown();
+            releaseExport.await(5, TimeUnit.SECONDS);
+            invocation.<OutputStream>getArgument(2).write("%PDF".getBytes());
+            return null;
+        }).when(exportService).export(eq(DAYS), eq(ExportFormat.MERGED), any(), any());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        releaseExport.countDown();
+        jobService.shutdown();
+    }
+    
+    @Test
+    void testSubmissionsBeyondTheQueueAreRejectedWithRetryAfter() throws Exception {
+        // Arrange
+        ScheduleExportJobDTO running = submit("spa");
+        assertTrue(exportStarted.await(5, TimeUnit.SECONDS));
+        ScheduleExportJobDTO queued = submit("hotel");
+        
+        // Act
+        ScheduleExportJobService.QueueFullException rejected = assertThrows(
+                ScheduleExportJobService.QueueFullException.class, () -> submit("gym"));
+        
+        // Assert
+        assertEquals(Duration.ofSeconds(10), rejected.getRetryAfter(), "No job has finished yet");
+        assertEquals(JobStatus.RUNNING, jobService.getJob(running.getId()).orElseThrow().getStatus());
+        assertEquals(JobStatus.QUEUED, queued.getStatus());
+        assertEquals(0, queued.getQueuePosition());
+        assertNull(queued.getTotalDays(), "Schedules are loaded when the job runs");
+        verify(exportService, times(1)).prepare(any(), any(), any());
+        assertEquals(1, meterRegistry.get("thermaflow.export.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("thermaflow.export.jobs.rejected").tag("reason", "queue-full").counter().count());
+    }
+    
+    @Test
+    void testQueuedJobRunsWhenAWorkerIsFree() throws Exception {
+        // Arrange
+        ScheduleExportJobDTO first = submit("spa");
+        ScheduleExportJobDTO second = submit("spa");
+        
+        // Act
+        releaseExport.countDown();
+        ScheduleExportJobDTO finished = awaitFinished(second.getId());
+        
+        // Assert
+        assertEquals(JobStatus.COMPLETED, awaitFinished(first.getId()).getStatus());
+        assertEquals(JobStatus.COMPLETED, finished.getStatus());
+        assertNotNull(finished.getStartedAt());
+        assertEquals(1, finished.getTotalDays());
+        Path file = jobService.getJobFile(second.getId()).orElseThrow();
+        assertEquals("%PDF", Files.readString(file));
+        assertEquals(2, meterRegistry.get("thermaflow.export.job.run").tag("status", "completed").timer().count());
+        assertEquals(2, meterRegistry.get("thermaflow.export.job.wait").timer().count());
+    }
+    
+    private ScheduleExportJobDTO submit(String tenant) {
+        return jobService.submit(MONDAY, MONDAY, ExportFormat.MERGED, null, tenant, JobPriority.NORMAL);
+    }
+    
+    private ScheduleExportJobDTO awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            ScheduleExportJobDTO job = jobService.getJob(jobId).orElseThrow();
+            if (job.getStatus() == JobStatus.COMPLETED || job.getStatus() == JobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Job " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,157 @@
+package com.thermaflow.service;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import com.thermaflow.dto.ScheduleExportJobDTO.ExportFormat;
+import com.thermaflow.model.DailySchedule;
+import com.thermaflow.model.InfusionRecipe;
+import com.thermaflow.model.InfusionSlot;
+import com.thermaflow.model.InfusionStep;
+import com.thermaflow.model.SaunaRoom;
+import com.thermaflow.model.SaunaType;
+import com.thermaflow.repository.DailyScheduleRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ScheduleExportService
+ */
+class ScheduleExportServiceTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+    
+    @TempDir
+    Path cacheDirectory;
+    
+    private final DailyScheduleRepository scheduleRepository = mock(DailyScheduleRepository.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    private ScheduleExportService exportService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        InfusionRecipeRepository recipeRepository = mock(InfusionRecipeRepository.class);
+        PdfExportService pdfExportService = new PdfExportService(scheduleRepository, recipeRepository,
+                new SchedulePdfCache(cacheDirectory, 16), transactionManager, executor, new SimpleMeterRegistry());
+        exportService = new ScheduleExportService(
+                scheduleRepository, recipeRepository, pdfExportService,
+                transactionManager, executor, 2, 31);
+        
+        SaunaRoom groundFloor = room(1L, "Finnish Sauna", "Ground Floor");
+        SaunaRoom garden = room(2L, "Garden Sauna", "Garden");
+        List<DailySchedule> week = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            week.add(schedule(MONDAY.plusDays(day), groundFloor, garden));
+        }
+        when(scheduleRepository.findByDateBetweenWithSlots(MONDAY, MONDAY.plusDays(6))).thenReturn(week);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testZipExportContainsOneFilteredPdfPerDayInDateOrder() throws Exception {
+        // Arrange
+        List<ScheduleExportService.DayExport> days = exportService.prepare(MONDAY, MONDAY.plusDays(6), List.of("Garden"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> progress = new ArrayList<>();
+        
+        // Act
+        exportService.export(days, ExportFormat.ZIP, out, progress::add);
+        
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4, 5), progress);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (int day = 0; day < 5; day++) {
+                ZipEntry entry = zip.getNextEntry();
+                assertEquals("schedule-" + MONDAY.plusDays(day) + ".pdf", entry.getName());
+                
+                PdfReader reader = new PdfReader(zip.readAllBytes());
+                String text = new PdfTextExtractor(reader).getTextFromPage(1);
+                reader.close();
+                assertTrue(text.contains("Garden Sauna"));
+                assertFalse(text.contains("Finnish Sauna"), "Other locations should be filtered out");
+            }
+            assertNull(zip.getNextEntry());
+        }
+    }
+    
+    @Test
+    void testMergedExportContainsAllDays() throws Exception {
+        // Arrange
+        List<ScheduleExportService.DayExport> days = exportService.prepare(MONDAY, MONDAY.plusDays(6), null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        exportService.export(days, ExportFormat.MERGED, out, written -> { });
+        
+        // Assert
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            assertEquals(5, reader.getNumberOfPages());
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            assertTrue(extractor.getTextFromPage(1).contains("Monday, January 15, 2024"));
+            assertTrue(extractor.getTextFromPage(5).contains("Friday, January 19, 2024"));
+        } finally {
+            reader.close();
+        }
+    }
+    
+    @Test
+    void testRangesAreValidated() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.prepare(MONDAY, MONDAY.minusDays(1), null));
+        assertThrows(IllegalArgumentException.class, () -> exportService.prepare(MONDAY, MONDAY.plusDays(31), null));
+        assertThrows(IllegalArgumentException.class, () -> exportService.prepare(MONDAY.plusDays(7), MONDAY.plusDays(8), null),
+                "A range without schedules should be rejected");
+    }
+    
+    private DailySchedule schedule(LocalDate date, SaunaRoom... rooms) {
+        DailySchedule schedule = DailySchedule.builder().date(date).build();
+        InfusionRecipe recipe = InfusionRecipe.builder().id(1L).name("Nordic Aurora").build();
+        recipe.addStep(InfusionStep.builder().name("Round").durationSeconds(600).heatIntensity(5).scentDosageMl(0).build());
+        for (SaunaRoom room : rooms) {
+            schedule.addSlot(InfusionSlot.builder()
+                    .room(room)
+                    .recipe(recipe)
+                    .startTime(LocalTime.of(10, 0))
+                    .cancelled(false)
+                    .build());
+        }
+        return schedule;
+    }
+    
+    private SaunaRoom room(Long id, String name, String location) {
+        return SaunaRoom.builder()
+                .id(id)
+                .name(name)
+                .capacity(10)
+                .type(SaunaType.FINNISH)
+                .hasSoundSystem(false)
+                .requiredCoolDownMin(15)
+                .location(location)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.thermaflow.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SchedulePdfCache
+ */
+class SchedulePdfCacheTest {
+    
+    private static final int MB = 1024 * 1024;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testLeastRecentlyUsedDocumentIsEvictedBeyondSizeLimit() throws IOException {
+        // Arrange: room for two documents of 400 KB
+        SchedulePdfCache cache = new SchedulePdfCache(directory, 1);
+        cache.put("a", out -> out.write(new byte[400 * 1024]));
+        cache.put("b", out -> out.write(new byte[400 * 1024]));
+        cache.open("a").orElseThrow().close();
+        
+        // Act
+        cache.put("c", out -> out.write(new byte[400 * 1024]));
+        
+        // Assert
+        assertTrue(cache.contains("a"), "Recently read document should be kept");
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertFalse(Files.exists(directory.resolve("b.pdf")));
+        assertTrue(cache.getTotalSizeBytes() <= MB);
+    }
+    
+    @Test
+    void testWriteThroughCachesOnlyCompleteDocuments() throws IOException {
+        // Arrange
+        SchedulePdfCache cache = new SchedulePdfCache(directory, 16);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        
+        // Act
+        cache.write("complete", response, out -> out.write("%PDF".getBytes()));
+        assertThrows(IOException.class, () -> cache.write("failed", new ByteArrayOutputStream(), out -> {
+            out.write("%PD".getBytes());
+            throw new IOException("Client disconnected");
+        }));
+        
+        // Assert
+        assertEquals("%PDF", response.toString());
+        try (InputStream in = cache.open("complete").orElseThrow()) {
+            assertEquals("%PDF", new String(in.readAllBytes()));
+        }
+        assertTrue(cache.open("failed").isEmpty());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count(), "Unfinished writes should be removed");
+        }
+    }
+    
+    @Test
+    void testDocumentsFromPreviousRunAreReused() throws IOException {
+        // Arrange
+        new SchedulePdfCache(directory, 16).put("kept", out -> out.write(new byte[10]));
+        
+        // Act
+        SchedulePdfCache restarted = new SchedulePdfCache(directory, 16);
+        
+        // Assert
+        assertTrue(restarted.contains("kept"));
+        assertEquals(10, restarted.getTotalSizeBytes());
+    }
+}
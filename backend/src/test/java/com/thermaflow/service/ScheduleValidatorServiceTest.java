@@ -1,24 +1,36 @@
 package com.thermaflow.service;
 
 import com.thermaflow.dto.Conflict;
+import com.thermaflow.event.SlotChangedEvent;
 import com.thermaflow.model.*;
+import com.thermaflow.repository.EmployeeRepository;
 import com.thermaflow.repository.IngredientRepository;
+import com.thermaflow.repository.InfusionRecipeRepository;
 import com.thermaflow.repository.InfusionSlotRepository;
+import com.thermaflow.repository.ShiftPlanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -30,9 +42,24 @@ class ScheduleValidatorServiceTest {
     @Mock
     private InfusionSlotRepository slotRepository;
     
+    @Mock
+    private InfusionRecipeRepository recipeRepository;
+    
     @Mock
     private IngredientRepository ingredientRepository;
     
+    @Mock
+    private ShiftPlanRepository shiftPlanRepository;
+    
+    @Mock
+    private EmployeeRepository employeeRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
     @InjectMocks
     private ScheduleValidatorService validatorService;
     
@@ -169,4 +196,209 @@ class ScheduleValidatorServiceTest {
         assertTrue(conflicts.stream().anyMatch(c -> 
                 c.getType() == Conflict.ConflictType.ROOM_COOLDOWN_VIOLATION));
     }
+    
+    @Test
+    void testConflictIndexLoadedOnceAndUpdatedOnSlotChanges() {
+        // Arrange
+        InfusionSlot existingSlot = InfusionSlot.builder()
+                .id(1L)
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(LocalTime.of(10, 0))
+                .build();
+        
+        InfusionSlot newSlot = InfusionSlot.builder()
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(LocalTime.of(10, 2))
+                .build();
+        
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(List.of());
+        when(slotRepository.findById(1L)).thenReturn(Optional.of(existingSlot));
+        
+        // Act & Assert
+        assertTrue(validatorService.validate(newSlot).isEmpty(), "Day starts empty");
+        
+        validatorService.onSlotChanged(new SlotChangedEvent(
+                schedule.getDate(), 1L, SlotChangedEvent.ChangeType.CREATED));
+        List<Conflict> conflicts = validatorService.validate(newSlot);
+        assertTrue(conflicts.stream().anyMatch(c -> c.getType() == Conflict.ConflictType.EMPLOYEE_UNAVAILABLE));
+        assertTrue(conflicts.stream().anyMatch(c -> c.getType() == Conflict.ConflictType.ROOM_OCCUPIED));
+        
+        validatorService.onSlotChanged(new SlotChangedEvent(
+                schedule.getDate(), 1L, SlotChangedEvent.ChangeType.CANCELLED));
+        assertTrue(validatorService.validate(newSlot).isEmpty(), "Cancelled slot no longer conflicts");
+        
+        verify(slotRepository, times(1)).findByScheduleDateAndNotCancelled(any());
+    }
+    
+    @Test
+    void testValidateBatchFindsConflictsAmongCandidatesAndExistingSlots() {
+        // Arrange
+        InfusionSlot existingSlot = InfusionSlot.builder()
+                .id(1L)
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(LocalTime.of(9, 0))
+                .build();
+        
+        Employee otherEmployee = Employee.builder().id(2L).firstName("Jane").lastName("Doe").build();
+        List<InfusionSlot> candidates = List.of(
+                // Clashes with the existing slot
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(otherEmployee).startTime(LocalTime.of(9, 3)).build(),
+                // The next two are free on their own, but the second starts in the first one's cool-down
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(12, 0)).build(),
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(otherEmployee).startTime(LocalTime.of(12, 10)).build(),
+                // Fine
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(15, 0)).build()
+        );
+        
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(List.of(existingSlot));
+        
+        // Act
+        List<List<Conflict>> results = validatorService.validateBatch(schedule.getDate(), candidates);
+        
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).stream().anyMatch(c ->
+                c.getType() == Conflict.ConflictType.ROOM_OCCUPIED && c.getRelatedSlotId().equals(1L)));
+        assertTrue(results.get(1).stream().anyMatch(c ->
+                c.getType() == Conflict.ConflictType.ROOM_COOLDOWN_VIOLATION && c.getMessage().endsWith("(batch entry 2)")));
+        assertTrue(results.get(2).stream().anyMatch(c ->
+                c.getType() == Conflict.ConflictType.ROOM_COOLDOWN_VIOLATION && c.getMessage().endsWith("(batch entry 1)")));
+        assertTrue(results.get(3).isEmpty(), "Last candidate should be free");
+    }
+    
+    @Test
+    void testValidateBatchAccumulatesInventoryDemand() {
+        // Arrange
+        ingredient.setStockLevel(120); // Enough for two slots of 50 ml, not for three
+        List<InfusionSlot> candidates = List.of(
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(14, 0)).build(),
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(10, 0)).build(),
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(12, 0)).build()
+        );
+        
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(List.of());
+        
+        // Act
+        List<List<Conflict>> results = validatorService.validateBatch(schedule.getDate(), candidates);
+        
+        // Assert: the chronologically last slot runs out
+        assertEquals(Conflict.ConflictType.INSUFFICIENT_INVENTORY, results.get(0).get(0).getType());
+        assertTrue(results.get(1).isEmpty());
+        assertTrue(results.get(2).isEmpty());
+    }
+    
+    @Test
+    void testValidateChecksShiftAndSkills() {
+        // Arrange
+        recipe.setRequiredSkills(Set.of(EmployeeSkill.HIGH_HEAT));
+        InfusionSlot lateSlot = InfusionSlot.builder()
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(LocalTime.of(15, 58)) // Runs past the end of the shift at 16:00
+                .build();
+        
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(List.of());
+        when(shiftPlanRepository.findByDate(any())).thenReturn(List.of(ShiftPlan.builder()
+                .employee(employee)
+                .date(schedule.getDate())
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(16, 0))
+                .build()));
+        
+        // Act
+        List<Conflict> conflicts = validatorService.validate(lateSlot);
+        
+        // Assert
+        assertEquals(2, conflicts.size());
+        assertTrue(conflicts.stream().anyMatch(c ->
+                c.getType() == Conflict.ConflictType.EMPLOYEE_UNAVAILABLE && c.getMessage().contains("not on shift")));
+        assertTrue(conflicts.stream().anyMatch(c ->
+                c.getType() == Conflict.ConflictType.EMPLOYEE_SKILL_MISSING && c.getMessage().contains("HIGH_HEAT")));
+        
+        assertEquals(1.0, meterRegistry.get("thermaflow.validation.conflicts")
+                .tag("type", "EMPLOYEE_SKILL_MISSING").counter().count());
+        
+        employee.setSkills(Set.of(EmployeeSkill.HIGH_HEAT));
+        lateSlot.setStartTime(LocalTime.of(15, 55));
+        assertTrue(validatorService.validate(lateSlot).isEmpty(), "Within the shift and qualified");
+        verify(shiftPlanRepository, times(1)).findByDate(any());
+        assertEquals(1, meterRegistry.get("thermaflow.validation").tags("operation", "slot", "result", "valid").timer().count());
+        assertEquals(1, meterRegistry.get("thermaflow.validation").tags("operation", "slot", "result", "conflicts").timer().count());
+    }
+    
+    @Test
+    void testEmptyShiftPlansOfUpcomingDaysAreNotCached() {
+        // Arrange - no shifts entered yet for tomorrow
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        when(shiftPlanRepository.findByDate(tomorrow))
+                .thenReturn(List.of())
+                .thenReturn(List.of(ShiftPlan.builder()
+                        .employee(employee)
+                        .date(tomorrow)
+                        .startTime(LocalTime.of(8, 0))
+                        .endTime(LocalTime.of(16, 0))
+                        .build()));
+        
+        // Act
+        DailyShifts unplanned = validatorService.shiftsFor(tomorrow);
+        DailyShifts planned = validatorService.shiftsFor(tomorrow);
+        
+        // Assert
+        assertTrue(unplanned.isEmpty());
+        assertFalse(planned.isEmpty(), "The entered plan is seen on the next check");
+        assertSame(planned, validatorService.shiftsFor(tomorrow));
+        validatorService.refreshShifts();
+        validatorService.shiftsFor(tomorrow);
+        verify(shiftPlanRepository, times(3)).findByDate(tomorrow);
+    }
+    
+    @Test
+    void testDailyMaximumCountsExistingSlotsAndEarlierCandidates() {
+        // Arrange
+        employee.setDailyMaxInfusions(3);
+        InfusionSlot existingSlot = InfusionSlot.builder()
+                .id(1L)
+                .schedule(schedule)
+                .room(room)
+                .recipe(recipe)
+                .employee(employee)
+                .startTime(LocalTime.of(9, 0))
+                .build();
+        List<InfusionSlot> candidates = List.of(
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(14, 0)).build(),
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(10, 0)).build(),
+                InfusionSlot.builder().schedule(schedule).room(room).recipe(recipe)
+                        .employee(employee).startTime(LocalTime.of(12, 0)).build()
+        );
+        
+        when(slotRepository.findByScheduleDateAndNotCancelled(any())).thenReturn(List.of(existingSlot));
+        
+        // Act
+        List<List<Conflict>> results = validatorService.validateBatch(schedule.getDate(), candidates);
+        
+        // Assert: the existing slot and the two earlier candidates reach the maximum
+        assertEquals(Conflict.ConflictType.EMPLOYEE_MAX_INFUSIONS_EXCEEDED, results.get(0).get(0).getType());
+        assertTrue(results.get(1).isEmpty());
+        assertTrue(results.get(2).isEmpty());
+    }
 }
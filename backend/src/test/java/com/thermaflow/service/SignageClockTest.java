@@ -0,0 +1,123 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.SignageDisplayDTO;
+import com.thermaflow.event.SlotChangedEvent;
+import com.thermaflow.event.SlotTransitionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SignageClockTest {
+    
+    @Mock
+    private DigitalSignageService signageService;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private SignageClock clock;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new SignageClock(signageService, eventPublisher);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        clock.shutdown();
+    }
+    
+    @Test
+    void testPublishesTransitionsAtSlotBoundaries() {
+        // Arrange - slot 1 is running, slot 2 starts in one second and ends a second later
+        int now = LocalTime.now().toSecondOfDay();
+        when(signageService.getTimeline(LocalDate.now())).thenReturn(List.of(
+                entry(1L, now - 60, now + 600),
+                entry(2L, now + 1, now + 2)));
+        
+        // Act
+        clock.start();
+        
+        // Assert - initial state, slot 2 starting, slot 2 ending
+        ArgumentCaptor<SlotTransitionEvent> events = ArgumentCaptor.forClass(SlotTransitionEvent.class);
+        verify(eventPublisher, timeout(5000).times(3)).publishEvent(events.capture());
+        
+        List<SlotTransitionEvent> published = events.getAllValues();
+        assertThat(published.get(0).getRunningSlotIds()).containsExactly(1L);
+        assertThat(published.get(1).getStartedSlotIds()).containsExactly(2L);
+        assertThat(published.get(1).getRunningSlotIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(published.get(2).getEndedSlotIds()).containsExactly(2L);
+        assertThat(published.get(2).getRunningSlotIds()).containsExactly(1L);
+        assertThat(clock.getRunningSlotIds()).isEqualTo(Set.of(1L));
+    }
+    
+    @Test
+    void testNoTransitionWithoutBoundaries() throws InterruptedException {
+        // Arrange - a single slot that ended an hour ago
+        int now = LocalTime.now().toSecondOfDay();
+        when(signageService.getTimeline(LocalDate.now())).thenReturn(List.of(
+                entry(1L, now - 7200, now - 3600)));
+        
+        // Act
+        clock.start();
+        Thread.sleep(1500);
+        
+        // Assert - only the initial resync
+        ArgumentCaptor<SlotTransitionEvent> events = ArgumentCaptor.forClass(SlotTransitionEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(events.capture());
+        assertThat(events.getValue().isBoundary()).isFalse();
+        assertThat(clock.getRunningSlotIds()).isEmpty();
+    }
+    
+    @Test
+    void testCoalescesRebuildsOfABatchOfSlotChanges() throws InterruptedException {
+        // Arrange - the first rebuild is held until all further changes have been committed
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(signageService.getTimeline(LocalDate.now())).thenAnswer(invocation -> {
+            rebuilding.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        clock.onSlotChanged(new SlotChangedEvent(LocalDate.now(), 1L, SlotChangedEvent.ChangeType.CREATED));
+        assertThat(rebuilding.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        // Act
+        for (long slotId = 2; slotId <= 200; slotId++) {
+            clock.onSlotChanged(new SlotChangedEvent(LocalDate.now(), slotId, SlotChangedEvent.ChangeType.CREATED));
+        }
+        release.countDown();
+        
+        // Assert - the running rebuild plus one for all changes committed meanwhile
+        verify(eventPublisher, timeout(5000).times(2)).publishEvent(any(SlotTransitionEvent.class));
+        verify(signageService, times(2)).getTimeline(LocalDate.now());
+    }
+    
+    private SignageSnapshot.Entry entry(Long slotId, int startSecond, int endSecond) {
+        SignageDisplayDTO display = SignageDisplayDTO.builder()
+                .slotId(slotId)
+                .roomName("Finnish Sauna")
+                .build();
+        return new SignageSnapshot.Entry(display, startSecond, endSecond);
+    }
+}
@@ -0,0 +1,146 @@
+package com.thermaflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thermaflow.config.AsyncConfig;
+import com.thermaflow.dto.SignageDisplayDTO;
+import com.thermaflow.event.SlotChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SignageStreamServiceTest {
+    
+    @Mock
+    private DigitalSignageService signageService;
+    
+    // The writer the application uses on platform threads
+    private final ThreadPoolTaskExecutor writer = (ThreadPoolTaskExecutor) new AsyncConfig(null).platformSignageWriterExecutor();
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    
+    private SignageStreamService streamService;
+    
+    @BeforeEach
+    void setUp() {
+        streamService = new SignageStreamService(signageService, new ObjectMapper(), writer, 60_000);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        unstall.countDown();
+        streamService.shutdown();
+        writer.shutdown();
+    }
+    
+    @Test
+    void testStalledScreenDoesNotDelayOthersAndIsDisconnected() throws Exception {
+        // Arrange - one screen blocks on its first write, like a full TCP buffer
+        when(signageService.getTodaySchedule())
+                .thenReturn(List.of(display(1L)))
+                .thenReturn(List.of(display(1L)))
+                .thenReturn(List.of(display(1L), display(2L)));
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        streamService.subscribe(new StalledEmitter(), null);
+        streamService.subscribe(new RecordingEmitter(received), null);
+        assertThat(received.poll(5, TimeUnit.SECONDS)).contains("event:snapshot");
+        
+        // Act
+        streamService.onSlotChanged(new SlotChangedEvent(LocalDate.now(), 2L, SlotChangedEvent.ChangeType.CREATED));
+        
+        // Assert - the other screen gets the diff while the stalled one is still blocked
+        assertThat(received.poll(5, TimeUnit.SECONDS)).contains("event:diff");
+        assertThat(streamService.getSubscriberCount()).isEqualTo(2);
+        
+        // Falling too far behind disconnects the stalled screen
+        for (int i = 0; i <= SignageStreamService.MAX_QUEUED_FRAMES; i++) {
+            streamService.sendHeartbeat();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (streamService.getSubscriberCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(streamService.getSubscriberCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void testManyScreensAndStalledScreensDoNotExhaustTheWriter() throws Exception {
+        // Arrange - more screens than the shared async pool could take, and more stalled screens than its threads
+        AtomicReference<List<SignageDisplayDTO>> schedule = new AtomicReference<>(List.of(display(1L)));
+        when(signageService.getTodaySchedule()).thenAnswer(invocation -> schedule.get());
+        int stalledScreens = 60;
+        int healthyScreens = 240;
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        for (int i = 0; i < stalledScreens; i++) {
+            streamService.subscribe(new StalledEmitter(), null);
+        }
+        for (int i = 0; i < healthyScreens; i++) {
+            streamService.subscribe(new RecordingEmitter(received), null);
+        }
+        for (int i = 0; i < healthyScreens; i++) {
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains("event:snapshot");
+        }
+        
+        // Act
+        schedule.set(List.of(display(1L), display(2L)));
+        streamService.onSlotChanged(new SlotChangedEvent(LocalDate.now(), 2L, SlotChangedEvent.ChangeType.CREATED));
+        
+        // Assert - every healthy screen gets the diff and no screen was dropped
+        for (int i = 0; i < healthyScreens; i++) {
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains("event:diff");
+        }
+        assertThat(streamService.getSubscriberCount()).isEqualTo(stalledScreens + healthyScreens);
+    }
+    
+    private static SignageDisplayDTO display(Long slotId) {
+        return SignageDisplayDTO.builder().slotId(slotId).roomName("Room " + slotId).build();
+    }
+    
+    private static String text(Set<DataWithMediaType> frame) {
+        return frame.stream().map(data -> data.getData().toString()).collect(Collectors.joining());
+    }
+    
+    private class StalledEmitter extends SseEmitter {
+        
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            try {
+                unstall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static class RecordingEmitter extends SseEmitter {
+        
+        private final BlockingQueue<String> received;
+        
+        RecordingEmitter(BlockingQueue<String> received) {
+            this.received = received;
+        }
+        
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            received.add(text(items));
+        }
+    }
+}
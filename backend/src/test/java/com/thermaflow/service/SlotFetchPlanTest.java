@@ -0,0 +1,213 @@
+package com.thermaflow.service;
+
+import com.thermaflow.dto.InfusionSlotDTO;
+import com.thermaflow.dto.SlotMapper;
+import com.thermaflow.model.*;
+import com.thermaflow.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the fetch plans of the day queries: every use case loads a full day,
+ * with all rooms, recipes, steps, ingredients and employees it reads, in a constant number of statements.
+ * The read models of the listing and signage are aggregated by the database without loading entities.
+ */
+@SpringBootTest
+class SlotFetchPlanTest {
+    
+    private static final int ROOMS = 3;
+    private static final int EMPLOYEES = 3;
+    private static final int RECIPES = 4;
+    private static final int SLOTS = 12;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private InfusionSlotRepository slotRepository;
+    
+    @Autowired
+    private DailyScheduleRepository scheduleRepository;
+    
+    @Autowired
+    private InfusionRecipeRepository recipeRepository;
+    
+    @Autowired
+    private IngredientRepository ingredientRepository;
+    
+    @Autowired
+    private SaunaRoomRepository roomRepository;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private SlotMapper slotMapper;
+    
+    @Autowired
+    private PdfExportService pdfExportService;
+    
+    private Statistics statistics;
+    private boolean statisticsEnabled;
+    private LocalDate date;
+    private String suffix;
+    
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString();
+        List<SaunaRoom> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(roomRepository.save(SaunaRoom.builder()
+                    .name("Fetch Room " + i + " " + suffix)
+                    .capacity(20)
+                    .type(SaunaType.FINNISH)
+                    .hasSoundSystem(false)
+                    .requiredCoolDownMin(10)
+                    .location("Ground Floor")
+                    .build()));
+        }
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(employeeRepository.save(Employee.builder()
+                    .firstName("Fetch " + i)
+                    .lastName(suffix)
+                    .certificationLevel(3)
+                    .dailyMaxInfusions(SLOTS)
+                    .skills(Set.of(EmployeeSkill.WENIK))
+                    .active(true)
+                    .build()));
+        }
+        List<InfusionRecipe> recipes = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            InfusionRecipe recipe = InfusionRecipe.builder()
+                    .name("Fetch Recipe " + i + " " + suffix)
+                    .theme("Theme " + i)
+                    .build();
+            for (int step = 0; step < 2; step++) {
+                recipe.addStep(InfusionStep.builder()
+                        .name("Round " + step)
+                        .durationSeconds(300)
+                        .heatIntensity(3 + step)
+                        .scentDosageMl(10)
+                        .ingredient(ingredientRepository.save(Ingredient.builder()
+                                .name("Fetch Oil " + i + "." + step + " " + suffix)
+                                .viscosity(20)
+                                .scentProfile(ScentProfile.values()[(i + step) % ScentProfile.values().length])
+                                .stockLevel(1000)
+                                .costPerMl(BigDecimal.valueOf(0.10))
+                                .build()))
+                        .build());
+            }
+            recipes.add(recipeRepository.save(recipe));
+        }
+        
+        // A far-away date keeps these slots out of today's signage
+        date = LocalDate.of(2099, 1, 1).plusDays(Math.floorMod(suffix.hashCode(), 3000));
+        DailySchedule schedule = scheduleRepository.save(DailySchedule.builder().date(date).build());
+        for (int i = 0; i < SLOTS; i++) {
+            slotRepository.save(InfusionSlot.builder()
+                    .schedule(schedule)
+                    .room(rooms.get(i % ROOMS))
+                    .recipe(recipes.get(i % RECIPES))
+                    .employee(employees.get(i % EMPLOYEES))
+                    .startTime(LocalTime.of(8, 0).plusMinutes(i * 30L))
+                    .confirmed(false)
+                    .cancelled(false)
+                    .build());
+        }
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(statisticsEnabled);
+    }
+    
+    @Test
+    void testSignageViewsAggregateADayWithoutLoadingEntities() {
+        // Act
+        List<SignageSlotView> slots = slotRepository.findSignageViewsByDate(date);
+        List<RecipeScentView> scents = slotRepository.findRecipeScentsByDate(date);
+        
+        // Assert
+        assertEquals(SLOTS, slots.size());
+        assertEquals(600L, slots.get(0).durationSeconds());
+        assertEquals(3.5, slots.get(0).averageHeatIntensity());
+        assertEquals(RECIPES * 2, scents.size(), "Two distinct scents per recipe");
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
+    @Test
+    void testValidationLoadsADayWithTwoStatements() {
+        // Act
+        ScheduleConflictIndex index = inFreshPersistenceContext(
+                () -> ScheduleConflictIndex.of(withSteps(slotRepository.findByScheduleDateAndNotCancelled(date))));
+        
+        // Assert
+        assertEquals(SLOTS, index.size());
+        assertEquals(2, statistics.getPrepareStatementCount(), "Slots, then recipe steps");
+    }
+    
+    @Test
+    void testListingViewsAggregateADayWithOneStatement() {
+        // Act
+        List<InfusionSlotDTO> slots = slotRepository.findListingViewsByDate(date).stream()
+                .map(slotMapper::toDTO)
+                .toList();
+        
+        // Assert
+        assertEquals(SLOTS, slots.size());
+        assertEquals(LocalTime.of(8, 10), slots.get(0).getEndTime());
+        assertEquals("Fetch 0 " + suffix, slots.get(0).getEmployeeName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+    
+    @Test
+    void testPdfRowsLoadADayWithTwoStatements() {
+        // Act
+        List<PdfExportService.ScheduleRow> rows = pdfExportService.prepareRows(date).orElseThrow();
+        
+        // Assert
+        assertEquals(SLOTS, rows.size());
+        assertEquals(2, statistics.getPrepareStatementCount(), "Schedule with slots, then recipe steps");
+    }
+    
+    private List<InfusionSlot> withSteps(List<InfusionSlot> slots) {
+        recipeRepository.fetchSteps(slots);
+        return slots;
+    }
+    
+    private <T> T inFreshPersistenceContext(Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> work.get());
+    }
+}